@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# 训练 CDS 归档，并比较默认模式、fast-startup 模式、fast-startup + CDS 三种情况下的启动耗时。
+# 耗时为 JVM 启动到 Spring 上下文刷新完成（spring.context.exit=onRefresh）的墙钟时间，取中位数。
+#
+# 用法: scripts/startup-benchmark.sh [每种模式运行次数，默认5]
+# 需要可连接的 MySQL，连接信息可用 SPRING_DATASOURCE_URL / SPRING_DATASOURCE_USERNAME / SPRING_DATASOURCE_PASSWORD 覆盖。
+# 在 GitHub Actions 中运行时结果同时写入 $GITHUB_STEP_SUMMARY。
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+WORK_DIR=target/cds
+
+if ! ls target/HotelSystem-*.jar >/dev/null 2>&1; then
+    sh mvnw -B -q -DskipTests package
+fi
+JAR=$(ls target/HotelSystem-*.jar | head -n 1)
+
+# CDS 要求类路径由独立的 jar 组成，先解压为 应用jar + lib/ 的布局
+rm -rf "$WORK_DIR"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK_DIR"
+APP_JAR="$WORK_DIR/$(basename "$JAR")"
+
+echo "训练 CDS 归档..."
+java -XX:ArchiveClassesAtExit="$WORK_DIR/application.jsa" -Dspring.context.exit=onRefresh \
+    -jar "$APP_JAR" --spring.profiles.active=fast-startup >"$WORK_DIR/training.log" 2>&1
+
+# 运行 N 次，输出耗时中位数（毫秒）
+measure() {
+    local profile=$1
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        local start end
+        start=$(date +%s%N)
+        java "$@" -Dspring.context.exit=onRefresh -jar "$APP_JAR" \
+            --spring.profiles.active="$profile" >"$WORK_DIR/run.log" 2>&1
+        end=$(date +%s%N)
+        times+=($(( (end - start) / 1000000 )))
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }'
+}
+
+DEFAULT_MS=$(measure default)
+FAST_MS=$(measure fast-startup)
+CDS_MS=$(measure fast-startup -XX:SharedArchiveFile="$WORK_DIR/application.jsa")
+
+REPORT=$(cat <<REPORT
+### 启动耗时（中位数，${RUNS} 次）
+
+| 模式 | 耗时 (ms) |
+|------|----------:|
+| 默认（ddl-auto: update，全部提前初始化） | ${DEFAULT_MS} |
+| fast-startup | ${FAST_MS} |
+| fast-startup + CDS | ${CDS_MS} |
+REPORT
+)
+
+echo "$REPORT"
+if [ -n "${GITHUB_STEP_SUMMARY:-}" ]; then
+    echo "$REPORT" >>"$GITHUB_STEP_SUMMARY"
+fi
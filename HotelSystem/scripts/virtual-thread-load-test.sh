@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# 分别以平台线程和虚拟线程模式启动应用，用独立 JVM 中的 LoadTestRunner 压测，比较两种模式的吞吐量和延迟。
+# 应用和压测客户端各占一个进程，客户端的线程不会占用服务端的 CPU 和调度器。
+#
+# 用法: scripts/virtual-thread-load-test.sh [并发数，默认2000] [时长，默认120s]
+# 需要 JDK 21 及以上（虚拟线程模式在更早的 JDK 上会退回平台线程）。应用使用 loadtest profile 的内嵌 H2。
+# 两种模式的报告分别写入 target/loadtest/platform.txt 和 target/loadtest/virtual.txt。
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONCURRENCY="${1:-2000}"
+DURATION="${2:-120s}"
+PORT="${LOADTEST_PORT:-18080}"
+OUT_DIR=target/loadtest
+
+JAVA_MAJOR=$(java -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ { print $2 }')
+if [ "${JAVA_MAJOR%%.*}" -lt 21 ]; then
+    echo "需要 JDK 21 及以上，当前为 ${JAVA_MAJOR}" >&2
+    exit 1
+fi
+
+mkdir -p "$OUT_DIR"
+sh mvnw -B -q test-compile dependency:build-classpath \
+    -Dmdep.includeScope=test -Dmdep.outputFile="$OUT_DIR/classpath.txt"
+CLASSPATH="target/classes:target/test-classes:$(cat "$OUT_DIR/classpath.txt")"
+
+APP_PID=
+stop_app() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+# 启动应用并等待端口可用，然后在另一个 JVM 中压测
+run_mode() {
+    local name=$1 profiles=$2 flag=$3
+    java -Xms1g -Xmx1g -cp "$CLASSPATH" com.hotelsystem.HotelSystemApplication \
+        --spring.profiles.active="$profiles" --server.port="$PORT" >"$OUT_DIR/$name-app.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 120); do
+        if curl -s -o /dev/null "http://localhost:$PORT/"; then
+            break
+        fi
+        sleep 1
+    done
+
+    java -Xms1g -Xmx1g -cp "$CLASSPATH" com.hotelsystem.loadtest.LoadTestRunner \
+        --target="http://localhost:$PORT" --concurrency="$CONCURRENCY" --duration="$DURATION" \
+        --virtual-threads="$flag" | tee "$OUT_DIR/$name.txt"
+    stop_app
+}
+
+run_mode platform loadtest false
+run_mode virtual loadtest,virtual-threads true
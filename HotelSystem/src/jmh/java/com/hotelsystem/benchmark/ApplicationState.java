@@ -0,0 +1,83 @@
+package com.hotelsystem.benchmark;
+
+import com.hotelsystem.HotelSystemApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// 以 bench profile 启动完整应用（内嵌 H2），并直接用 JDBC 批量写入测试数据
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    public static final int ROOMS = 200;
+    public static final int GUESTS = 1_000;
+    public static final int RESERVATIONS = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(HotelSystemApplication.class)
+                .profiles("bench")
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rooms = new ArrayList<>();
+        for (int i = 1; i <= ROOMS; i++) {
+            rooms.add(new Object[]{"R" + i, "标准大床房", "基准测试房间", new BigDecimal("299.00"), 2,
+                    "WiFi,空调,电视", "AVAILABLE", true, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (room_number, room_type, description, price, capacity, " +
+                "amenities, status, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rooms);
+
+        List<Object[]> guests = new ArrayList<>();
+        for (int i = 1; i <= GUESTS; i++) {
+            guests.add(new Object[]{"宾客" + i, String.format("1101011990%08d", i), "138" + String.format("%08d", i),
+                    "guest" + i + "@example.com", "MALE", Date.valueOf(LocalDate.of(1990, 1, 1)), "北京市朝阳区",
+                    "无烟", "无", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO guests (full_name, id_card_number, phone, email, gender, " +
+                "date_of_birth, address, preferences, special_requests, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", guests);
+
+        List<Object[]> reservations = new ArrayList<>();
+        LocalDate base = LocalDate.now().minusYears(1);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            long roomId = i % ROOMS + 1;
+            LocalDate checkIn = base.plusDays((long) (i / ROOMS) * 3);
+            reservations.add(new Object[]{"RSV-BENCH-" + i, (long) (i % GUESTS + 1), roomId,
+                    Date.valueOf(checkIn), Date.valueOf(checkIn.plusDays(2)), 2,
+                    new BigDecimal("598.00"), new BigDecimal("0.00"), i % 5 == 0 ? "CHECKED_OUT" : "CONFIRMED",
+                    "无", "bench", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reservations (reservation_number, guest_id, room_id, check_in_date, " +
+                "check_out_date, number_of_guests, total_amount, paid_amount, status, special_requests, created_by, " +
+                "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", reservations);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hotelsystem.benchmark;
+
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.entity.Guest;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.entity.Room;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// 不依赖数据库的内存测试数据
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Reservation reservation(long id) {
+        Guest guest = new Guest();
+        guest.setId(id % 1000 + 1);
+        guest.setFullName("张三");
+        guest.setIdCardNumber("110101199001011234");
+
+        Room room = new Room();
+        room.setId(id % 200 + 1);
+        room.setRoomNumber("101");
+        room.setRoomType("标准大床房");
+        room.setPrice(new BigDecimal("299.00"));
+
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setReservationNumber("RSV" + (1_700_000_000_000L + id));
+        reservation.setGuest(guest);
+        reservation.setRoom(room);
+        reservation.setCheckInDate(LocalDate.of(2025, 10, 20));
+        reservation.setCheckOutDate(LocalDate.of(2025, 10, 22));
+        reservation.setNumberOfGuests(2);
+        reservation.setTotalAmount(new BigDecimal("598.00"));
+        reservation.setPaidAmount(new BigDecimal("598.00"));
+        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        reservation.setSpecialRequests("需要鲜花布置");
+        reservation.setCreatedBy("admin");
+        reservation.setCreatedAt(LocalDateTime.of(2025, 10, 1, 12, 0));
+        reservation.setUpdatedAt(LocalDateTime.of(2025, 10, 1, 12, 0));
+        return reservation;
+    }
+
+    static ApiResponse<List<ReservationDto>> reservationPage(int rows) {
+        List<ReservationDto> reservations = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            reservations.add(ReservationDto.fromEntity(reservation(i + 1)));
+        }
+        return ApiResponse.success(reservations);
+    }
+}
@@ -0,0 +1,45 @@
+package com.hotelsystem.benchmark;
+
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.entity.Reservation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 预订实体与 DTO 之间的转换，列表接口每一行都会走一次
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoMappingBenchmark {
+
+    private Reservation reservation;
+    private ReservationDto dto;
+
+    @Setup
+    public void setUp() {
+        reservation = BenchmarkData.reservation(1);
+        dto = ReservationDto.fromEntity(reservation);
+    }
+
+    @Benchmark
+    public ReservationDto fromEntity() {
+        return ReservationDto.fromEntity(reservation);
+    }
+
+    @Benchmark
+    public Reservation toEntity() {
+        return dto.toEntity();
+    }
+}
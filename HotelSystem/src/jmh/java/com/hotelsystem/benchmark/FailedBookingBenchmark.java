@@ -0,0 +1,104 @@
+package com.hotelsystem.benchmark;
+
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.exception.DomainException;
+import com.hotelsystem.exception.ErrorCode;
+import com.hotelsystem.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// 预订失败路径的吞吐：在与请求处理相近的调用栈深度下，对比带调用栈的 RuntimeException
+// 与预先创建、不记录调用栈的 DomainException；以及完整的 createReservation 冲突场景
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FailedBookingBenchmark {
+
+    // Tomcat、安全过滤器链和 Spring 代理叠加后，业务代码通常在 100 层以上的调用栈中
+    @Param({"20", "150"})
+    private int depth;
+
+    @Benchmark
+    public String stackTraceException() {
+        try {
+            return failAt(depth, false, false);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String preallocatedException() {
+        try {
+            return failAt(depth, true, false);
+        } catch (DomainException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String stacklessExceptionWithDetail() {
+        try {
+            return failAt(depth, true, true);
+        } catch (DomainException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String conflictingReservation(Booking booking) {
+        try {
+            booking.reservationService.createReservation(booking.conflicting);
+            throw new IllegalStateException("预订应当因日期冲突而失败");
+        } catch (DomainException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String failAt(int depth, boolean domain, boolean detail) {
+        if (depth > 0) {
+            return failAt(depth - 1, domain, detail);
+        }
+        if (!domain) {
+            throw new RuntimeException("房间在指定日期不可用");
+        }
+        throw detail ? ErrorCode.ROOM_NOT_FOUND.exception(42L) : ErrorCode.ROOM_UNAVAILABLE.exception();
+    }
+
+    // 种子数据中 2 号房间从一年前起有一条已确认预订，同日期再订必然冲突
+    @State(Scope.Benchmark)
+    public static class Booking {
+
+        private ReservationService reservationService;
+        private ReservationDto conflicting;
+
+        @Setup
+        public void setUp(ApplicationState application) {
+            reservationService = application.getBean(ReservationService.class);
+            LocalDate checkIn = LocalDate.now().minusYears(1);
+            conflicting = new ReservationDto();
+            conflicting.setGuestId(2L);
+            conflicting.setRoomId(2L);
+            conflicting.setCheckInDate(checkIn);
+            conflicting.setCheckOutDate(checkIn.plusDays(2));
+            conflicting.setNumberOfGuests(2);
+        }
+    }
+}
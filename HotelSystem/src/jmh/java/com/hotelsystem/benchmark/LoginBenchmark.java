@@ -0,0 +1,53 @@
+package com.hotelsystem.benchmark;
+
+import com.hotelsystem.dto.LoginRequest;
+import com.hotelsystem.dto.LoginResponse;
+import com.hotelsystem.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// 登录耗时几乎全部花在 BCrypt 上，单独测一次 matches 便于对照
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private AuthService authService;
+    private LoginRequest request;
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp(ApplicationState application) {
+        authService = application.getBean(AuthService.class);
+        request = new LoginRequest();
+        request.setUsername("admin");
+        request.setPassword("admin123");
+        encoder = new BCryptPasswordEncoder();
+        hash = encoder.encode("admin123");
+    }
+
+    @Benchmark
+    public LoginResponse login() {
+        return authService.login(request);
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return encoder.matches("admin123", hash);
+    }
+}
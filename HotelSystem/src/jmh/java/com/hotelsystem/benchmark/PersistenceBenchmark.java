@@ -0,0 +1,64 @@
+package com.hotelsystem.benchmark;
+
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 可用性冲突查询，以及 10k 行预订列表的实体加载与 DTO 投影对比
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    private ReservationRepository reservationRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp(ApplicationState application) {
+        reservationRepository = application.getBean(ReservationRepository.class);
+        readOnly = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @Benchmark
+    public List<Reservation> conflictingReservations() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long roomId = random.nextLong(1, ApplicationState.ROOMS + 1);
+        LocalDate checkIn = LocalDate.now().minusDays(random.nextInt(0, 365));
+        return reservationRepository.findConflictingReservations(roomId, checkIn, checkIn.plusDays(2), null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<ReservationDto> entityPage() {
+        return readOnly.execute(status -> reservationRepository.findAll().stream()
+                .map(ReservationDto::fromEntity)
+                .toList());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<ReservationDto> projectionPage() {
+        return readOnly.execute(status -> reservationRepository.findAllDtos());
+    }
+}
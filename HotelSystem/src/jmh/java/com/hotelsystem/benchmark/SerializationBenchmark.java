@@ -0,0 +1,88 @@
+package com.hotelsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.dto.ReservationDto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 10k 条预订的列表响应分别编码为 JSON / CBOR / Smile，编码后的字节数作为辅助计数器 payloadBytes 随结果输出。
+// ObjectMapper 取自应用实际注册的消息转换器（CBOR / Smile 为 WebConfig 替换后的转换器）
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"10000"})
+    private int rows;
+
+    private ObjectMapper mapper;
+    private ApiResponse<List<ReservationDto>> payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp(ApplicationState application) throws IOException {
+        MediaType mediaType = switch (format) {
+            case "cbor" -> MediaType.APPLICATION_CBOR;
+            case "smile" -> MediaType.valueOf("application/x-jackson-smile");
+            default -> MediaType.APPLICATION_JSON;
+        };
+        mapper = application.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(converter -> converter instanceof AbstractJackson2HttpMessageConverter
+                        && converter.getSupportedMediaTypes().contains(mediaType))
+                .map(converter -> ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("应用没有注册 " + mediaType + " 转换器"));
+        payload = BenchmarkData.reservationPage(rows);
+        encoded = mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadSize size) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(payload);
+        size.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public JsonNode parse() throws IOException {
+        return mapper.readTree(encoded);
+    }
+
+    // 每次编码的字节数，按原值报告而不是按时间折算
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+}
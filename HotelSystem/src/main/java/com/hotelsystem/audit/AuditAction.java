@@ -0,0 +1,26 @@
+package com.hotelsystem.audit;
+
+public enum AuditAction {
+    INSERT(1),
+    UPDATE(2),
+    DELETE(3);
+
+    private final byte code;
+
+    AuditAction(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static AuditAction fromCode(byte code) {
+        for (AuditAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("未知的审计操作类型: " + code);
+    }
+}
@@ -0,0 +1,26 @@
+package com.hotelsystem.audit;
+
+public enum AuditEntityType {
+    RESERVATION(1),
+    ROOM(2),
+    GUEST(3);
+
+    private final byte code;
+
+    AuditEntityType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static AuditEntityType fromCode(byte code) {
+        for (AuditEntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的审计实体类型: " + code);
+    }
+}
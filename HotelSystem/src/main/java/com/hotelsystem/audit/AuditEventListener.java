@@ -0,0 +1,167 @@
+package com.hotelsystem.audit;
+
+import com.hotelsystem.entity.Guest;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.entity.Room;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// 事务提交后把预订、房间、宾客的变更前后值写入审计日志，回滚的修改不会被记录
+@Component
+@RequiredArgsConstructor
+public class AuditEventListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    // 自动维护的时间字段不记入更新差异
+    private static final Set<String> IGNORED_ON_UPDATE = Set.of("createdAt", "updatedAt");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditJournal auditJournal;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return entityType(persister.getMappedClass()) != null;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        AuditEntityType type = entityType(event.getPersister().getMappedClass());
+        if (type == null) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            changes.put(names[i], new Object[]{null, normalize(event.getState()[i])});
+        }
+        auditJournal.append(type, (Long) event.getId(), AuditAction.INSERT, changes);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        AuditEntityType type = entityType(event.getPersister().getMappedClass());
+        if (type == null) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (IGNORED_ON_UPDATE.contains(names[i])) {
+                continue;
+            }
+            Object before = oldState != null ? normalize(oldState[i]) : null;
+            Object after = normalize(state[i]);
+            if (oldState == null ? isDirty(event.getDirtyProperties(), i) : !sameValue(before, after)) {
+                changes.put(names[i], new Object[]{before, after});
+            }
+        }
+        if (!changes.isEmpty()) {
+            auditJournal.append(type, (Long) event.getId(), AuditAction.UPDATE, changes);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        AuditEntityType type = entityType(event.getPersister().getMappedClass());
+        if (type == null) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        Object[] deletedState = event.getDeletedState();
+        for (int i = 0; i < names.length; i++) {
+            changes.put(names[i], new Object[]{deletedState != null ? normalize(deletedState[i]) : null, null});
+        }
+        auditJournal.append(type, (Long) event.getId(), AuditAction.DELETE, changes);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private static AuditEntityType entityType(Class<?> entityClass) {
+        if (entityClass == Reservation.class) {
+            return AuditEntityType.RESERVATION;
+        }
+        if (entityClass == Room.class) {
+            return AuditEntityType.ROOM;
+        }
+        if (entityClass == Guest.class) {
+            return AuditEntityType.GUEST;
+        }
+        return null;
+    }
+
+    // 关联实体只记录ID
+    private static Object normalize(Object value) {
+        if (value instanceof HibernateProxy proxy) {
+            return proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        if (value instanceof Room room) {
+            return room.getId();
+        }
+        if (value instanceof Guest guest) {
+            return guest.getId();
+        }
+        return value;
+    }
+
+    // 金额 299.00 与 299 视为相同
+    private static boolean sameValue(Object before, Object after) {
+        if (before instanceof BigDecimal a && after instanceof BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+        return Objects.equals(before, after);
+    }
+
+    private static boolean isDirty(int[] dirtyProperties, int index) {
+        if (dirtyProperties == null) {
+            return true;
+        }
+        for (int dirty : dirtyProperties) {
+            if (dirty == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
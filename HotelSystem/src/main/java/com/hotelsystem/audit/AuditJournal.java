@@ -0,0 +1,267 @@
+package com.hotelsystem.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelsystem.config.PropertyRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 只追加的审计日志：业务线程只负责入队，由后台线程序列化并写入分段的内存映射文件。
+// 每个门店一组段文件，默认门店使用日志目录本身，其他门店使用以门店ID命名的子目录；
+// 写入和查询都按当前门店进行，开启分库时不同门店中相同ID的实体不会混在一起。
+// 超过保留期或段数上限的最旧段由写线程删除，上限按门店分别计算
+@Component
+public class AuditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ObjectMapper objectMapper;
+    private final PropertyRegistry propertyRegistry;
+    private final Path directory;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final long flushIntervalMillis;
+    private final int maxSegments;
+    private final long retentionMillis;
+    private final BlockingQueue<PendingEntry> queue;
+    private final Map<String, PropertyLog> logs = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditJournal(ObjectMapper objectMapper,
+                        PropertyRegistry propertyRegistry,
+                        @Value("${hotel.audit.dir:data/audit}") String directory,
+                        @Value("${hotel.audit.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${hotel.audit.index-interval:64}") int indexInterval,
+                        @Value("${hotel.audit.flush-interval:1s}") Duration flushInterval,
+                        @Value("${hotel.audit.queue-capacity:65536}") int queueCapacity,
+                        @Value("${hotel.audit.max-segments:64}") int maxSegments,
+                        @Value("${hotel.audit.retention:365d}") Duration retention) {
+        this.objectMapper = objectMapper;
+        this.propertyRegistry = propertyRegistry;
+        this.directory = Path.of(directory);
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.indexInterval = indexInterval;
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxSegments = maxSegments;
+        this.retentionMillis = retention.toMillis();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long now = System.currentTimeMillis();
+        for (String property : propertyRegistry.propertyIds()) {
+            PropertyLog propertyLog = open(property.equals(propertyRegistry.defaultProperty())
+                    ? directory : directory.resolve(property));
+            prune(propertyLog, now);
+            logs.put(property, propertyLog);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // 记录当前门店的一次变更；队列满时阻塞，宁可限流也不丢审计记录
+    public void append(AuditEntityType entityType, Long entityId, AuditAction action, Map<String, Object[]> changes) {
+        PendingEntry entry = new PendingEntry(propertyRegistry.current(), System.currentTimeMillis(), entityType,
+                entityId != null ? entityId : 0L, action, changes);
+        if (!queue.offer(entry)) {
+            try {
+                queue.put(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("审计记录入队被中断，丢弃 {} {} {}", entityType, entityId, action);
+            }
+        }
+    }
+
+    // 只查询当前门店的记录
+    public List<AuditRecord> query(AuditEntityType entityType, long entityId, Instant from, Instant to, int limit) {
+        List<AuditRecord> result = new ArrayList<>();
+        PropertyLog propertyLog = logs.get(propertyRegistry.current());
+        if (propertyLog == null) {
+            return result;
+        }
+        for (AuditSegment segment : propertyLog.segments) {
+            segment.scan(from.toEpochMilli(), to.toEpochMilli(), new AuditSegment.RecordVisitor() {
+                @Override
+                public boolean accept(long timestamp, byte type, long id, byte action) {
+                    return result.size() < limit && type == entityType.getCode() && id == entityId;
+                }
+
+                @Override
+                public void visit(long timestamp, byte type, long id, byte action, byte[] payload) {
+                    result.add(toRecord(timestamp, type, id, action, payload));
+                }
+            });
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void writeLoop() {
+        long lastForce = System.currentTimeMillis();
+        long lastPrune = lastForce;
+        boolean dirty = false;
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntry entry = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                while (entry != null) {
+                    write(entry);
+                    dirty = true;
+                    entry = queue.poll();
+                }
+                long now = System.currentTimeMillis();
+                if (dirty && now - lastForce >= flushIntervalMillis) {
+                    forceAll();
+                    lastForce = now;
+                    dirty = false;
+                }
+                if (now - lastPrune >= PRUNE_INTERVAL_MILLIS) {
+                    logs.values().forEach(propertyLog -> prune(propertyLog, now));
+                    lastPrune = now;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("写入审计日志失败", e);
+            }
+        }
+        forceAll();
+    }
+
+    private void forceAll() {
+        for (PropertyLog propertyLog : logs.values()) {
+            if (propertyLog.current != null) {
+                propertyLog.current.force();
+            }
+        }
+    }
+
+    private void write(PendingEntry entry) throws IOException {
+        PropertyLog propertyLog = logs.get(entry.property());
+        if (propertyLog == null) {
+            log.error("未知门店 {} 的审计记录，已丢弃 {} {}", entry.property(), entry.entityType(), entry.entityId());
+            return;
+        }
+        byte[] payload = objectMapper.writeValueAsBytes(entry.changes());
+        if (!AuditSegment.fitsInSegment(payload.length, segmentSize)) {
+            log.error("审计记录过大（{} 字节），已丢弃 {} {}", payload.length, entry.entityType(), entry.entityId());
+            return;
+        }
+        // 保证段内时间戳单调递增，稀疏索引才能二分查找
+        long timestamp = Math.max(entry.timestamp(), propertyLog.lastTimestamp);
+        if (propertyLog.current == null || !propertyLog.current.hasRoom(payload.length)) {
+            roll(propertyLog, timestamp);
+        }
+        propertyLog.current.append(timestamp, entry.entityType(), entry.entityId(), entry.action(), payload);
+        propertyLog.lastTimestamp = timestamp;
+    }
+
+    private PropertyLog open(Path logDirectory) throws IOException {
+        Files.createDirectories(logDirectory);
+        PropertyLog propertyLog = new PropertyLog(logDirectory);
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".seg")).sorted().toList()) {
+                propertyLog.segments.add(AuditSegment.open(file, segmentSize, indexInterval));
+            }
+        }
+        if (!propertyLog.segments.isEmpty()) {
+            propertyLog.current = propertyLog.segments.get(propertyLog.segments.size() - 1);
+            propertyLog.lastTimestamp = propertyLog.current.getLastTimestamp();
+        }
+        return propertyLog;
+    }
+
+    private void roll(PropertyLog propertyLog, long timestamp) throws IOException {
+        if (propertyLog.current != null) {
+            propertyLog.current.force();
+        }
+        Path file = propertyLog.directory.resolve(String.format("audit-%020d.seg", timestamp));
+        propertyLog.current = AuditSegment.open(file, segmentSize, indexInterval);
+        propertyLog.segments.add(propertyLog.current);
+        prune(propertyLog, timestamp);
+    }
+
+    // 从最旧的段开始删除超过段数上限或最后一条记录已超过保留期的段，正在写入的段不删除；
+    // 先移出查询列表再删除文件，正在扫描该段的查询仍可读完已映射的内容
+    private void prune(PropertyLog propertyLog, long now) {
+        List<AuditSegment> segments = propertyLog.segments;
+        while (segments.size() > 1) {
+            AuditSegment oldest = segments.get(0);
+            boolean excess = maxSegments > 0 && segments.size() > maxSegments;
+            boolean expired = retentionMillis > 0 && oldest.getLastTimestamp() < now - retentionMillis;
+            if (!excess && !expired) {
+                return;
+            }
+            segments.remove(0);
+            try {
+                Files.deleteIfExists(oldest.getPath());
+                log.info("已删除审计日志段 {}", oldest.getPath().getFileName());
+            } catch (IOException e) {
+                log.warn("删除审计日志段 {} 失败", oldest.getPath(), e);
+            }
+        }
+    }
+
+    private AuditRecord toRecord(long timestamp, byte type, long id, byte action, byte[] payload) {
+        try {
+            return new AuditRecord(
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()),
+                    AuditEntityType.fromCode(type), id, AuditAction.fromCode(action),
+                    objectMapper.readTree(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("审计记录解析失败", e);
+        }
+    }
+
+    private record PendingEntry(String property, long timestamp, AuditEntityType entityType, long entityId,
+                                AuditAction action, Map<String, Object[]> changes) {
+    }
+
+    // 单个门店的段文件；current 和 lastTimestamp 只由写线程访问
+    private static final class PropertyLog {
+        private final Path directory;
+        private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+        private AuditSegment current;
+        private long lastTimestamp;
+
+        private PropertyLog(Path directory) {
+            this.directory = directory;
+        }
+    }
+}
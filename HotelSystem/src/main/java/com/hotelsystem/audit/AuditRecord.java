@@ -0,0 +1,17 @@
+package com.hotelsystem.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class AuditRecord {
+    private LocalDateTime timestamp;
+    private AuditEntityType entityType;
+    private Long entityId;
+    private AuditAction action;
+    private JsonNode changes; // 字段名 -> [修改前, 修改后]
+}
@@ -0,0 +1,197 @@
+package com.hotelsystem.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// 单个内存映射的日志段文件，只追加写入，由唯一的写线程调用 append
+// 记录格式：32 字节定长头 + UTF-8 JSON 内容
+//   0 int  magic      4 int  内容长度     8 long 时间戳(毫秒)
+//  16 long 实体ID    24 byte 实体类型   25 byte 操作类型
+//  26 short 保留     28 int  内容 CRC32
+// 段被删除后映射不主动解除，正在扫描的读线程仍可安全读取，缓冲区不再被引用后由 GC 回收
+final class AuditSegment {
+
+    static final int HEADER_SIZE = 32;
+    private static final int MAGIC = 0x41554454; // "AUDT"
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int indexInterval;
+
+    // 写线程先写数据再推进 writePosition，读线程只读取该位置之前的数据
+    private volatile int writePosition;
+    private volatile long firstTimestamp = Long.MAX_VALUE;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+    private volatile SparseIndex index = new SparseIndex(new long[64], new int[64]);
+    private volatile int indexSize;
+    private int recordsSinceIndex;
+
+    private AuditSegment(Path path, MappedByteBuffer buffer, int indexInterval) {
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.indexInterval = indexInterval;
+    }
+
+    static AuditSegment open(Path path, int capacity, int indexInterval) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), capacity);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            AuditSegment segment = new AuditSegment(path, buffer, indexInterval);
+            segment.recover();
+            return segment;
+        }
+    }
+
+    boolean hasRoom(int payloadLength) {
+        return writePosition + HEADER_SIZE + payloadLength <= capacity;
+    }
+
+    static boolean fitsInSegment(int payloadLength, int capacity) {
+        return HEADER_SIZE + payloadLength <= capacity;
+    }
+
+    void append(long timestamp, AuditEntityType entityType, long entityId, AuditAction action, byte[] payload) {
+        int position = writePosition;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        buffer.putInt(position + 4, payload.length);
+        buffer.putLong(position + 8, timestamp);
+        buffer.putLong(position + 16, entityId);
+        buffer.put(position + 24, entityType.getCode());
+        buffer.put(position + 25, action.getCode());
+        buffer.putShort(position + 26, (short) 0);
+        buffer.putInt(position + 28, (int) crc.getValue());
+        buffer.put(position + HEADER_SIZE, payload);
+        // magic 最后写入，崩溃时半条记录在恢复扫描中会被丢弃
+        buffer.putInt(position, MAGIC);
+
+        indexRecord(timestamp, position);
+        if (firstTimestamp == Long.MAX_VALUE) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+        writePosition = position + HEADER_SIZE + payload.length;
+    }
+
+    // 按时间范围扫描，借助稀疏索引跳到不早于 from 的附近位置
+    void scan(long from, long to, RecordVisitor visitor) {
+        int limit = writePosition;
+        if (limit == 0 || lastTimestamp < from || firstTimestamp > to) {
+            return;
+        }
+        MappedByteBuffer view = buffer;
+        int position = seek(from);
+        while (position + HEADER_SIZE <= limit) {
+            int length = view.getInt(position + 4);
+            long timestamp = view.getLong(position + 8);
+            if (timestamp > to) {
+                return;
+            }
+            if (timestamp >= from) {
+                long entityId = view.getLong(position + 16);
+                byte entityType = view.get(position + 24);
+                byte action = view.get(position + 25);
+                if (visitor.accept(timestamp, entityType, entityId, action)) {
+                    byte[] payload = new byte[length];
+                    view.get(position + HEADER_SIZE, payload);
+                    visitor.visit(timestamp, entityType, entityId, action, payload);
+                }
+            }
+            position += HEADER_SIZE + length;
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    private int seek(long from) {
+        int size = indexSize;
+        SparseIndex current = index;
+        int low = 0;
+        int high = Math.min(size, current.timestamps.length) - 1;
+        int result = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (current.timestamps[mid] < from) {
+                result = current.positions[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private void indexRecord(long timestamp, int position) {
+        if (indexSize > 0 && ++recordsSinceIndex < indexInterval) {
+            return;
+        }
+        recordsSinceIndex = 0;
+        SparseIndex current = index;
+        int size = indexSize;
+        if (size == current.timestamps.length) {
+            long[] timestamps = new long[size * 2];
+            int[] positions = new int[size * 2];
+            System.arraycopy(current.timestamps, 0, timestamps, 0, size);
+            System.arraycopy(current.positions, 0, positions, 0, size);
+            current = new SparseIndex(timestamps, positions);
+        }
+        current.timestamps[size] = timestamp;
+        current.positions[size] = position;
+        index = current;
+        indexSize = size + 1;
+    }
+
+    // 重启后从头校验记录，找到写入位置并重建稀疏索引
+    private void recover() {
+        int position = 0;
+        while (position + HEADER_SIZE <= capacity && buffer.getInt(position) == MAGIC) {
+            int length = buffer.getInt(position + 4);
+            if (length < 0 || position + HEADER_SIZE + length > capacity) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 28)) {
+                break;
+            }
+            long timestamp = buffer.getLong(position + 8);
+            indexRecord(timestamp, position);
+            if (firstTimestamp == Long.MAX_VALUE) {
+                firstTimestamp = timestamp;
+            }
+            lastTimestamp = timestamp;
+            position += HEADER_SIZE + length;
+        }
+        writePosition = position;
+    }
+
+    private record SparseIndex(long[] timestamps, int[] positions) {
+    }
+
+    interface RecordVisitor {
+        // 只看头部判断是否需要读取内容
+        boolean accept(long timestamp, byte entityType, long entityId, byte action);
+
+        void visit(long timestamp, byte entityType, long entityId, byte action, byte[] payload);
+    }
+}
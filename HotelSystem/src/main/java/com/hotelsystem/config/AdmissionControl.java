@@ -0,0 +1,178 @@
+package com.hotelsystem.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 按角色和接口开销把请求分到不同类别，每个类别一个舱壁（并发上限 + 有界排队），
+// 报表类查询再多也只能占用自己的名额，不会挤掉前台的请求
+@Component
+public class AdmissionControl {
+
+    private static final Set<String> FRONT_LINE_ROLES = Set.of("ROLE_RECEPTIONIST", "ROLE_HOUSEKEEPING");
+
+    // 全量列表、区间查询、导出等大结果集的 GET 接口
+    private static final Set<String> EXPENSIVE_READS = Set.of(
+            "/reservations", "/guests", "/rooms", "/users",
+            "/reservations/checkin-range", "/reservations/export", "/guests/lookup");
+
+    private final AdmissionProperties admissionProperties;
+    private final Map<RequestClass, Bulkhead> bulkheads = new EnumMap<>(RequestClass.class);
+
+    public AdmissionControl(AdmissionProperties admissionProperties) {
+        this.admissionProperties = admissionProperties;
+        for (RequestClass requestClass : RequestClass.values()) {
+            bulkheads.put(requestClass, new Bulkhead(admissionProperties.limitsFor(requestClass)));
+        }
+    }
+
+    public boolean isEnabled() {
+        return admissionProperties.isEnabled();
+    }
+
+    // 返回 null 表示不受准入控制：未登录、登录、内部接口，以及长时间挂起的任务领取连接
+    public RequestClass classify(HttpServletRequest request, Authentication authentication) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (authentication == null || path.startsWith("/auth/") || path.startsWith("/internal/")
+                || path.equals("/housekeeping/tasks/next") || path.equals("/housekeeping/tasks/stream")) {
+            return null;
+        }
+        boolean frontLine = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(FRONT_LINE_ROLES::contains);
+        if (!isExpensive(request.getMethod(), path)) {
+            return frontLine ? RequestClass.RECEPTION : RequestClass.GENERAL;
+        }
+        return frontLine ? RequestClass.GENERAL : RequestClass.REPORTING;
+    }
+
+    public Bulkhead bulkhead(RequestClass requestClass) {
+        return bulkheads.get(requestClass);
+    }
+
+    public Map<RequestClass, Stats> snapshot() {
+        Map<RequestClass, Stats> result = new LinkedHashMap<>();
+        bulkheads.forEach((requestClass, bulkhead) -> result.put(requestClass, bulkhead.snapshot()));
+        return result;
+    }
+
+    private static boolean isExpensive(String method, String path) {
+        if ("GET".equals(method)) {
+            return EXPENSIVE_READS.contains(path) || path.startsWith("/reservations/status/") || path.startsWith("/audit/");
+        }
+        return path.equals("/rooms/batch");
+    }
+
+    public static final class Bulkhead {
+
+        private final AdmissionProperties.Limits limits;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder queuedTotal = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+        private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+        // 排队时间的指数滑动平均，立即获得名额的请求记为 0，压力消退后平均值随之回落
+        private final AtomicLong smoothedQueueWaitNanos = new AtomicLong();
+
+        private Bulkhead(AdmissionProperties.Limits limits) {
+            this.limits = limits;
+            this.permits = new Semaphore(limits.getMaxConcurrent(), true);
+        }
+
+        // 获得名额返回 true，之后必须调用 release；被拒绝返回 false
+        public boolean acquire() throws InterruptedException {
+            if (permits.tryAcquire()) {
+                admit(0);
+                return true;
+            }
+            if (limits.isSheddable() && smoothedQueueWaitNanos.get() > limits.getTargetQueueDelay().toNanos()) {
+                shed.increment();
+                return false;
+            }
+            if (waiting.incrementAndGet() > limits.getMaxQueue()) {
+                waiting.decrementAndGet();
+                shed.increment();
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                queuedTotal.increment();
+                if (permits.tryAcquire(limits.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                    admit(System.nanoTime() - start);
+                    return true;
+                }
+                record(System.nanoTime() - start);
+                timedOut.increment();
+                return false;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        public void release() {
+            permits.release();
+        }
+
+        public long retryAfterSeconds() {
+            return Math.max(1, limits.getRetryAfter().toSeconds());
+        }
+
+        private void admit(long waitNanos) {
+            admitted.increment();
+            record(waitNanos);
+        }
+
+        private void record(long waitNanos) {
+            smoothedQueueWaitNanos.accumulateAndGet(waitNanos, (average, sample) -> average + (sample - average) / 8);
+            if (waitNanos > 0) {
+                queueWaitNanos.add(waitNanos);
+                maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+        }
+
+        private Stats snapshot() {
+            long queued = queuedTotal.sum();
+            return new Stats(limits.getMaxConcurrent(),
+                    limits.getMaxConcurrent() - permits.availablePermits(),
+                    waiting.get(),
+                    admitted.sum(),
+                    shed.sum(),
+                    timedOut.sum(),
+                    queued,
+                    queued == 0 ? 0 : queueWaitNanos.sum() / queued / 1_000_000.0,
+                    maxQueueWaitNanos.get() / 1_000_000.0,
+                    smoothedQueueWaitNanos.get() / 1_000_000.0);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private int maxConcurrent;
+        private int inFlight;
+        private int waiting;                    // 当前排队数
+        private long admitted;
+        private long shed;                      // 因队列满或排队过久被直接拒绝
+        private long timedOut;                  // 排队超时被拒绝
+        private long queued;                    // 累计需要排队的请求数
+        private double avgQueueWaitMillis;
+        private double maxQueueWaitMillis;
+        private double smoothedQueueWaitMillis;
+    }
+}
@@ -0,0 +1,48 @@
+package com.hotelsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private Limits reception = new Limits(100, 200, Duration.ofSeconds(2), Duration.ofMillis(500), false);
+
+    private Limits general = new Limits(40, 80, Duration.ofSeconds(1), Duration.ofMillis(200), true);
+
+    private Limits reporting = new Limits(8, 16, Duration.ofMillis(500), Duration.ofMillis(100), true);
+
+    public Limits limitsFor(RequestClass requestClass) {
+        return switch (requestClass) {
+            case RECEPTION -> reception;
+            case GENERAL -> general;
+            case REPORTING -> reporting;
+        };
+    }
+
+    @Data
+    public static class Limits {
+        private int maxConcurrent;          // 同时处理的请求数
+        private int maxQueue;               // 排队等待的请求数上限，超出直接拒绝
+        private Duration maxWait;           // 单个请求最长排队时间
+        private Duration targetQueueDelay;  // 平均排队时间超过该值时开始丢弃新请求（仅 sheddable 类别）
+        private boolean sheddable;
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public Limits() {
+        }
+
+        public Limits(int maxConcurrent, int maxQueue, Duration maxWait, Duration targetQueueDelay, boolean sheddable) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+            this.targetQueueDelay = targetQueueDelay;
+            this.sheddable = sheddable;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hotelsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async 使用 Spring Boot 提供的 applicationTaskExecutor；
+// 以 virtual-threads profile 在 Java 21+ 上启动时，Tomcat 请求线程和该执行器都改用虚拟线程
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("请求处理与 @Async 任务运行在虚拟线程上");
+        } else if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("已开启 spring.threads.virtual.enabled，但当前 Java {} 不支持虚拟线程，仍使用平台线程池",
+                    Runtime.version().feature());
+        } else {
+            log.info("请求处理运行在 Tomcat 平台线程池上");
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.hotelsystem.entity.User;
 import com.hotelsystem.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+// fast-startup 模式下管理员由 V2__seed_admin.sql 写入
 @Component
+@Profile("!fast-startup")
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
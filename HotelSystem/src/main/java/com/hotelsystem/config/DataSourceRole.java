@@ -0,0 +1,6 @@
+package com.hotelsystem.config;
+
+public enum DataSourceRole {
+    PRIMARY,    // 主库，处理写入及读己之写
+    REPLICA     // 只读副本
+}
@@ -0,0 +1,45 @@
+package com.hotelsystem.config;
+
+import com.hotelsystem.audit.AuditEventListener;
+import com.hotelsystem.util.JwtUtil;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// fast-startup 模式开启了全局懒加载，这里列出仍需在启动时创建的 Bean：
+// 请求热路径（控制器、服务、仓库、JWT）避免首个请求承担初始化开销，
+// 定时任务和审计监听器不会被其他 Bean 引用，懒加载时根本不会运行
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerHotPathBeans() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                        || AnnotatedElementUtils.hasAnnotation(beanType, Service.class)
+                        || Repository.class.isAssignableFrom(beanType)
+                        || RepositoryFactoryBeanSupport.class.isAssignableFrom(beanType)
+                        || JwtUtil.class.isAssignableFrom(beanType)
+                        || AuditEventListener.class.isAssignableFrom(beanType)
+                        || hasScheduledMethods(beanType);
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> found.set(true),
+                method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+        return found.get();
+    }
+}
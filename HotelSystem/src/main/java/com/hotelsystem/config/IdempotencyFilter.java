@@ -0,0 +1,268 @@
+package com.hotelsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// 带 Idempotency-Key 请求头的 POST /reservations、POST /guests：
+// 同一门店、同一用户、同一个键在整个集群内只执行一次，重试直接返回第一次的响应；
+// 执行前先在数据库中占位，第一次请求仍在处理时，重复请求（无论在哪个节点）等待其结果而不是再执行一遍
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Set<String> PATHS = Set.of("/reservations", "/guests");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final PropertyRegistry propertyRegistry;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, PropertyRegistry propertyRegistry,
+                             ObjectMapper objectMapper, Duration waitTimeout) {
+        this.idempotencyStore = idempotencyStore;
+        this.propertyRegistry = propertyRegistry;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String key = request.getHeader(HEADER);
+        if (authentication == null) {
+            // 未登录的请求交给后面的安全检查拒绝
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, HEADER + " 不能为空且不能超过 " + MAX_KEY_LENGTH + " 个字符");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String keyHash = sha256((propertyRegistry.current() + "\n" + authentication.getName() + "\n"
+                + request.getRequestURI() + "\n" + key).getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(cachedRequest.body);
+
+        while (true) {
+            Optional<IdempotencyStore.StoredResponse> stored = idempotencyStore.find(keyHash);
+            if (stored.isPresent()) {
+                replay(stored.get(), requestHash, response);
+                return;
+            }
+
+            CompletableFuture<IdempotencyStore.StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyStore.StoredResponse> first = idempotencyStore.claim(keyHash, mine);
+            if (first == null) {
+                // 登记前可能恰好有请求完成，再查一次
+                stored = idempotencyStore.find(keyHash);
+                if (stored.isPresent()) {
+                    idempotencyStore.release(keyHash, mine, null);
+                    replay(stored.get(), requestHash, response);
+                    return;
+                }
+                Optional<String> owner;
+                try {
+                    owner = idempotencyStore.reserve(keyHash, requestHash);
+                } catch (RuntimeException e) {
+                    idempotencyStore.release(keyHash, mine, null);
+                    throw e;
+                }
+                if (owner.isPresent()) {
+                    execute(cachedRequest, response, filterChain, keyHash, requestHash, owner.get(), mine);
+                    return;
+                }
+
+                // 其他节点正在处理同一个键，轮询其结果并转交给本节点的等待者
+                IdempotencyStore.StoredResponse result = null;
+                try {
+                    result = idempotencyStore.awaitRemote(keyHash, waitTimeout).orElse(null);
+                } catch (TimeoutException e) {
+                    rejectInProgress(response);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException(e);
+                } finally {
+                    idempotencyStore.release(keyHash, mine, result);
+                }
+                if (result != null) {
+                    replay(result, requestHash, response);
+                    return;
+                }
+                // 其他节点上先到的请求失败并撤销了占位，重新竞争执行
+                continue;
+            }
+
+            IdempotencyStore.StoredResponse result;
+            try {
+                result = first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                rejectInProgress(response);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                result = null;
+            }
+            if (result != null) {
+                replay(result, requestHash, response);
+                return;
+            }
+            // 先到的请求失败且没有留下响应，重新竞争执行
+        }
+    }
+
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String keyHash, String requestHash, String owner,
+                         CompletableFuture<IdempotencyStore.StoredResponse> mine) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyStore.StoredResponse result = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            // 5xx 多为暂时性故障，不缓存，允许客户端重试
+            if (wrapper.getStatus() < 500) {
+                result = new IdempotencyStore.StoredResponse(requestHash, wrapper.getStatus(),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray(), LocalDateTime.now());
+            }
+        } finally {
+            idempotencyStore.complete(keyHash, owner, result);
+            idempotencyStore.release(keyHash, mine, result);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, String requestHash,
+                        HttpServletResponse response) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " 已用于内容不同的请求");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void rejectInProgress(HttpServletResponse response) throws IOException {
+        reject(response, HttpStatus.CONFLICT, "相同 " + HEADER + " 的请求仍在处理中，请稍后重试");
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 预先读出请求体用于计算摘要，之后的读取都从缓存中返回
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
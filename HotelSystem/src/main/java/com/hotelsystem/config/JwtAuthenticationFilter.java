@@ -1,6 +1,8 @@
 package com.hotelsystem.config;
 
+import com.hotelsystem.metrics.JwtAuthenticationEvent;
 import com.hotelsystem.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +20,7 @@ import java.util.Collections;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final PropertyRegistry propertyRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -27,23 +30,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
+            JwtAuthenticationEvent event = new JwtAuthenticationEvent();
+            event.begin();
 
             try {
-                String username = jwtUtil.extractUsername(token);
-                String role = jwtUtil.extractRole(token);
+                Claims claims = jwtUtil.extractClaims(token);
+                String username = claims.getSubject();
+                String role = claims.get("role", String.class);
+                // 没有门店声明的旧令牌归属默认门店；未配置的门店视为无效令牌
+                String property = claims.get("property", String.class);
+                if (property == null) {
+                    property = propertyRegistry.defaultProperty();
+                }
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (username != null && propertyRegistry.isKnown(property)
+                        && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(username, null,
                                     Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
 
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    PropertyContext.set(property);
+                    event.authenticated = true;
+                    event.property = property;
                 }
             } catch (Exception e) {
                 // Token无效，继续过滤器链
             }
+            event.commit();
         }
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PropertyContext.clear();
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.hotelsystem.config;
+
+import com.hotelsystem.metrics.EndpointLatencyRecorder;
+import com.hotelsystem.metrics.HttpRequestEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// 位于安全过滤器链最前面，覆盖认证、限流、业务处理和响应序列化的全部耗时；
+// 按匹配到的接口模板归类，未匹配到处理器的请求（如 401、404）归入 UNMATCHED；
+// 关闭 hotel.metrics.latency.enabled 后整个过滤器跳过
+public class LatencyFilter extends OncePerRequestFilter {
+
+    private final EndpointLatencyRecorder latencyRecorder;
+    private final boolean enabled;
+
+    public LatencyFilter(EndpointLatencyRecorder latencyRecorder, boolean enabled) {
+        this.latencyRecorder = latencyRecorder;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // 长轮询、SSE 的耗时取决于等待时长而非处理速度，不计入
+            if (!request.isAsyncStarted()) {
+                record(request, response, event, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response,
+                        HttpRequestEvent event, long elapsed) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMATCHED");
+        latencyRecorder.record(endpoint, elapsed);
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotelsystem.config;
+
+import java.util.function.Supplier;
+
+// 当前请求所属的门店（property），由 JwtAuthenticationFilter 根据令牌设置；
+// 未设置时各处按默认门店处理，见 PropertyRegistry.current()
+public final class PropertyContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private PropertyContext() {
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String property) {
+        CURRENT.set(property);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // 在指定门店下执行，结束后恢复原来的门店
+    public static <T> T callWith(String property, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(property);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runWith(String property, Runnable action) {
+        callWith(property, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
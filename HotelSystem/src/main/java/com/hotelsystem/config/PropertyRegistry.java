@@ -0,0 +1,78 @@
+package com.hotelsystem.config;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// 已配置的门店列表；未开启分库时只有默认门店一个
+public class PropertyRegistry {
+
+    private final String defaultProperty;
+    private final List<String> propertyIds;
+    private final ExecutorService fanOutExecutor;
+
+    public PropertyRegistry(ShardingProperties shardingProperties) {
+        this.defaultProperty = shardingProperties.getDefaultProperty();
+        this.propertyIds = shardingProperties.isEnabled()
+                ? List.copyOf(shardingProperties.getShards().keySet())
+                : List.of(defaultProperty);
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOutExecutor = Executors.newFixedThreadPool(Math.max(2, propertyIds.size()), runnable -> {
+            Thread thread = new Thread(runnable, "property-fan-out-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    public String defaultProperty() {
+        return defaultProperty;
+    }
+
+    public List<String> propertyIds() {
+        return propertyIds;
+    }
+
+    public boolean isKnown(String property) {
+        return propertyIds.contains(property);
+    }
+
+    public String current() {
+        String property = PropertyContext.get();
+        return property != null ? property : defaultProperty;
+    }
+
+    // 依次在每个门店下执行，用于定时任务等后台工作
+    public void forEach(Consumer<String> action) {
+        for (String property : propertyIds) {
+            PropertyContext.runWith(property, () -> action.accept(property));
+        }
+    }
+
+    // 在所有门店并行执行同一查询，按门店顺序汇总结果
+    public <T> Map<String, T> fanOut(Function<String, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(propertyIds.size());
+        for (String property : propertyIds) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> PropertyContext.callWith(property, () -> query.apply(property)), fanOutExecutor));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        for (int i = 0; i < propertyIds.size(); i++) {
+            results.put(propertyIds.get(i), futures.get(i).join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hotelsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+// 按 PropertyContext 中的门店选择该门店的数据库，未设置门店时使用默认门店
+// 需要包在 LazyConnectionDataSourceProxy 中，保证取连接时门店已经确定
+public class PropertyRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return PropertyContext.get();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
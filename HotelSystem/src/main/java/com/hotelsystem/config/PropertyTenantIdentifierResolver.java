@@ -0,0 +1,24 @@
+package com.hotelsystem.config;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+// 把门店作为 Hibernate 的租户标识：二级缓存和查询缓存的键都带上租户，
+// 不同门店数据库中相同ID的房间、预订不会互相覆盖
+public class PropertyTenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    private final PropertyRegistry propertyRegistry;
+
+    public PropertyTenantIdentifierResolver(PropertyRegistry propertyRegistry) {
+        this.propertyRegistry = propertyRegistry;
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return propertyRegistry.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package com.hotelsystem.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 按事务属性路由：只读事务走副本，其余走主库
+// 需要包在 LazyConnectionDataSourceProxy 中，保证取连接时事务的只读标记已设置
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final long readYourWritesWindowMillis;
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    private volatile boolean replicaUsable = true;
+
+    public ReadWriteRoutingDataSource(Duration readYourWritesWindow) {
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null) {
+                recordWriteOnCommit(user);
+            }
+            return DataSourceRole.PRIMARY;
+        }
+
+        if (!replicaUsable || wroteRecently(user)) {
+            return DataSourceRole.PRIMARY;
+        }
+        return DataSourceRole.REPLICA;
+    }
+
+    public void setReplicaUsable(boolean replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    // 读己之写的窗口从提交时算起，执行时间超过窗口的写事务同样受到保护
+    private void recordWriteOnCommit(String user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWriteAt.put(user, System.currentTimeMillis());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteAt.put(user, System.currentTimeMillis());
+            }
+        });
+    }
+
+    // 调用方在读己之写窗口内时，只读事务会被路由到主库
+    public boolean isWithinReadYourWritesWindow() {
+        return wroteRecently(currentUser());
+    }
+
+    private boolean wroteRecently(String user) {
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteAt.get(user);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - writtenAt < readYourWritesWindowMillis) {
+            return true;
+        }
+        lastWriteAt.remove(user, writtenAt);
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
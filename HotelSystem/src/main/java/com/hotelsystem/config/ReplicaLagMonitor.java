@@ -0,0 +1,56 @@
+package com.hotelsystem.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+// 定期检查副本延迟，超限或不可达时让只读事务回落到主库
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final ReplicaProperties properties;
+
+    @Scheduled(fixedDelayString = "${hotel.datasource.replica.lag-check-interval:5s}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Long lag = currentLagSeconds();
+            usable = lag != null && lag <= properties.getMaxLagSeconds();
+            if (!usable) {
+                log.warn("副本延迟 {} 秒，只读查询暂时改走主库", lag);
+            }
+        } catch (Exception e) {
+            usable = false;
+            log.warn("副本检查失败，只读查询暂时改走主库: {}", e.getMessage());
+        }
+        if (usable && !routingDataSource.isReplicaUsable()) {
+            log.info("副本已恢复，只读查询重新走副本");
+        }
+        routingDataSource.setReplicaUsable(usable);
+    }
+
+    // 返回 null 表示复制未运行
+    private Long currentLagSeconds() {
+        String query = properties.getLagCheckQuery();
+        if (query == null || query.isBlank()) {
+            replicaJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return 0L;
+        }
+        List<Long> lags = replicaJdbcTemplate.query(query, (rs, rowNum) -> {
+            long value = rs.getLong(properties.getLagColumn());
+            return rs.wasNull() ? null : value;
+        });
+        if (lags.isEmpty()) {
+            return null;
+        }
+        return lags.get(0);
+    }
+}
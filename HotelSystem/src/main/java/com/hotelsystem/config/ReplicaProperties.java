@@ -0,0 +1,35 @@
+package com.hotelsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    // 副本延迟超过该秒数时，只读事务回落到主库
+    private long maxLagSeconds = 5;
+
+    // 延迟检查语句，为空时只检查连通性；MySQL 可用 "SHOW REPLICA STATUS"
+    private String lagCheckQuery;
+
+    // 延迟检查语句结果中表示延迟秒数的列
+    private String lagColumn = "Seconds_Behind_Source";
+
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    // 用户写入后，在该时间窗口内的只读事务仍走主库
+    private Duration readYourWritesWindow = Duration.ofSeconds(3);
+}
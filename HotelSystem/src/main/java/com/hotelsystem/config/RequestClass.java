@@ -0,0 +1,8 @@
+package com.hotelsystem.config;
+
+// 准入控制的请求类别，每个类别有独立的并发上限和排队队列
+public enum RequestClass {
+    RECEPTION,  // 前台、房务人员的日常操作，不主动丢弃
+    GENERAL,    // 管理人员的日常操作，以及前台发起的大查询
+    REPORTING   // 管理人员的全量列表、导出、审计等报表类查询，最先被丢弃
+}
@@ -1,7 +1,12 @@
 package com.hotelsystem.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelsystem.metrics.EndpointLatencyRecorder;
+import com.hotelsystem.service.IdempotencyStore;
 import com.hotelsystem.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,14 +17,29 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(AdmissionProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtUtil jwtUtil;
+    private final PropertyRegistry propertyRegistry;
+    private final IdempotencyStore idempotencyStore;
+    private final AdmissionControl admissionControl;
+    private final EndpointLatencyRecorder latencyRecorder;
+    private final ObjectMapper objectMapper;
+
+    @Value("${hotel.idempotency.wait-timeout:10s}")
+    private Duration idempotencyWaitTimeout;
+
+    @Value("${hotel.metrics.latency.enabled:true}")
+    private boolean latencyEnabled;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -33,18 +53,27 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil);
+        LatencyFilter latencyFilter = new LatencyFilter(latencyRecorder, latencyEnabled);
+        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, propertyRegistry);
+        AdmissionControlFilter admissionControlFilter = new AdmissionControlFilter(admissionControl, objectMapper);
+        IdempotencyFilter idempotencyFilter = new IdempotencyFilter(idempotencyStore, propertyRegistry,
+                objectMapper, idempotencyWaitTimeout);
 
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/auth/login").permitAll()
-                        .requestMatchers("/users/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/internal/**").hasRole("ADMIN")
+                        .requestMatchers("/users/**", "/audit/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/housekeeping/**").hasAnyRole("ADMIN", "MANAGER", "HOUSEKEEPING")
                         .requestMatchers("/rooms/**", "/guests/**", "/reservations/**").hasAnyRole("ADMIN", "MANAGER", "RECEPTIONIST")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(latencyFilter, DisableEncodeUrlFilter.class)
+                .addFilterAfter(admissionControlFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, AdmissionControlFilter.class);
 
         return http.build();
     }
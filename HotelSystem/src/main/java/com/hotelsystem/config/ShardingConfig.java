@@ -0,0 +1,93 @@
+package com.hotelsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public PropertyRegistry propertyRegistry(ShardingProperties shardingProperties) {
+        return new PropertyRegistry(shardingProperties);
+    }
+
+    // 开启 hotel.sharding.enabled 后每个门店一个连接池；各门店库的表结构需预先建好。
+    // 与 hotel.datasource.replica 的读写分离不能同时开启
+    @Configuration
+    @Conditional(ShardingEnabled.class)
+    static class ShardRouting {
+
+        @Bean
+        public PropertyRoutingDataSource propertyRoutingDataSource(ShardingProperties shardingProperties) {
+            if (!shardingProperties.getShards().containsKey(shardingProperties.getDefaultProperty())) {
+                throw new IllegalStateException("hotel.sharding.shards 中缺少默认门店 " +
+                        shardingProperties.getDefaultProperty());
+            }
+            Map<Object, Object> targets = new LinkedHashMap<>();
+            shardingProperties.getShards().forEach((property, shard) -> targets.put(property, shardDataSource(property, shard)));
+
+            PropertyRoutingDataSource routingDataSource = new PropertyRoutingDataSource();
+            routingDataSource.setTargetDataSources(targets);
+            routingDataSource.setDefaultTargetDataSource(targets.get(shardingProperties.getDefaultProperty()));
+            routingDataSource.setLenientFallback(false);
+            return routingDataSource;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(PropertyRoutingDataSource propertyRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(propertyRoutingDataSource);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer tenantIdentifierCustomizer(PropertyRegistry propertyRegistry) {
+            return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                    new PropertyTenantIdentifierResolver(propertyRegistry));
+        }
+
+        private static HikariDataSource shardDataSource(String property, ShardingProperties.Shard shard) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            if (shard.getDriverClassName() != null) {
+                dataSource.setDriverClassName(shard.getDriverClassName());
+            }
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSource.setPoolName("property-" + property);
+            return dataSource;
+        }
+    }
+
+    // hotel.sharding.enabled=true 时生效。两种模式都注册名为 dataSource 的 @Primary 数据源，
+    // 同时开启时只会报出无关的 bean 定义冲突，因此在解析配置类时先检查并说明原因
+    static class ShardingEnabled implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment environment = context.getEnvironment();
+            boolean sharding = environment.getProperty("hotel.sharding.enabled", Boolean.class, false);
+            if (sharding && environment.getProperty("hotel.datasource.replica.enabled", Boolean.class, false)) {
+                throw new IllegalStateException("hotel.sharding.enabled 与 hotel.datasource.replica.enabled 不能同时开启，" +
+                        "分片模式下每个门店单独配置连接");
+            }
+            return sharding;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hotelsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.sharding")
+public class ShardingProperties {
+
+    // 开启后每个门店使用独立的数据库，按令牌中的门店路由
+    private boolean enabled = false;
+
+    // 令牌中没有门店信息（如旧令牌、定时任务）时使用的门店
+    private String defaultProperty = "default";
+
+    // 门店ID -> 该门店的数据库
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
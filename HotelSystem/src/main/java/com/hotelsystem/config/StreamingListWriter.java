@@ -0,0 +1,108 @@
+package com.hotelsystem.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+// 把列表查询结果逐行写入响应：先写 ApiResponse 的外层字段，data 数组的每个元素查出后立即序列化，
+// 整个列表不会同时存在于内存中，单个请求占用的堆与结果行数无关
+public class StreamingListWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingListWriter.class);
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public StreamingListWriter(ObjectMapper jsonMapper, ObjectMapper cborMapper, ObjectMapper smileMapper) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.smileMapper = smileMapper;
+    }
+
+    // producer 在自己的只读事务中把每一行交给传入的 Consumer
+    public <T> void write(HttpServletRequest request, HttpServletResponse response,
+                          Consumer<Consumer<T>> producer) throws IOException {
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        ObjectMapper mapper = mapperFor(mediaType);
+        response.setContentType(mediaType == MediaType.APPLICATION_JSON
+                ? MediaType.APPLICATION_JSON_VALUE + ";charset=UTF-8" : mediaType.toString());
+
+        JsonGenerator generator = mapper.createGenerator(response.getOutputStream());
+        try {
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeStringField("message", "操作成功");
+            generator.writeArrayFieldStart("data");
+            producer.accept(row -> {
+                try {
+                    generator.writeObject(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        } catch (UncheckedIOException e) {
+            // 多为客户端中途断开
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (response.isCommitted()) {
+                // 已输出部分内容，无法再改为错误响应，只能中断连接
+                log.warn("流式输出列表时失败，响应已提交: {}", request.getRequestURI(), e);
+            } else {
+                // 丢弃尚未发出的内容，交给全局异常处理返回错误信息
+                response.resetBuffer();
+            }
+            throw e;
+        }
+    }
+
+    private static MediaType negotiate(String accept) {
+        if (accept != null) {
+            try {
+                List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+                MimeTypeUtils.sortBySpecificity(accepted);
+                for (MediaType candidate : accepted) {
+                    if (candidate.isCompatibleWith(MediaType.APPLICATION_JSON) && !candidate.isWildcardType()) {
+                        return MediaType.APPLICATION_JSON;
+                    }
+                    if (candidate.isCompatibleWith(MediaType.APPLICATION_CBOR) && !candidate.isWildcardType()) {
+                        return MediaType.APPLICATION_CBOR;
+                    }
+                    if (candidate.isCompatibleWith(SMILE) && !candidate.isWildcardType()) {
+                        return SMILE;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // 无法解析时按默认的 JSON 输出
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private ObjectMapper mapperFor(MediaType mediaType) {
+        if (mediaType == MediaType.APPLICATION_CBOR) {
+            return cborMapper;
+        }
+        if (mediaType == SMILE) {
+            return smileMapper;
+        }
+        return jsonMapper;
+    }
+}
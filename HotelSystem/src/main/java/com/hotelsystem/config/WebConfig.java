@@ -0,0 +1,64 @@
+package com.hotelsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public WebConfig(List<Jackson2ObjectMapperBuilderCustomizer> jacksonCustomizers) {
+        this.cborMapper = customize(Jackson2ObjectMapperBuilder.cbor(), jacksonCustomizers).build();
+        this.smileMapper = customize(Jackson2ObjectMapperBuilder.smile(), jacksonCustomizers).build();
+    }
+
+    // CBOR / Smile 转换器：请求头 Accept: application/cbor 或 application/x-jackson-smile 时
+    // 以二进制格式返回同样的 ApiResponse 结构，其余请求仍返回 JSON。
+    // classpath 上有 CBOR / Smile 时 Spring 已注册了使用默认 ObjectMapper 的同类转换器且排在前面，
+    // 追加的不会被选中，因此原位替换；没有时再追加
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        replaceOrAdd(converters, MappingJackson2CborHttpMessageConverter.class,
+                new MappingJackson2CborHttpMessageConverter(cborMapper));
+        replaceOrAdd(converters, MappingJackson2SmileHttpMessageConverter.class,
+                new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+
+    // 大列表接口的流式输出，按同样的 Accept 规则选择格式
+    @Bean
+    public StreamingListWriter streamingListWriter(ObjectMapper objectMapper) {
+        return new StreamingListWriter(objectMapper, cborMapper, smileMapper);
+    }
+
+    private static void replaceOrAdd(List<HttpMessageConverter<?>> converters,
+                                     Class<?> type, HttpMessageConverter<?> replacement) {
+        boolean replaced = false;
+        for (int i = 0; i < converters.size(); i++) {
+            if (type.isInstance(converters.get(i))) {
+                converters.set(i, replacement);
+                replaced = true;
+            }
+        }
+        if (!replaced) {
+            converters.add(replacement);
+        }
+    }
+
+    // 应用与 JSON 相同的 spring.jackson.* 配置和模块，保证日期、金额等字段表示一致
+    private static Jackson2ObjectMapperBuilder customize(Jackson2ObjectMapperBuilder builder,
+                                                         List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+        customizers.forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+}
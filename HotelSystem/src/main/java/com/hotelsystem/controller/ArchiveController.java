@@ -0,0 +1,22 @@
+package com.hotelsystem.controller;
+
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.service.ReservationArchiver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/internal/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ReservationArchiver reservationArchiver;
+
+    // 立即执行一次预订归档，平时由定时任务执行
+    @PostMapping("/reservations")
+    public ResponseEntity<ApiResponse<Integer>> archiveReservations() {
+        int archived = reservationArchiver.archive();
+        return ResponseEntity.ok(ApiResponse.success("已归档 " + archived + " 条预订", archived));
+    }
+}
@@ -0,0 +1,37 @@
+package com.hotelsystem.controller;
+
+import com.hotelsystem.audit.AuditEntityType;
+import com.hotelsystem.audit.AuditJournal;
+import com.hotelsystem.audit.AuditRecord;
+import com.hotelsystem.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@RestController
+@RequestMapping("/audit")
+@RequiredArgsConstructor
+public class AuditController {
+
+    private final AuditJournal auditJournal;
+
+    // 查询某个预订/房间/宾客在时间范围内的变更记录，entityType 取 RESERVATION、ROOM、GUEST
+    @GetMapping("/{entityType}/{entityId}")
+    public ResponseEntity<ApiResponse<List<AuditRecord>>> getHistory(
+            @PathVariable AuditEntityType entityType,
+            @PathVariable Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int limit) {
+        Instant start = from != null ? from.atZone(ZoneId.systemDefault()).toInstant() : Instant.EPOCH;
+        Instant end = to != null ? to.atZone(ZoneId.systemDefault()).toInstant() : Instant.now();
+        List<AuditRecord> records = auditJournal.query(entityType, entityId, start, end, Math.min(limit, 5000));
+        return ResponseEntity.ok(ApiResponse.success(records));
+    }
+}
@@ -1,14 +1,19 @@
 package com.hotelsystem.controller;
 
+import com.hotelsystem.config.StreamingListWriter;
 import com.hotelsystem.dto.ApiResponse;
 import com.hotelsystem.dto.GuestDto;
 import com.hotelsystem.service.GuestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/guests")
@@ -16,11 +21,12 @@ import java.util.List;
 public class GuestController {
 
     private final GuestService guestService;
+    private final StreamingListWriter streamingListWriter;
 
+    // 逐行流式输出，不在内存中构造完整列表
     @GetMapping
-    public ResponseEntity<ApiResponse<List<GuestDto>>> getAllGuests() {
-        List<GuestDto> guests = guestService.getAllGuests();
-        return ResponseEntity.ok(ApiResponse.success(guests));
+    public void getAllGuests(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamingListWriter.<GuestDto>write(request, response, guestService::streamAllGuests);
     }
 
     @GetMapping("/{id}")
@@ -83,4 +89,18 @@ public class GuestController {
         List<GuestDto> guests = guestService.getGuestsByPhone(phone);
         return ResponseEntity.ok(ApiResponse.success(guests));
     }
-}
\ No newline at end of file
+
+    // 跨门店查找宾客，返回 门店ID -> 匹配的宾客
+    @GetMapping("/lookup")
+    public ResponseEntity<ApiResponse<Map<String, List<GuestDto>>>> lookupGuestsAcrossProperties(
+            @RequestParam(required = false) String idCardNumber,
+            @RequestParam(required = false) String phone,
+            @RequestParam(required = false) String name) {
+        try {
+            Map<String, List<GuestDto>> guests = guestService.lookupGuestsAcrossProperties(idCardNumber, phone, name);
+            return ResponseEntity.ok(ApiResponse.success(guests));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
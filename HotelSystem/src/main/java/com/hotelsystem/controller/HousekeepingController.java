@@ -0,0 +1,67 @@
+package com.hotelsystem.controller;
+
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.dto.HousekeepingTaskDto;
+import com.hotelsystem.service.HousekeepingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/housekeeping/tasks")
+@RequiredArgsConstructor
+public class HousekeepingController {
+
+    private static final int MAX_WAIT_SECONDS = 60;
+
+    private final HousekeepingService housekeepingService;
+
+    // 未完成的任务，按优先级排序
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<HousekeepingTaskDto>>> getOpenTasks() {
+        return ResponseEntity.ok(ApiResponse.success(housekeepingService.getOpenTasks()));
+    }
+
+    // 领取下一个任务，没有任务时最多等待 waitSeconds 秒
+    @PostMapping("/next")
+    public DeferredResult<ApiResponse<HousekeepingTaskDto>> nextTask(@RequestParam(defaultValue = "30") int waitSeconds,
+                                                                     Authentication authentication) {
+        int wait = Math.max(1, Math.min(waitSeconds, MAX_WAIT_SECONDS));
+        return housekeepingService.nextTask(authentication.getName(), Duration.ofSeconds(wait));
+    }
+
+    // 持续接收分配给自己的任务
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTasks(Authentication authentication) {
+        return housekeepingService.streamTasks(authentication.getName());
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<ApiResponse<HousekeepingTaskDto>> completeTask(@PathVariable Long id,
+                                                                         Authentication authentication) {
+        try {
+            HousekeepingTaskDto task = housekeepingService.completeTask(id, authentication.getName());
+            return ResponseEntity.ok(ApiResponse.success("清洁任务已完成", task));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ApiResponse<HousekeepingTaskDto>> releaseTask(@PathVariable Long id,
+                                                                        Authentication authentication) {
+        try {
+            HousekeepingTaskDto task = housekeepingService.releaseTask(id, authentication.getName());
+            return ResponseEntity.ok(ApiResponse.success("任务已退回", task));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
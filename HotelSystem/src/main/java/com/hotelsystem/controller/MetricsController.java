@@ -0,0 +1,93 @@
+package com.hotelsystem.controller;
+
+import com.hotelsystem.config.AdmissionControl;
+import com.hotelsystem.config.RequestClass;
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.metrics.EndpointLatencyRecorder;
+import com.hotelsystem.metrics.HibernateCacheMetrics;
+import com.hotelsystem.metrics.QueryStats;
+import com.hotelsystem.metrics.RepositoryMetricsAspect;
+import com.hotelsystem.service.availability.AvailabilityIndex;
+import com.hotelsystem.service.coalesce.CoalescingAspect;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import com.hotelsystem.service.outbox.OutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/internal/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final RepositoryMetricsAspect repositoryMetrics;
+    private final HibernateCacheMetrics cacheMetrics;
+    private final OutboxDispatcher outboxDispatcher;
+    private final AdmissionControl admissionControl;
+    private final CoalescingAspect coalescingAspect;
+    private final EndpointLatencyRecorder latencyRecorder;
+    private final InvalidationBus invalidationBus;
+    private final AvailabilityIndex availabilityIndex;
+
+    // 各仓库方法的耗时分布、返回行数和语句数
+    @GetMapping("/queries")
+    public ResponseEntity<ApiResponse<Map<String, QueryStats.Snapshot>>> getQueryMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(repositoryMetrics.snapshot()));
+    }
+
+    @DeleteMapping("/queries")
+    public ResponseEntity<ApiResponse<Void>> resetQueryMetrics() {
+        repositoryMetrics.reset();
+        return ResponseEntity.ok(ApiResponse.success("查询统计已重置", null));
+    }
+
+    // 二级缓存各区域及查询缓存的命中情况
+    @GetMapping("/cache")
+    public ResponseEntity<ApiResponse<Map<String, HibernateCacheMetrics.RegionStats>>> getCacheMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(cacheMetrics.snapshot()));
+    }
+
+    // 发件箱积压与投递情况
+    @GetMapping("/outbox")
+    public ResponseEntity<ApiResponse<OutboxDispatcher.Stats>> getOutboxMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(outboxDispatcher.snapshot()));
+    }
+
+    // 各请求类别的并发、排队与拒绝情况
+    @GetMapping("/admission")
+    public ResponseEntity<ApiResponse<Map<RequestClass, AdmissionControl.Stats>>> getAdmissionMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(admissionControl.snapshot()));
+    }
+
+    // 热点查询的合并情况
+    @GetMapping("/coalescing")
+    public ResponseEntity<ApiResponse<Map<String, CoalescingAspect.Stats>>> getCoalescingMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(coalescingAspect.snapshot()));
+    }
+
+    // 各接口的延迟分布：total 为累计，recent 为上次读取以来
+    @GetMapping("/latency")
+    public ResponseEntity<ApiResponse<Map<String, EndpointLatencyRecorder.Snapshot>>> getLatencyMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(latencyRecorder.snapshot()));
+    }
+
+    @DeleteMapping("/latency")
+    public ResponseEntity<ApiResponse<Void>> resetLatencyMetrics() {
+        latencyRecorder.reset();
+        return ResponseEntity.ok(ApiResponse.success("延迟统计已重置", null));
+    }
+
+    // 各门店缓存失效消息的读取进度
+    @GetMapping("/invalidation")
+    public ResponseEntity<ApiResponse<Map<String, InvalidationBus.Stats>>> getInvalidationMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(invalidationBus.snapshot()));
+    }
+
+    // 可用性索引的加载方式、规模与快照高水位
+    @GetMapping("/availability")
+    public ResponseEntity<ApiResponse<Map<String, AvailabilityIndex.Stats>>> getAvailabilityMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(availabilityIndex.snapshot()));
+    }
+}
@@ -1,15 +1,21 @@
 package com.hotelsystem.controller;
 
+import com.hotelsystem.config.StreamingListWriter;
 import com.hotelsystem.dto.ApiResponse;
 import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.dto.ReservationSearchRequest;
+import com.hotelsystem.dto.ReservationSearchResult;
 import com.hotelsystem.entity.Reservation;
 import com.hotelsystem.service.ReservationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -19,11 +25,22 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final StreamingListWriter streamingListWriter;
 
+    // 逐行流式输出，不在内存中构造完整列表
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ReservationDto>>> getAllReservations() {
-        List<ReservationDto> reservations = reservationService.getAllReservations();
-        return ResponseEntity.ok(ApiResponse.success(reservations));
+    public void getAllReservations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamingListWriter.<ReservationDto>write(request, response, reservationService::streamAllReservations);
+    }
+
+    // 状态、宾客、房间、房型、入住/离店日期和金额范围可任意组合，分页返回
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<ReservationSearchResult>> searchReservations(@Valid ReservationSearchRequest request) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(reservationService.searchReservations(request)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -90,4 +107,13 @@ public class ReservationController {
         List<ReservationDto> reservations = reservationService.getReservationsByCheckInDateRange(start, end);
         return ResponseEntity.ok(ApiResponse.success(reservations));
     }
-}
\ No newline at end of file
+
+    // 按入住日期导出，包含已归档的历史预订
+    @GetMapping("/export")
+    public ResponseEntity<ApiResponse<List<ReservationDto>>> exportReservations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        List<ReservationDto> reservations = reservationService.exportReservations(start, end);
+        return ResponseEntity.ok(ApiResponse.success(reservations));
+    }
+}
@@ -1,13 +1,22 @@
 package com.hotelsystem.controller;
 
+import com.hotelsystem.config.StreamingListWriter;
 import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.dto.RoomBatchCreateRequest;
+import com.hotelsystem.dto.RoomBatchUpdateRequest;
 import com.hotelsystem.dto.RoomDto;
+import com.hotelsystem.dto.RoomSearchRequest;
+import com.hotelsystem.dto.RoomSearchResult;
+import com.hotelsystem.service.RoomBatchService;
 import com.hotelsystem.service.RoomService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,11 +25,18 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final StreamingListWriter streamingListWriter;
+    private final RoomBatchService roomBatchService;
 
+    // 逐行流式输出，不在内存中构造完整列表
     @GetMapping
-    public ResponseEntity<ApiResponse<List<RoomDto>>> getAllRooms() {
-        List<RoomDto> rooms = roomService.getAllRooms();
-        return ResponseEntity.ok(ApiResponse.success(rooms));
+    public void getAllRooms(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamingListWriter.<RoomDto>write(request, response, roomService::streamAllRooms);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<RoomSearchResult>> searchRooms(@Valid RoomSearchRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(roomService.searchRooms(request)));
     }
 
     @GetMapping("/{id}")
@@ -40,6 +56,26 @@ public class RoomController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<RoomDto>>> createRooms(@Valid @RequestBody RoomBatchCreateRequest request) {
+        try {
+            List<RoomDto> createdRooms = roomBatchService.createRooms(request.getRooms());
+            return ResponseEntity.ok(ApiResponse.success("批量创建 " + createdRooms.size() + " 个房间", createdRooms));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<ApiResponse<Integer>> updateRooms(@Valid @RequestBody RoomBatchUpdateRequest request) {
+        try {
+            int updated = roomBatchService.updateRooms(request);
+            return ResponseEntity.ok(ApiResponse.success("批量更新 " + updated + " 个房间", updated));
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<RoomDto>> updateRoom(
             @PathVariable Long id,
@@ -5,11 +5,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class GuestDto {
     private Long id;
 
@@ -43,6 +45,24 @@ public class GuestDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // 供 JPQL 构造表达式直接投影，避免加载受管实体
+    public GuestDto(Long id, String fullName, String idCardNumber, String phone, String email,
+                    Guest.Gender gender, LocalDate dateOfBirth, String address, String preferences,
+                    String specialRequests, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.fullName = fullName;
+        this.idCardNumber = idCardNumber;
+        this.phone = phone;
+        this.email = email;
+        this.gender = gender;
+        this.dateOfBirth = dateOfBirth;
+        this.address = address;
+        this.preferences = preferences;
+        this.specialRequests = specialRequests;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     public static GuestDto fromEntity(Guest guest) {
         GuestDto dto = new GuestDto();
         dto.setId(guest.getId());
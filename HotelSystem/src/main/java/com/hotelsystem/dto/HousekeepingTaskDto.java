@@ -0,0 +1,25 @@
+package com.hotelsystem.dto;
+
+import com.hotelsystem.entity.HousekeepingTask;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HousekeepingTaskDto {
+    private Long id;
+    private Long roomId;
+    private String roomNumber;
+    private HousekeepingTask.TaskReason reason;
+    private HousekeepingTask.TaskStatus status;
+    private LocalDate nextArrivalDate;
+    private String assignee;
+    private LocalDateTime createdAt;
+    private LocalDateTime assignedAt;
+    private LocalDateTime completedAt;
+}
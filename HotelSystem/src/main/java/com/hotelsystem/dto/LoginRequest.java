@@ -10,4 +10,6 @@ public class LoginRequest {
 
     @NotBlank(message = "密码不能为空")
     private String password;
+
+    private String property; // 登录的门店，不填时为默认门店
 }
\ No newline at end of file
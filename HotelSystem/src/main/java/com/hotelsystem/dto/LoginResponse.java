@@ -8,11 +8,13 @@ public class LoginResponse {
     private String username;
     private String role;
     private String fullName;
+    private String property;
 
-    public LoginResponse(String token, String username, String role, String fullName) {
+    public LoginResponse(String token, String username, String role, String fullName, String property) {
         this.token = token;
         this.username = username;
         this.role = role;
         this.fullName = fullName;
+        this.property = property;
     }
 }
\ No newline at end of file
@@ -3,12 +3,14 @@ package com.hotelsystem.dto;
 import com.hotelsystem.entity.Reservation;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class ReservationDto {
     private Long id;
     private String reservationNumber;
@@ -38,6 +40,28 @@ public class ReservationDto {
     private GuestDto guest;
     private RoomDto room;
 
+    // 供 JPQL 构造表达式直接投影，避免加载受管实体
+    public ReservationDto(Long id, String reservationNumber, Long guestId, Long roomId,
+                          LocalDate checkInDate, LocalDate checkOutDate, Integer numberOfGuests,
+                          BigDecimal totalAmount, BigDecimal paidAmount, Reservation.ReservationStatus status,
+                          String specialRequests, String createdBy, LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
+        this.id = id;
+        this.reservationNumber = reservationNumber;
+        this.guestId = guestId;
+        this.roomId = roomId;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.numberOfGuests = numberOfGuests;
+        this.totalAmount = totalAmount;
+        this.paidAmount = paidAmount;
+        this.status = status;
+        this.specialRequests = specialRequests;
+        this.createdBy = createdBy;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     public static ReservationDto fromEntity(Reservation reservation) {
         ReservationDto dto = new ReservationDto();
         dto.setId(reservation.getId());
@@ -0,0 +1,52 @@
+package com.hotelsystem.dto;
+
+import com.hotelsystem.entity.Reservation;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+// GET /reservations/search 的查询参数，条件可任意组合，例如
+// ?statuses=CONFIRMED,CHECKED_IN&roomType=豪华间&checkInFrom=2025-01-01&checkInTo=2025-01-31&sort=-totalAmount
+@Data
+public class ReservationSearchRequest {
+    private Set<Reservation.ReservationStatus> statuses;
+    private Long guestId;
+    private Long roomId;
+    private String roomType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkInFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkInTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkOutFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkOutTo;
+
+    @DecimalMin(value = "0.00", message = "金额不能小于0")
+    private BigDecimal minAmount;
+
+    @DecimalMin(value = "0.00", message = "金额不能小于0")
+    private BigDecimal maxAmount;
+
+    @Pattern(regexp = "-?(checkInDate|checkOutDate|totalAmount|createdAt|reservationNumber)",
+            message = "排序字段只能是 checkInDate、checkOutDate、totalAmount、createdAt 或 reservationNumber，前缀 - 表示降序")
+    private String sort = "-checkInDate";
+
+    @Min(value = 0, message = "页码不能小于0")
+    private int page = 0;
+
+    @Min(value = 1, message = "每页条数不能小于1")
+    @Max(value = 200, message = "每页条数不能超过200")
+    private int size = 20;
+}
@@ -0,0 +1,15 @@
+package com.hotelsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ReservationSearchResult {
+    private long total;
+    private int page;
+    private int size;
+    private List<ReservationDto> reservations;
+}
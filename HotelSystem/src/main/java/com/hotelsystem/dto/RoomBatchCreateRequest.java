@@ -0,0 +1,15 @@
+package com.hotelsystem.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RoomBatchCreateRequest {
+    @NotEmpty(message = "房间列表不能为空")
+    @Size(max = 5000, message = "单次最多创建5000个房间")
+    private List<@Valid RoomDto> rooms;
+}
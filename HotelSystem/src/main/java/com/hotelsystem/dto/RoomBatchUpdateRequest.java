@@ -0,0 +1,68 @@
+package com.hotelsystem.dto;
+
+import com.hotelsystem.entity.Room;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// 两种用法二选一：
+// 1. rooms：逐个房间指定修改内容，如 [{"id": 1, "changes": {"price": 329.00}}]
+// 2. selector + changes：按条件批量修改，如 {"selector": {"roomType": "标准大床房"}, "changes": {"price": 329.00}}
+// changes 中为 null 的字段保持不变；房间号不支持批量修改
+@Data
+public class RoomBatchUpdateRequest {
+
+    @Size(max = 5000, message = "单次最多更新5000个房间")
+    private List<@Valid Item> rooms;
+
+    @Valid
+    private Selector selector;
+
+    @Valid
+    private Changes changes;
+
+    @Data
+    public static class Item {
+        @NotNull(message = "房间ID不能为空")
+        private Long id;
+
+        @NotNull(message = "修改内容不能为空")
+        @Valid
+        private Changes changes;
+    }
+
+    // 各条件之间为 AND 关系
+    @Data
+    public static class Selector {
+        private List<Long> ids;
+        private String roomType;
+        private Room.RoomStatus status;
+        private Boolean isActive;
+        private String roomNumberPrefix; // 按房间号前缀选择，如 "3" 表示三楼
+    }
+
+    @Data
+    public static class Changes {
+        @Size(max = 50, message = "房型长度不能超过50个字符")
+        private String roomType;
+
+        @Size(max = 200, message = "描述长度不能超过200个字符")
+        private String description;
+
+        @DecimalMin(value = "0.00", message = "价格不能小于0")
+        private BigDecimal price;
+
+        private Integer capacity;
+
+        @Size(max = 100, message = "设施长度不能超过100个字符")
+        private String amenities;
+
+        private Room.RoomStatus status;
+        private Boolean isActive;
+    }
+}
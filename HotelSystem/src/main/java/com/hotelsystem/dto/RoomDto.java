@@ -6,11 +6,13 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class RoomDto {
     private Long id;
 
@@ -40,6 +42,23 @@ public class RoomDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // 供 JPQL 构造表达式直接投影，避免加载受管实体
+    public RoomDto(Long id, String roomNumber, String roomType, String description, BigDecimal price,
+                   Integer capacity, String amenities, Room.RoomStatus status, Boolean isActive,
+                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.roomNumber = roomNumber;
+        this.roomType = roomType;
+        this.description = description;
+        this.price = price;
+        this.capacity = capacity;
+        this.amenities = amenities;
+        this.status = status;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     public static RoomDto fromEntity(Room room) {
         RoomDto dto = new RoomDto();
         dto.setId(room.getId());
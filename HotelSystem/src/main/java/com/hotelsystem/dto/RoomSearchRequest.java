@@ -0,0 +1,39 @@
+package com.hotelsystem.dto;
+
+import com.hotelsystem.entity.Room;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// GET /rooms/search 的查询参数，例如 ?minPrice=200&maxPrice=500&amenities=WiFi,空调&sort=-price
+@Data
+public class RoomSearchRequest {
+    @DecimalMin(value = "0.00", message = "价格不能小于0")
+    private BigDecimal minPrice;
+
+    @DecimalMin(value = "0.00", message = "价格不能小于0")
+    private BigDecimal maxPrice;
+
+    private Integer minCapacity;
+    private Integer maxCapacity;
+
+    private List<String> amenities; // 需同时具备的设施
+    private String roomType;
+    private Room.RoomStatus status;
+    private Boolean isActive;
+
+    @Pattern(regexp = "-?(price|capacity|roomNumber)", message = "排序字段只能是 price、capacity 或 roomNumber，前缀 - 表示降序")
+    private String sort = "roomNumber";
+
+    @Min(value = 0, message = "页码不能小于0")
+    private int page = 0;
+
+    @Min(value = 1, message = "每页条数不能小于1")
+    @Max(value = 200, message = "每页条数不能超过200")
+    private int size = 20;
+}
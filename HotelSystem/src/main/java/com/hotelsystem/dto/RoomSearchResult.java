@@ -0,0 +1,18 @@
+package com.hotelsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// facets 统计的是全部命中结果（不受分页影响），键为 amenities、roomType、status、capacity
+@Data
+@AllArgsConstructor
+public class RoomSearchResult {
+    private long total;
+    private int page;
+    private int size;
+    private List<RoomDto> rooms;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,37 @@
+package com.hotelsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 缓存失效消息，与业务修改在同一事务中写入，各节点按自增ID顺序轮询后失效本地缓存
+@Entity
+@Table(name = "cache_invalidations",
+        indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at"))
+@Data
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private EntityType entityType;
+
+    private Long entityId; // 为空表示该类型全部失效
+
+    @Column(length = 64)
+    private String originNode; // 写入节点，本节点的修改已在提交时更新本地缓存，轮询时跳过
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum EntityType {
+        ROOM,
+        GUEST,
+        USER,
+        RESERVATION
+    }
+}
@@ -0,0 +1,63 @@
+package com.hotelsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "housekeeping_tasks",
+        indexes = @Index(name = "idx_housekeeping_tasks_status", columnList = "status"))
+@Data
+public class HousekeepingTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(length = 20)
+    private String roomNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskReason reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskStatus status = TaskStatus.PENDING;
+
+    private LocalDate nextArrivalDate; // 该房间下一次入住日期，越早越优先
+
+    @Column(length = 50)
+    private String assignee; // 领取任务的房务员用户名
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "assigned_at")
+    private LocalDateTime assignedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum TaskReason {
+        CHECKOUT,       // 退房
+        STATUS_CHANGE   // 房间被手动置为清洁中
+    }
+
+    public enum TaskStatus {
+        PENDING,    // 待分配
+        ASSIGNED,   // 已分配
+        DONE,       // 已完成
+        CANCELLED   // 已取消（同一房间的重复任务）
+    }
+}
@@ -0,0 +1,45 @@
+package com.hotelsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 幂等请求的占位与响应：执行前先按主键插入 PENDING 记录，集群内只有插入成功的节点执行，
+// 完成后写回响应，重试时直接返回
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+@Data
+public class IdempotencyKey {
+
+    @Id
+    @Column(length = 64)
+    private String keyHash; // 门店、用户、接口与 Idempotency-Key 请求头的 SHA-256
+
+    @Column(length = 64, nullable = false)
+    private String requestHash; // 请求体的 SHA-256，用于发现同一个键被用于不同的请求
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private State state; // 为空的旧记录视为已完成
+
+    @Column(length = 36)
+    private String ownerToken; // 占位请求的令牌，只有它能写回响应或撤销占位
+
+    private Integer statusCode;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum State {
+        PENDING,    // 某个节点正在处理
+        COMPLETED   // 已保存响应
+    }
+}
@@ -0,0 +1,62 @@
+package com.hotelsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 50, nullable = false)
+    private String aggregateType; // 聚合类型，如 "Reservation"
+
+    private Long aggregateId;
+
+    @Column(length = 50, nullable = false)
+    private String eventType; // 事件类型，如 "RESERVATION_CREATED"
+
+    @Lob
+    private String payload; // JSON 格式的事件内容
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(length = 200)
+    private String deliveredSinks; // 已投递成功的 OutboxSink 名称，逗号分隔，重试时跳过
+
+    private Integer attempts = 0; // 已投递次数
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // 下次可投递时间
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    public enum OutboxStatus {
+        PENDING,     // 待投递
+        DISPATCHED,  // 已投递
+        FAILED       // 超过最大重试次数
+    }
+}
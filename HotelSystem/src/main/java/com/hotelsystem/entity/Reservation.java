@@ -10,7 +10,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations",
+        indexes = {
+                @Index(name = "idx_reservations_status_check_out", columnList = "status, check_out_date"),
+                @Index(name = "idx_reservations_check_in", columnList = "check_in_date"),
+                @Index(name = "idx_reservations_guest_check_in", columnList = "guest_id, check_in_date"),
+                @Index(name = "idx_reservations_room_check_in", columnList = "room_id, check_in_date"),
+                @Index(name = "idx_reservations_status_check_in", columnList = "status, check_in_date")
+        })
 @Data
 public class Reservation {
     @Id
@@ -0,0 +1,62 @@
+package com.hotelsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// 已归档的历史预订，结构与 reservations 相同，保留原预订ID；宾客和房间只存外键，不建关联
+@Entity
+@Table(name = "reservations_archive",
+        indexes = {
+                @Index(name = "idx_reservations_archive_guest", columnList = "guest_id"),
+                @Index(name = "idx_reservations_archive_check_in", columnList = "check_in_date")
+        })
+@Data
+public class ReservationArchive {
+
+    @Id
+    private Long id;
+
+    @Column(length = 50, nullable = false)
+    private String reservationNumber;
+
+    @Column(name = "guest_id", nullable = false)
+    private Long guestId;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private LocalDate checkInDate;
+
+    @Column(nullable = false)
+    private LocalDate checkOutDate;
+
+    private Integer numberOfGuests;
+
+    private BigDecimal totalAmount;
+
+    private BigDecimal paidAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Reservation.ReservationStatus status;
+
+    @Column(length = 500)
+    private String specialRequests;
+
+    @Column(name = "created_by")
+    private String createdBy;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,11 @@
+package com.hotelsystem.exception;
+
+// 与已有数据冲突，如编号重复、房间已被预订
+public class ConflictException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConflictException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hotelsystem.exception;
+
+// 业务规则校验失败，属于预期内的结果而非程序错误：不记录调用栈，也不允许附加 cause 和 suppressed，
+// 因此固定消息的异常可以预先创建并在所有线程间共享
+public abstract class DomainException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorCode errorCode;
+
+    protected DomainException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hotelsystem.exception;
+
+import java.util.function.BiFunction;
+
+// 业务错误码及其提示信息；无附加信息的异常在类加载时创建一次，之后重复抛出同一个实例
+public enum ErrorCode {
+
+    PROPERTY_NOT_FOUND(Category.NOT_FOUND, "门店不存在"),
+    BAD_CREDENTIALS(Category.DENIED, "用户名或密码错误"),
+    USER_DISABLED(Category.DENIED, "用户已被禁用"),
+
+    USER_NOT_FOUND(Category.NOT_FOUND, "用户不存在"),
+    USERNAME_EXISTS(Category.CONFLICT, "用户名已存在"),
+    USERNAME_TAKEN(Category.CONFLICT, "用户名已被其他用户使用"),
+    EMAIL_EXISTS(Category.CONFLICT, "邮箱已存在"),
+    EMAIL_TAKEN(Category.CONFLICT, "邮箱已被其他用户使用"),
+    PASSWORD_REQUIRED(Category.INVALID, "密码不能为空"),
+    WRONG_PASSWORD(Category.DENIED, "原密码错误"),
+
+    GUEST_NOT_FOUND(Category.NOT_FOUND, "宾客不存在"),
+    ID_CARD_EXISTS(Category.CONFLICT, "身份证号已存在"),
+    ID_CARD_TAKEN(Category.CONFLICT, "身份证号已被其他宾客使用"),
+    GUEST_LOOKUP_CRITERIA_REQUIRED(Category.INVALID, "请至少提供身份证号、电话或姓名之一"),
+
+    ROOM_NOT_FOUND(Category.NOT_FOUND, "房间不存在"),
+    ROOM_NUMBER_EXISTS(Category.CONFLICT, "房间号已存在"),
+    ROOM_NUMBER_TAKEN(Category.CONFLICT, "房间号已被其他房间使用"),
+    BATCH_REQUEST_EMPTY(Category.INVALID, "请提供 rooms，或同时提供 selector 和 changes"),
+    BATCH_DUPLICATE_ROOM_NUMBER(Category.INVALID, "批量请求中房间号重复"),
+    BATCH_DUPLICATE_ROOM_ID(Category.INVALID, "批量请求中房间ID重复"),
+    BATCH_SELECTOR_EMPTY(Category.INVALID, "selector 至少需要一个条件"),
+    BATCH_CHANGES_EMPTY(Category.INVALID, "changes 至少需要修改一个字段"),
+
+    RESERVATION_NOT_FOUND(Category.NOT_FOUND, "预订不存在"),
+    ROOM_UNAVAILABLE(Category.CONFLICT, "房间在指定日期不可用"),
+    INVALID_STAY_DATES(Category.INVALID, "离店日期必须晚于入住日期"),
+    INVALID_CHECK_IN_RANGE(Category.INVALID, "入住日期范围的开始日期不能晚于结束日期"),
+    INVALID_CHECK_OUT_RANGE(Category.INVALID, "离店日期范围的开始日期不能晚于结束日期"),
+    INVALID_AMOUNT_RANGE(Category.INVALID, "最低金额不能大于最高金额"),
+
+    TASK_NOT_FOUND(Category.NOT_FOUND, "任务不存在或已结束"),
+    TASK_NOT_ASSIGNED(Category.DENIED, "任务未分配给当前用户");
+
+    private final Category category;
+    private final String message;
+    private final DomainException shared;
+
+    ErrorCode(Category category, String message) {
+        this.category = category;
+        this.message = message;
+        this.shared = category.factory.apply(this, message);
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public DomainException exception() {
+        return shared;
+    }
+
+    // 需要带上具体的房间号、ID 等信息时每次新建，同样不记录调用栈
+    public DomainException exception(Object detail) {
+        return category.factory.apply(this, message + ": " + detail);
+    }
+
+    private enum Category {
+        NOT_FOUND(NotFoundException::new),
+        CONFLICT(ConflictException::new),
+        INVALID(InvalidRequestException::new),
+        DENIED(PermissionDeniedException::new);
+
+        private final BiFunction<ErrorCode, String, DomainException> factory;
+
+        Category(BiFunction<ErrorCode, String, DomainException> factory) {
+            this.factory = factory;
+        }
+    }
+}
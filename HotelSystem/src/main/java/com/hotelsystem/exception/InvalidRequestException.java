@@ -0,0 +1,11 @@
+package com.hotelsystem.exception;
+
+// 请求参数不满足业务规则
+public class InvalidRequestException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRequestException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
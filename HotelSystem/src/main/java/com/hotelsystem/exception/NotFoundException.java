@@ -0,0 +1,11 @@
+package com.hotelsystem.exception;
+
+// 要查找的门店、用户、宾客、房间、预订或任务不存在
+public class NotFoundException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotFoundException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotelsystem.exception;
+
+// 身份校验失败或无权操作该数据
+public class PermissionDeniedException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PermissionDeniedException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hotelsystem.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// 按接口模板（如 GET /reservations/{id}）记录的延迟分布，微秒精度、3 位有效数字。
+// 请求线程只写入无锁的 Recorder，读取时才把区间直方图并入累计直方图
+@Component
+public class EndpointLatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+        endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).recorder.recordValue(micros);
+    }
+
+    // total 为累计分布，recent 为上次读取以来的分布
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> result.put(name, endpoint.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class Endpoint {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private Histogram interval;
+
+        private synchronized Snapshot snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return new Snapshot(Distribution.of(total), Distribution.of(interval));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Snapshot {
+        private Distribution total;
+        private Distribution recent;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Distribution {
+        private long count;
+        private double meanMs;
+        private double p50Ms;
+        private double p90Ms;
+        private double p99Ms;
+        private double p999Ms;
+        private double maxMs;
+
+        private static Distribution of(Histogram histogram) {
+            return new Distribution(histogram.getTotalCount(),
+                    histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
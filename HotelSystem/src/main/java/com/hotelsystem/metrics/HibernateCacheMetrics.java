@@ -0,0 +1,59 @@
+package com.hotelsystem.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// 二级缓存与查询缓存的命中统计
+@Component
+@RequiredArgsConstructor
+public class HibernateCacheMetrics {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public Map<String, RegionStats> snapshot() {
+        Statistics statistics = statistics();
+        Map<String, RegionStats> result = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                result.put(regionName, new RegionStats(region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), elementCount(region.getElementCountInMemory())));
+            }
+        }
+        result.put("query-cache", new RegionStats(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), -1));
+        return result;
+    }
+
+    // JCache 不提供内存元素数，Hibernate 以 Long.MIN_VALUE 表示，统一折算为 -1
+    static long elementCount(long reported) {
+        return reported < 0 ? -1 : reported;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RegionStats {
+        private long hits;
+        private long misses;
+        private long puts;
+        private long elementsInMemory;   // -1 表示不可用
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.hotelsystem.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// 整个请求的处理时间，减去其中业务和仓库事件即为过滤器链与序列化的耗时
+@Name("com.hotelsystem.HttpRequest")
+@Label("HTTP Request")
+@Category({"HotelSystem", "Web"})
+@Description("一次 HTTP 请求，按接口模板归类")
+public class HttpRequestEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Status")
+    public int status;
+}
@@ -0,0 +1,21 @@
+package com.hotelsystem.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JwtAuthenticationFilter 解析令牌的耗时；未开启飞行记录时 begin/commit 几乎没有开销
+@Name("com.hotelsystem.JwtAuthentication")
+@Label("JWT Authentication")
+@Category({"HotelSystem", "Security"})
+@Description("解析 Authorization 请求头中的 JWT 并建立安全上下文")
+public class JwtAuthenticationEvent extends Event {
+
+    @Label("Authenticated")
+    public boolean authenticated;
+
+    @Label("Property")
+    public String property;
+}
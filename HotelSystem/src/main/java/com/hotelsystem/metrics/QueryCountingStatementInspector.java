@@ -0,0 +1,52 @@
+package com.hotelsystem.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+
+// 统计当前线程执行的SQL语句数，并保留最近几条语句供慢查询日志使用（不修改SQL）
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int RECENT_LIMIT = 8;
+
+    private static final ThreadLocal<StatementTrace> TRACE = ThreadLocal.withInitial(StatementTrace::new);
+
+    @Override
+    public String inspect(String sql) {
+        StatementTrace trace = TRACE.get();
+        trace.count++;
+        if (trace.recent.size() == RECENT_LIMIT) {
+            trace.recent.pollFirst();
+        }
+        trace.recent.addLast(sql);
+        return sql;
+    }
+
+    // 当前线程累计执行的语句数
+    public static int currentCount() {
+        return TRACE.get().count;
+    }
+
+    // 当前线程最近执行的至多 n 条语句，按执行顺序排列
+    public static String[] recentStatements(int n) {
+        ArrayDeque<String> recent = TRACE.get().recent;
+        int size = Math.min(n, recent.size());
+        String[] result = new String[size];
+        int skip = recent.size() - size;
+        int i = 0;
+        for (String sql : recent) {
+            if (skip-- > 0) {
+                continue;
+            }
+            result[i++] = sql;
+        }
+        return result;
+    }
+
+    private static final class StatementTrace {
+        private int count;
+        private final ArrayDeque<String> recent = new ArrayDeque<>(RECENT_LIMIT);
+    }
+}
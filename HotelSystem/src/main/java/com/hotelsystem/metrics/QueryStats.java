@@ -0,0 +1,94 @@
+package com.hotelsystem.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 单个仓库方法的调用统计，耗时按微秒取以2为底的对数分桶
+public class QueryStats {
+
+    private static final int BUCKETS = 32;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos, long rowCount, int statementCount, boolean failed) {
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        rows.add(rowCount);
+        statements.add(statementCount);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        histogram.incrementAndGet(bucketOf(nanos));
+    }
+
+    public Snapshot snapshot() {
+        long calls = count.sum();
+        long[] buckets = new long[BUCKETS];
+        long histogramTotal = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(i);
+            histogramTotal += buckets[i];
+        }
+        return new Snapshot(
+                calls,
+                errors.sum(),
+                calls == 0 ? 0 : toMillis(totalNanos.sum() / calls),
+                percentile(buckets, histogramTotal, 0.50),
+                percentile(buckets, histogramTotal, 0.95),
+                percentile(buckets, histogramTotal, 0.99),
+                toMillis(maxNanos.get()),
+                rows.sum(),
+                statements.sum());
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+    }
+
+    // 返回所在桶的上界（毫秒），是偏保守的估计
+    private static double percentile(long[] buckets, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return (1L << (i + 1)) / 1000.0;
+            }
+        }
+        return (1L << BUCKETS) / 1000.0;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Snapshot {
+        private long count;
+        private long errors;
+        private double avgMs;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+        private double maxMs;
+        private long rows;
+        private long statements;
+    }
+}
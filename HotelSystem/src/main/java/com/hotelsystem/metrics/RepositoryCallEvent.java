@@ -0,0 +1,27 @@
+package com.hotelsystem.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// 单次仓库方法调用，与 RepositoryMetricsAspect 的统计口径一致
+@Name("com.hotelsystem.RepositoryCall")
+@Label("Repository Call")
+@Category({"HotelSystem", "Persistence"})
+@Description("Spring Data 仓库方法调用")
+public class RepositoryCallEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Statements")
+    public int statements;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,180 @@
+package com.hotelsystem.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// 记录每个 Spring Data 仓库方法的耗时、返回行数和执行语句数，超过阈值的调用写入慢查询日志
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.hotelsystem.slowquery");
+
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final Map<MethodKey, String> names = new ConcurrentHashMap<>();
+
+    @Value("${hotel.metrics.slow-query-threshold-ms:200}")
+    private long slowQueryThresholdMs;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = names.computeIfAbsent(new MethodKey(joinPoint.getThis().getClass(), method),
+                key -> repositoryName(joinPoint.getThis(), method));
+
+        Call call = new Call(name, joinPoint.getArgs());
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            call.finish(0, true);
+            throw e;
+        }
+        // Stream 返回时查询才刚开始，行数和耗时要到调用方读完并关闭后才能确定
+        if (result instanceof Stream<?> rows) {
+            LongAdder counted = new LongAdder();
+            return rows.peek(row -> counted.increment())
+                    .onClose(() -> call.finish(counted.sum(), false));
+        }
+        call.finish(rowCount(result), false);
+        return result;
+    }
+
+    public Map<String, QueryStats.Snapshot> snapshot() {
+        Map<String, QueryStats.Snapshot> result = new TreeMap<>();
+        stats.forEach((name, value) -> result.put(name, value.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    // 一次仓库调用的计时上下文；Stream 结果在关闭时才结束，调用方需用 try-with-resources 关闭
+    private final class Call {
+        private final String name;
+        private final Object[] args;
+        private final RepositoryCallEvent event = new RepositoryCallEvent();
+        private final int statementsBefore;
+        private final long start;
+
+        private Call(String name, Object[] args) {
+            this.name = name;
+            this.args = args;
+            event.begin();
+            statementsBefore = QueryCountingStatementInspector.currentCount();
+            start = System.nanoTime();
+        }
+
+        private void finish(long rows, boolean failed) {
+            long elapsed = System.nanoTime() - start;
+            int executed = QueryCountingStatementInspector.currentCount() - statementsBefore;
+            stats.computeIfAbsent(name, key -> new QueryStats())
+                    .record(elapsed, rows, executed, failed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = name;
+                event.rows = rows;
+                event.statements = executed;
+                event.failed = failed;
+                event.commit();
+            }
+
+            long elapsedMs = elapsed / 1_000_000;
+            if (elapsedMs >= slowQueryThresholdMs) {
+                slowQueryLog.warn("{} took {} ms, statements={}, params={}, sql={}",
+                        name, elapsedMs, executed, describeArgs(args),
+                        Arrays.toString(QueryCountingStatementInspector.recentStatements(executed)));
+            }
+        }
+    }
+
+    // 以业务仓库接口名命名，如 ReservationRepository.findConflictingReservations
+    private static String repositoryName(Object proxy, Method method) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (type.getName().startsWith("com.hotelsystem.repository.")) {
+                return type.getSimpleName() + "." + method.getName();
+            }
+        }
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    // 慢查询日志里的参数只保留类型和不含个人信息的值：数字、日期、枚举、分页照常输出，
+    // 字符串（姓名、证件号、密码、请求体等）只记长度，实体只记类型和 id，集合只记大小
+    static String describeArgs(Object[] args) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Object arg : args) {
+            joiner.add(describe(arg));
+        }
+        return joiner.toString();
+    }
+
+    private static String describe(Object arg) {
+        if (arg == null || arg instanceof Number || arg instanceof Boolean || arg instanceof Enum<?>
+                || arg instanceof Temporal || arg instanceof UUID || arg instanceof Pageable || arg instanceof Sort) {
+            return String.valueOf(arg);
+        }
+        if (arg instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        if (arg instanceof Collection<?> collection) {
+            String kind = collection instanceof List<?> ? "List" : collection instanceof Set<?> ? "Set" : "Collection";
+            return kind + "(" + collection.size() + ")";
+        }
+        if (arg.getClass().isArray()) {
+            return arg.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(arg) + "]";
+        }
+        try {
+            Method getId = arg.getClass().getMethod("getId");
+            return arg.getClass().getSimpleName() + "#" + getId.invoke(arg);
+        } catch (ReflectiveOperationException e) {
+            return arg.getClass().getSimpleName();
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+
+    // findById 等继承方法在各仓库间共享同一个 Method，需要连同代理类型一起作为键
+    private record MethodKey(Class<?> proxyType, Method method) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.hotelsystem.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// 一次 createReservation 调用，不含方法返回后的事务提交
+@Name("com.hotelsystem.ReservationCreate")
+@Label("Reservation Create")
+@Category({"HotelSystem", "Reservation"})
+@Description("创建预订的业务处理，各步骤见 Reservation Step 事件")
+public class ReservationCreateEvent extends Event {
+
+    @Label("Guest Id")
+    public long guestId;
+
+    @Label("Room Id")
+    public long roomId;
+
+    @Label("Outcome")
+    @Description("CREATED 或失败时的错误码")
+    public String outcome;
+}
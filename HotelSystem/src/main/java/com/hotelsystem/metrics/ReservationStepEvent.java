@@ -0,0 +1,25 @@
+package com.hotelsystem.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// createReservation 内部的单个步骤：宾客查询、房间查询、冲突检查、保存、写发件箱
+@Name("com.hotelsystem.ReservationStep")
+@Label("Reservation Step")
+@Category({"HotelSystem", "Reservation"})
+@Description("创建预订过程中的单个步骤")
+public class ReservationStepEvent extends Event {
+
+    @Label("Step")
+    public String step;
+
+    public static ReservationStepEvent begin(String step) {
+        ReservationStepEvent event = new ReservationStepEvent();
+        event.step = step;
+        event.begin();
+        return event;
+    }
+}
@@ -1,16 +1,35 @@
 package com.hotelsystem.repository;
 
+import com.hotelsystem.dto.GuestDto;
 import com.hotelsystem.entity.Guest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface GuestRepository extends JpaRepository<Guest, Long> {
+public interface GuestRepository extends JpaRepository<Guest, Long>, GuestRepositoryCustom {
     Optional<Guest> findByIdCardNumber(String idCardNumber);
     List<Guest> findByFullNameContainingIgnoreCase(String fullName);
     List<Guest> findByPhone(String phone);
     Boolean existsByIdCardNumber(String idCardNumber);
+
+    // 列表查询直接投影为 DTO，不产生受管实体和脏检查快照
+    String GUEST_DTO_SELECT = "SELECT new com.hotelsystem.dto.GuestDto(g.id, g.fullName, g.idCardNumber, " +
+            "g.phone, g.email, g.gender, g.dateOfBirth, g.address, g.preferences, g.specialRequests, " +
+            "g.createdAt, g.updatedAt) FROM Guest g";
+
+    @Query(GUEST_DTO_SELECT)
+    List<GuestDto> findAllDtos();
+
+    // 与派生查询 ...Containing 一样转义输入中的 % 和 _，按字面匹配
+    @Query(GUEST_DTO_SELECT + " WHERE LOWER(g.fullName) LIKE LOWER(CONCAT('%', :#{escape(#fullName)}, '%')) " +
+            "ESCAPE :#{escapeCharacter()}")
+    List<GuestDto> findDtosByFullNameContaining(@Param("fullName") String fullName);
+
+    @Query(GUEST_DTO_SELECT + " WHERE g.phone = :phone")
+    List<GuestDto> findDtosByPhone(@Param("phone") String phone);
 }
@@ -0,0 +1,11 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.GuestDto;
+
+import java.util.stream.Stream;
+
+public interface GuestRepositoryCustom {
+
+    // 逐行读取供流式输出使用，调用方需在只读事务内消费并关闭
+    Stream<GuestDto> streamAllDtos();
+}
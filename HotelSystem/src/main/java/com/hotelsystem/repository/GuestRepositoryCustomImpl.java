@@ -0,0 +1,18 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.GuestDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.stream.Stream;
+
+class GuestRepositoryCustomImpl implements GuestRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<GuestDto> streamAllDtos() {
+        return StreamingQueries.stream(entityManager, GuestRepository.GUEST_DTO_SELECT, GuestDto.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.entity.HousekeepingTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HousekeepingTaskRepository extends JpaRepository<HousekeepingTask, Long> {
+    List<HousekeepingTask> findByStatusIn(Collection<HousekeepingTask.TaskStatus> statuses);
+}
@@ -0,0 +1,59 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // 直接 INSERT 而不是 save()：save() 对已存在的主键会合并覆盖，这里需要主键冲突来判定占位失败
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key_hash, request_hash, state, owner_token, created_at) " +
+            "VALUES (:keyHash, :requestHash, 'PENDING', :owner, :now)", nativeQuery = true)
+    int insertPending(@Param("keyHash") String keyHash, @Param("requestHash") String requestHash,
+                      @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // 接管占位者已失联的记录，或已过期但尚未清理的响应
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.state = com.hotelsystem.entity.IdempotencyKey.State.PENDING, " +
+            "k.ownerToken = :owner, k.requestHash = :requestHash, k.statusCode = NULL, k.contentType = NULL, " +
+            "k.body = NULL, k.createdAt = :now WHERE k.keyHash = :keyHash AND (" +
+            "(k.state = com.hotelsystem.entity.IdempotencyKey.State.PENDING AND k.createdAt < :abandonedBefore) OR " +
+            "((k.state IS NULL OR k.state = com.hotelsystem.entity.IdempotencyKey.State.COMPLETED) " +
+            "AND k.createdAt < :expiredBefore))")
+    int takeOver(@Param("keyHash") String keyHash, @Param("requestHash") String requestHash,
+                 @Param("owner") String owner, @Param("now") LocalDateTime now,
+                 @Param("abandonedBefore") LocalDateTime abandonedBefore,
+                 @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    // 只有仍持有占位的请求能写回响应
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.state = com.hotelsystem.entity.IdempotencyKey.State.COMPLETED, " +
+            "k.statusCode = :status, k.contentType = :contentType, k.body = :body, k.createdAt = :createdAt " +
+            "WHERE k.keyHash = :keyHash AND k.ownerToken = :owner " +
+            "AND k.state = com.hotelsystem.entity.IdempotencyKey.State.PENDING")
+    int complete(@Param("keyHash") String keyHash, @Param("owner") String owner, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body,
+                 @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.keyHash = :keyHash AND k.ownerToken = :owner " +
+            "AND k.state = com.hotelsystem.entity.IdempotencyKey.State.PENDING")
+    int deletePending(@Param("keyHash") String keyHash, @Param("owner") String owner);
+}
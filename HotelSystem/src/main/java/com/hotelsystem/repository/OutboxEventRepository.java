@@ -0,0 +1,32 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // FOR UPDATE SKIP LOCKED：多个节点同时投递时互不重复领取
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = com.hotelsystem.entity.OutboxEvent.OutboxStatus.PENDING " +
+            "AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDispatchable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxEvent.OutboxStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e " +
+            "WHERE e.status = com.hotelsystem.entity.OutboxEvent.OutboxStatus.PENDING")
+    LocalDateTime findOldestPendingCreatedAt();
+}
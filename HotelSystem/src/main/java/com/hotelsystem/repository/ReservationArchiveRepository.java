@@ -0,0 +1,32 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.entity.ReservationArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationArchiveRepository extends JpaRepository<ReservationArchive, Long> {
+
+    // 与 ReservationRepository.RESERVATION_DTO_SELECT 投影为相同的 DTO，便于与热表结果合并
+    String ARCHIVE_DTO_SELECT = "SELECT new com.hotelsystem.dto.ReservationDto(a.id, a.reservationNumber, " +
+            "a.guestId, a.roomId, a.checkInDate, a.checkOutDate, a.numberOfGuests, a.totalAmount, " +
+            "a.paidAmount, a.status, a.specialRequests, a.createdBy, a.createdAt, a.updatedAt) " +
+            "FROM ReservationArchive a";
+
+    @Query(ARCHIVE_DTO_SELECT + " WHERE a.id = :id")
+    Optional<ReservationDto> findDtoById(@Param("id") Long id);
+
+    @Query(ARCHIVE_DTO_SELECT + " WHERE a.guestId = :guestId")
+    List<ReservationDto> findDtosByGuestId(@Param("guestId") Long guestId);
+
+    @Query(ARCHIVE_DTO_SELECT + " WHERE a.checkInDate BETWEEN :start AND :end")
+    List<ReservationDto> findDtosByCheckInDateBetween(@Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
+}
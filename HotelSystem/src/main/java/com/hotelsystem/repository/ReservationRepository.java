@@ -1,17 +1,27 @@
 package com.hotelsystem.repository;
 
+import com.hotelsystem.dto.ReservationDto;
 import com.hotelsystem.entity.Reservation;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation>,
+        ReservationRepositoryCustom {
     Optional<Reservation> findByReservationNumber(String reservationNumber);
     List<Reservation> findByGuestId(Long guestId);
     List<Reservation> findByRoomId(Long roomId);
@@ -31,4 +41,56 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                                   @Param("checkOut") LocalDate checkOut,
                                                   @Param("excludeReservationId") Long excludeReservationId);
 
+    // 房间下一次入住日期，用于排定清洁任务的优先级
+    @Query("SELECT MIN(r.checkInDate) FROM Reservation r WHERE r.room.id = :roomId " +
+            "AND r.status IN (com.hotelsystem.entity.Reservation.ReservationStatus.PENDING, " +
+            "com.hotelsystem.entity.Reservation.ReservationStatus.CONFIRMED) " +
+            "AND r.checkInDate >= :from")
+    LocalDate findNextArrivalDate(@Param("roomId") Long roomId, @Param("from") LocalDate from);
+
+    // 列表查询直接投影为 DTO，宾客和房间只取外键，不触发关联加载
+    String RESERVATION_DTO_SELECT = "SELECT new com.hotelsystem.dto.ReservationDto(r.id, r.reservationNumber, " +
+            "r.guest.id, r.room.id, r.checkInDate, r.checkOutDate, r.numberOfGuests, r.totalAmount, " +
+            "r.paidAmount, r.status, r.specialRequests, r.createdBy, r.createdAt, r.updatedAt) " +
+            "FROM Reservation r";
+
+    @Query(RESERVATION_DTO_SELECT)
+    List<ReservationDto> findAllDtos();
+
+    // 归档任务按批领取已结束且早于截止日期的预订；SKIP LOCKED 避免多个节点重复归档
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r.id FROM Reservation r WHERE r.status IN :statuses AND r.checkOutDate < :cutoff ORDER BY r.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<Reservation.ReservationStatus> statuses,
+                                 @Param("cutoff") LocalDate cutoff,
+                                 Pageable pageable);
+
+    @Modifying
+    @Query("INSERT INTO ReservationArchive (id, reservationNumber, guestId, roomId, checkInDate, checkOutDate, " +
+            "numberOfGuests, totalAmount, paidAmount, status, specialRequests, createdBy, createdAt, updatedAt, " +
+            "archivedAt) " +
+            "SELECT r.id, r.reservationNumber, r.guest.id, r.room.id, r.checkInDate, r.checkOutDate, " +
+            "r.numberOfGuests, r.totalAmount, r.paidAmount, r.status, r.specialRequests, r.createdBy, " +
+            "r.createdAt, r.updatedAt, local datetime FROM Reservation r WHERE r.id IN :ids")
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Reservation r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESERVATION_DTO_SELECT + " WHERE r.guest.id = :guestId")
+    List<ReservationDto> findDtosByGuestId(@Param("guestId") Long guestId);
+
+    @Query(RESERVATION_DTO_SELECT + " WHERE r.room.id = :roomId")
+    List<ReservationDto> findDtosByRoomId(@Param("roomId") Long roomId);
+
+    @Query(RESERVATION_DTO_SELECT + " WHERE r.id IN :ids")
+    List<ReservationDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESERVATION_DTO_SELECT + " WHERE r.status = :status")
+    List<ReservationDto> findDtosByStatus(@Param("status") Reservation.ReservationStatus status);
+
+    @Query(RESERVATION_DTO_SELECT + " WHERE r.checkInDate BETWEEN :start AND :end")
+    List<ReservationDto> findDtosByCheckInDateBetween(@Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
 }
@@ -0,0 +1,14 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.ReservationDto;
+
+import java.util.stream.Stream;
+
+public interface ReservationRepositoryCustom {
+
+    // 逐行读取供流式输出使用，调用方需在只读事务内消费并关闭
+    Stream<ReservationDto> streamAllDtos();
+
+    // 占用房间的预订（已确认、已入住），用于重建可用性索引
+    Stream<ReservationDto> streamActiveDtos();
+}
@@ -0,0 +1,27 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.ReservationDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.stream.Stream;
+
+class ReservationRepositoryCustomImpl implements ReservationRepositoryCustom {
+
+    private static final String ACTIVE_RESERVATION_DTO_SELECT = ReservationRepository.RESERVATION_DTO_SELECT +
+            " WHERE r.status IN (com.hotelsystem.entity.Reservation.ReservationStatus.CONFIRMED, " +
+            "com.hotelsystem.entity.Reservation.ReservationStatus.CHECKED_IN)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<ReservationDto> streamAllDtos() {
+        return StreamingQueries.stream(entityManager, ReservationRepository.RESERVATION_DTO_SELECT, ReservationDto.class);
+    }
+
+    @Override
+    public Stream<ReservationDto> streamActiveDtos() {
+        return StreamingQueries.stream(entityManager, ACTIVE_RESERVATION_DTO_SELECT, ReservationDto.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.ReservationSearchRequest;
+import com.hotelsystem.entity.Reservation;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 把组合查询条件拼成一条 SQL 的 WHERE 子句，未填写的条件不参与过滤
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    public static Specification<Reservation> matching(ReservationSearchRequest request) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (request.getStatuses() != null && !request.getStatuses().isEmpty()) {
+                predicates.add(root.get("status").in(request.getStatuses()));
+            }
+            // 按外键列比较，不连接宾客表和房间表
+            if (request.getGuestId() != null) {
+                predicates.add(cb.equal(root.get("guest").get("id"), request.getGuestId()));
+            }
+            if (request.getRoomId() != null) {
+                predicates.add(cb.equal(root.get("room").get("id"), request.getRoomId()));
+            }
+            if (request.getRoomType() != null && !request.getRoomType().isBlank()) {
+                predicates.add(cb.equal(root.join("room").get("roomType"), request.getRoomType()));
+            }
+            if (request.getCheckInFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("checkInDate"), request.getCheckInFrom()));
+            }
+            if (request.getCheckInTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("checkInDate"), request.getCheckInTo()));
+            }
+            if (request.getCheckOutFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("checkOutDate"), request.getCheckOutFrom()));
+            }
+            if (request.getCheckOutTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("checkOutDate"), request.getCheckOutTo()));
+            }
+            if (request.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("totalAmount"), request.getMinAmount()));
+            }
+            if (request.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("totalAmount"), request.getMaxAmount()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -1,17 +1,46 @@
 package com.hotelsystem.repository;
 
+import com.hotelsystem.dto.RoomDto;
 import com.hotelsystem.entity.Room;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoomRepository extends JpaRepository<Room, Long> {
+public interface RoomRepository extends JpaRepository<Room, Long>, RoomRepositoryCustom {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Room> findByRoomNumber(String roomNumber);
     List<Room> findByStatus(Room.RoomStatus status);
     List<Room> findByRoomType(String roomType);
     List<Room> findByIsActiveTrue();
     Boolean existsByRoomNumber(String roomNumber);
+
+    // 批量创建时一次查出已被占用的房间号
+    @Query("SELECT r.roomNumber FROM Room r WHERE r.roomNumber IN :roomNumbers")
+    List<String> findExistingRoomNumbers(@Param("roomNumbers") Collection<String> roomNumbers);
+
+    // 列表查询直接投影为 DTO，不产生受管实体和脏检查快照
+    String ROOM_DTO_SELECT = "SELECT new com.hotelsystem.dto.RoomDto(r.id, r.roomNumber, r.roomType, " +
+            "r.description, r.price, r.capacity, r.amenities, r.status, r.isActive, r.createdAt, r.updatedAt) " +
+            "FROM Room r";
+
+    @Query(ROOM_DTO_SELECT)
+    List<RoomDto> findAllDtos();
+
+    @Query(ROOM_DTO_SELECT + " WHERE r.status = :status")
+    List<RoomDto> findDtosByStatus(@Param("status") Room.RoomStatus status);
+
+    @Query(ROOM_DTO_SELECT + " WHERE r.roomType = :roomType")
+    List<RoomDto> findDtosByRoomType(@Param("roomType") String roomType);
+
+    @Query(ROOM_DTO_SELECT + " WHERE r.isActive = true")
+    List<RoomDto> findActiveDtos();
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.RoomDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.stream.Stream;
+
+class RoomRepositoryCustomImpl implements RoomRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<RoomDto> streamAllDtos() {
+        return StreamingQueries.stream(entityManager, RoomRepository.ROOM_DTO_SELECT, RoomDto.class);
+    }
+}
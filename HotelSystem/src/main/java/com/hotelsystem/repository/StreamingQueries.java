@@ -0,0 +1,35 @@
+package com.hotelsystem.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.stream.Stream;
+
+// 供流式输出的逐行查询。fetch size 按数据库决定：MySQL 驱动只有在 fetch size 为 Integer.MIN_VALUE 时
+// 才按行流式读取结果集（无需全局开启 useCursorFetch），其他数据库（如 loadtest / bench profile 的 H2）
+// 不接受负数，使用普通的批量大小
+final class StreamingQueries {
+
+    static final int DEFAULT_FETCH_SIZE = 500;
+
+    private StreamingQueries() {
+    }
+
+    // 调用方需在只读事务内消费并关闭；MySQL 上读完并关闭之前该连接不能执行其他语句，逐行回调里不要再访问数据库
+    static <T> Stream<T> stream(EntityManager entityManager, String jpql, Class<T> resultType) {
+        return entityManager.createQuery(jpql, resultType)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize(entityManager))
+                .getResultStream();
+    }
+
+    static int fetchSize(EntityManager entityManager) {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        return dialect instanceof MySQLDialect && !(dialect instanceof MariaDBDialect)
+                ? Integer.MIN_VALUE : DEFAULT_FETCH_SIZE;
+    }
+}
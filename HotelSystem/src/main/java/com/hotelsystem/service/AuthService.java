@@ -1,8 +1,11 @@
 package com.hotelsystem.service;
 
+import com.hotelsystem.config.PropertyContext;
+import com.hotelsystem.config.PropertyRegistry;
 import com.hotelsystem.dto.LoginRequest;
 import com.hotelsystem.dto.LoginResponse;
 import com.hotelsystem.entity.User;
+import com.hotelsystem.exception.ErrorCode;
 import com.hotelsystem.repository.UserRepository;
 import com.hotelsystem.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
@@ -16,20 +19,27 @@ public class AuthService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final PropertyRegistry propertyRegistry;
 
+    // 用户保存在各门店自己的数据库中，在所选门店下校验
     public LoginResponse login(LoginRequest loginRequest) {
-        User user = userRepository.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new RuntimeException("用户名或密码错误"));
+        String property = loginRequest.getProperty() != null
+                ? loginRequest.getProperty() : propertyRegistry.defaultProperty();
+        if (!propertyRegistry.isKnown(property)) {
+            throw ErrorCode.PROPERTY_NOT_FOUND.exception();
+        }
+        User user = PropertyContext.callWith(property, () -> userRepository.findByUsername(loginRequest.getUsername()))
+                .orElseThrow(ErrorCode.BAD_CREDENTIALS::exception);
 
         if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            throw new RuntimeException("用户名或密码错误");
+            throw ErrorCode.BAD_CREDENTIALS.exception();
         }
 
         if (!user.getIsActive()) {
-            throw new RuntimeException("用户已被禁用");
+            throw ErrorCode.USER_DISABLED.exception();
         }
 
-        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
-        return new LoginResponse(token, user.getUsername(), user.getRole().name(), user.getFullName());
+        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name(), property);
+        return new LoginResponse(token, user.getUsername(), user.getRole().name(), user.getFullName(), property);
     }
 }
@@ -1,27 +1,46 @@
 package com.hotelsystem.service;
 
+import com.hotelsystem.config.PropertyRegistry;
 import com.hotelsystem.dto.GuestDto;
+import com.hotelsystem.entity.CacheInvalidation;
 import com.hotelsystem.entity.Guest;
+import com.hotelsystem.exception.ErrorCode;
 import com.hotelsystem.repository.GuestRepository;
+import com.hotelsystem.service.invalidation.InvalidationBus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class GuestService {
 
     private final GuestRepository guestRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final InvalidationBus invalidationBus;
 
+    @Transactional(readOnly = true)
     public List<GuestDto> getAllGuests() {
-        return guestRepository.findAll().stream()
-                .map(GuestDto::fromEntity)
-                .collect(Collectors.toList());
+        return guestRepository.findAllDtos();
     }
 
+    // 逐行交给 action 处理，不在内存中汇总整个列表
+    @Transactional(readOnly = true)
+    public void streamAllGuests(Consumer<GuestDto> action) {
+        try (Stream<GuestDto> rows = guestRepository.streamAllDtos()) {
+            rows.forEach(action);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<GuestDto> getGuestById(Long id) {
         return guestRepository.findById(id)
                 .map(GuestDto::fromEntity);
@@ -30,22 +49,23 @@ public class GuestService {
     public GuestDto createGuest(GuestDto guestDto) {
         // 检查身份证号是否已存在
         if (guestRepository.existsByIdCardNumber(guestDto.getIdCardNumber())) {
-            throw new RuntimeException("身份证号已存在");
+            throw ErrorCode.ID_CARD_EXISTS.exception();
         }
 
         Guest guest = guestDto.toEntity();
         Guest savedGuest = guestRepository.save(guest);
+        invalidationBus.publish(CacheInvalidation.EntityType.GUEST, savedGuest.getId());
         return GuestDto.fromEntity(savedGuest);
     }
 
     public GuestDto updateGuest(Long id, GuestDto guestDto) {
         Guest existingGuest = guestRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("宾客不存在"));
+                .orElseThrow(ErrorCode.GUEST_NOT_FOUND::exception);
 
         // 检查身份证号是否被其他宾客使用
         if (!existingGuest.getIdCardNumber().equals(guestDto.getIdCardNumber()) &&
                 guestRepository.existsByIdCardNumber(guestDto.getIdCardNumber())) {
-            throw new RuntimeException("身份证号已被其他宾客使用");
+            throw ErrorCode.ID_CARD_TAKEN.exception();
         }
 
         existingGuest.setFullName(guestDto.getFullName());
@@ -59,30 +79,55 @@ public class GuestService {
         existingGuest.setSpecialRequests(guestDto.getSpecialRequests());
 
         Guest updatedGuest = guestRepository.save(existingGuest);
+        invalidationBus.publish(CacheInvalidation.EntityType.GUEST, id);
         return GuestDto.fromEntity(updatedGuest);
     }
 
     public void deleteGuest(Long id) {
         if (!guestRepository.existsById(id)) {
-            throw new RuntimeException("宾客不存在");
+            throw ErrorCode.GUEST_NOT_FOUND.exception();
         }
         guestRepository.deleteById(id);
+        invalidationBus.publish(CacheInvalidation.EntityType.GUEST, id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<GuestDto> getGuestByIdCardNumber(String idCardNumber) {
         return guestRepository.findByIdCardNumber(idCardNumber)
                 .map(GuestDto::fromEntity);
     }
 
+    @Transactional(readOnly = true)
     public List<GuestDto> searchGuestsByName(String name) {
-        return guestRepository.findByFullNameContainingIgnoreCase(name).stream()
-                .map(GuestDto::fromEntity)
-                .collect(Collectors.toList());
+        return guestRepository.findDtosByFullNameContaining(name);
     }
 
+    @Transactional(readOnly = true)
     public List<GuestDto> getGuestsByPhone(String phone) {
-        return guestRepository.findByPhone(phone).stream()
-                .map(GuestDto::fromEntity)
-                .collect(Collectors.toList());
+        return guestRepository.findDtosByPhone(phone);
+    }
+
+    // 在所有门店并行查找宾客（身份证号优先，其次电话、姓名），结果按门店汇总；
+    // 每个门店的查询在各自的线程和数据库连接上执行，这里不开启事务
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, List<GuestDto>> lookupGuestsAcrossProperties(String idCardNumber, String phone, String name) {
+        if (isBlank(idCardNumber) && isBlank(phone) && isBlank(name)) {
+            throw ErrorCode.GUEST_LOOKUP_CRITERIA_REQUIRED.exception();
+        }
+        return propertyRegistry.fanOut(property -> {
+            if (!isBlank(idCardNumber)) {
+                return guestRepository.findByIdCardNumber(idCardNumber)
+                        .map(guest -> List.of(GuestDto.fromEntity(guest)))
+                        .orElse(List.of());
+            }
+            if (!isBlank(phone)) {
+                return guestRepository.findDtosByPhone(phone);
+            }
+            return guestRepository.findDtosByFullNameContaining(name);
+        });
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.hotelsystem.service;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.dto.HousekeepingTaskDto;
+import com.hotelsystem.dto.RoomDto;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.HousekeepingTask;
+import com.hotelsystem.entity.Room;
+import com.hotelsystem.repository.HousekeepingTaskRepository;
+import com.hotelsystem.repository.ReservationRepository;
+import com.hotelsystem.repository.RoomRepository;
+import com.hotelsystem.service.housekeeping.HousekeepingQueue;
+import com.hotelsystem.service.housekeeping.HousekeepingWaiter;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import com.hotelsystem.service.search.RoomSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 房务清洁任务：退房或房间被置为清洁中时生成任务，房务员通过长轮询或 SSE 领取，
+// 完成后房间恢复为可用
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class HousekeepingService {
+
+    private static final Set<HousekeepingTask.TaskStatus> UNFINISHED = EnumSet.of(
+            HousekeepingTask.TaskStatus.PENDING, HousekeepingTask.TaskStatus.ASSIGNED);
+
+    private final HousekeepingTaskRepository housekeepingTaskRepository;
+    private final RoomRepository roomRepository;
+    private final ReservationRepository reservationRepository;
+    private final HousekeepingQueue housekeepingQueue;
+    private final RoomSearchIndex roomSearchIndex;
+    private final InvalidationBus invalidationBus;
+    private final PropertyRegistry propertyRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${hotel.housekeeping.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    // 逐个门店加载未完成的任务，每个门店在各自的事务中
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void start() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        propertyRegistry.forEach(property -> transactionTemplate.executeWithoutResult(status -> loadUnfinished()));
+    }
+
+    // 房间已不在清洁中的任务（如重启前已完成但未写回）直接取消
+    private void loadUnfinished() {
+        List<HousekeepingTask> unfinished = housekeepingTaskRepository.findByStatusIn(UNFINISHED);
+        Map<Long, Room> rooms = roomRepository.findAllById(unfinished.stream().map(HousekeepingTask::getRoomId).toList())
+                .stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        List<HousekeepingTask> open = new ArrayList<>();
+        for (HousekeepingTask task : unfinished) {
+            Room room = rooms.get(task.getRoomId());
+            if (room != null && room.getStatus() == Room.RoomStatus.CLEANING) {
+                open.add(task);
+            } else {
+                task.setStatus(HousekeepingTask.TaskStatus.CANCELLED);
+            }
+        }
+        housekeepingQueue.start(open);
+    }
+
+    // 退房：房间转为清洁中并生成清洁任务，由调用方的事务一并提交
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void roomCheckedOut(Room room) {
+        if (room.getStatus() != Room.RoomStatus.CLEANING) {
+            room.setStatus(Room.RoomStatus.CLEANING);
+            roomSearchIndex.upsertAfterCommit(List.of(RoomDto.fromEntity(room)));
+            invalidationBus.publish(CacheInvalidation.EntityType.ROOM, room.getId());
+        }
+        requestCleaning(room.getId(), room.getRoomNumber(), HousekeepingTask.TaskReason.CHECKOUT);
+    }
+
+    // 任务在调用方事务中写入，提交后才进入分配队列；该房间已有未完成任务时不重复生成
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestCleaning(Long roomId, String roomNumber, HousekeepingTask.TaskReason reason) {
+        if (housekeepingQueue.hasOpenTask(roomId)) {
+            return;
+        }
+        HousekeepingTask task = new HousekeepingTask();
+        task.setRoomId(roomId);
+        task.setRoomNumber(roomNumber);
+        task.setReason(reason);
+        task.setNextArrivalDate(reservationRepository.findNextArrivalDate(roomId, LocalDate.now()));
+        HousekeepingTask saved = housekeepingTaskRepository.save(task);
+        afterCommit(() -> housekeepingQueue.enqueue(saved));
+    }
+
+    // 新预订提交后，如该房间正等待清洁，按新的入住日期调整优先级
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void arrivalScheduled(Long roomId, LocalDate checkInDate) {
+        afterCommit(() -> housekeepingQueue.arrivalScheduled(roomId, checkInDate));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<HousekeepingTaskDto> getOpenTasks() {
+        return housekeepingQueue.openTasks();
+    }
+
+    // 长轮询领取下一个任务，超时返回空
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public DeferredResult<ApiResponse<HousekeepingTaskDto>> nextTask(String username, Duration wait) {
+        DeferredResult<ApiResponse<HousekeepingTaskDto>> result = new DeferredResult<>(wait.toMillis(),
+                () -> ApiResponse.success("暂无待清洁任务", null));
+        housekeepingQueue.addWaiter(new HousekeepingWaiter.LongPoll(username, result));
+        return result;
+    }
+
+    // SSE 连接每次收到一个任务，完成或退回后再推送下一个
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SseEmitter streamTasks(String username) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        housekeepingQueue.addWaiter(new HousekeepingWaiter.Stream(username, emitter));
+        return emitter;
+    }
+
+    public HousekeepingTaskDto completeTask(Long taskId, String username) {
+        HousekeepingTaskDto task = housekeepingQueue.assignedTo(taskId, username);
+        roomRepository.findById(task.getRoomId()).ifPresent(room -> {
+            if (room.getStatus() == Room.RoomStatus.CLEANING) {
+                room.setStatus(Room.RoomStatus.AVAILABLE);
+                roomSearchIndex.upsertAfterCommit(List.of(RoomDto.fromEntity(room)));
+                invalidationBus.publish(CacheInvalidation.EntityType.ROOM, room.getId());
+            }
+        });
+        afterCommit(() -> housekeepingQueue.complete(taskId));
+        task.setStatus(HousekeepingTask.TaskStatus.DONE);
+        return task;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public HousekeepingTaskDto releaseTask(Long taskId, String username) {
+        return housekeepingQueue.release(taskId, username);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,177 @@
+package com.hotelsystem.service;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.entity.IdempotencyKey;
+import com.hotelsystem.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+// 幂等请求的响应存储：执行前先在 idempotency_keys 表中按主键占位，集群内只有占位成功的请求执行，
+// 其他节点上的重复请求轮询该记录等待结果；最近的响应同时保存在有上限的内存 LRU 中，
+// 同一节点上的重复请求直接等待本节点先到请求的结果
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Duration pollInterval;
+    private final Map<String, StoredResponse> recent;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                            PropertyRegistry propertyRegistry,
+                            @Value("${hotel.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${hotel.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${hotel.idempotency.pending-timeout:5m}") Duration pendingTimeout,
+                            @Value("${hotel.idempotency.poll-interval:100ms}") Duration pollInterval) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.propertyRegistry = propertyRegistry;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+        this.pollInterval = pollInterval;
+        this.recent = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // 已完成请求的响应，过期的视为不存在
+    public Optional<StoredResponse> find(String keyHash) {
+        StoredResponse cached;
+        synchronized (recent) {
+            cached = recent.get(keyHash);
+        }
+        if (cached == null) {
+            cached = idempotencyKeyRepository.findById(keyHash)
+                    .filter(key -> key.getState() != IdempotencyKey.State.PENDING)
+                    .map(IdempotencyStore::toResponse)
+                    .orElse(null);
+            if (cached != null) {
+                remember(keyHash, cached);
+            }
+        }
+        if (cached == null || cached.createdAt().isBefore(LocalDateTime.now().minus(ttl))) {
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    // 在本节点登记为正在处理；返回 null 表示由调用方处理，否则返回本节点先到请求的结果
+    public CompletableFuture<StoredResponse> claim(String keyHash, CompletableFuture<StoredResponse> mine) {
+        return inFlight.putIfAbsent(keyHash, mine);
+    }
+
+    // 在数据库中按主键占位，返回写回结果时要用的令牌；键已被其他请求占用时返回 empty。
+    // 占位者超过 pending-timeout 仍未写回（节点宕机）或已有响应过期时，由本次请求接管
+    public Optional<String> reserve(String keyHash, String requestHash) {
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            idempotencyKeyRepository.insertPending(keyHash, requestHash, owner, now);
+            return Optional.of(owner);
+        } catch (DataIntegrityViolationException e) {
+            int taken = idempotencyKeyRepository.takeOver(keyHash, requestHash, owner, now,
+                    now.minus(pendingTimeout), now.minus(ttl));
+            return taken == 1 ? Optional.of(owner) : Optional.empty();
+        }
+    }
+
+    // 轮询其他节点占位的记录直到写回响应；记录被撤销（先到的请求失败）时返回 empty，由调用方重新竞争
+    public Optional<StoredResponse> awaitRemote(String keyHash, Duration timeout)
+            throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Optional<IdempotencyKey> key = idempotencyKeyRepository.findById(keyHash);
+            if (key.isEmpty()) {
+                return Optional.empty();
+            }
+            if (key.get().getState() != IdempotencyKey.State.PENDING) {
+                StoredResponse response = toResponse(key.get());
+                remember(keyHash, response);
+                return Optional.of(response);
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new TimeoutException();
+            }
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    // 写回占位记录；response 为 null 表示请求未产生可复用的响应，撤销占位让重试重新执行
+    public void complete(String keyHash, String owner, StoredResponse response) {
+        try {
+            int updated = response != null
+                    ? idempotencyKeyRepository.complete(keyHash, owner, response.status(),
+                    response.contentType(), response.body(), response.createdAt())
+                    : idempotencyKeyRepository.deletePending(keyHash, owner);
+            if (updated == 0) {
+                log.warn("幂等记录 {} 的占位已被其他请求接管，本次结果未写回", keyHash);
+            }
+        } catch (RuntimeException e) {
+            // 占位保留到 pending-timeout 后才能被接管，其间其他节点的重复请求返回 409
+            log.warn("写回幂等记录 {} 失败", keyHash, e);
+        }
+    }
+
+    // 唤醒本节点的等待者；response 为 null 时等待者自行重试
+    public void release(String keyHash, CompletableFuture<StoredResponse> mine, StoredResponse response) {
+        try {
+            if (response != null) {
+                remember(keyHash, response);
+            }
+        } finally {
+            inFlight.remove(keyHash, mine);
+            mine.complete(response);
+        }
+    }
+
+    // 定时清理各门店过期的记录
+    @Scheduled(fixedDelayString = "${hotel.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        propertyRegistry.forEach(property -> {
+            int purged = idempotencyKeyRepository.deleteCreatedBefore(cutoff);
+            if (purged > 0) {
+                log.info("门店 {} 已清理 {} 条过期的幂等记录", property, purged);
+            }
+        });
+        synchronized (recent) {
+            recent.values().removeIf(response -> response.createdAt().isBefore(cutoff));
+        }
+    }
+
+    private void remember(String keyHash, StoredResponse response) {
+        synchronized (recent) {
+            recent.put(keyHash, response);
+        }
+    }
+
+    private static StoredResponse toResponse(IdempotencyKey key) {
+        return new StoredResponse(key.getRequestHash(), key.getStatusCode(), key.getContentType(),
+                key.getBody(), key.getCreatedAt());
+    }
+
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body,
+                                 LocalDateTime createdAt) {
+    }
+}
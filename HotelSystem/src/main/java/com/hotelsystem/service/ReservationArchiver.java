@@ -0,0 +1,86 @@
+package com.hotelsystem.service;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.repository.ReservationRepository;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+// 把已离店、已取消且离店日期早于保留期的预订移入 reservations_archive，
+// 每批在独立事务中完成 复制 + 删除，热表只保留近期和进行中的预订
+@Component
+public class ReservationArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationArchiver.class);
+
+    private static final Set<Reservation.ReservationStatus> CLOSED = Set.of(
+            Reservation.ReservationStatus.CHECKED_OUT, Reservation.ReservationStatus.CANCELLED);
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PropertyRegistry propertyRegistry;
+    private final InvalidationBus invalidationBus;
+
+    @Value("${hotel.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${hotel.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    public ReservationArchiver(ReservationRepository reservationRepository,
+                               PlatformTransactionManager transactionManager,
+                               PropertyRegistry propertyRegistry,
+                               InvalidationBus invalidationBus) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.propertyRegistry = propertyRegistry;
+        this.invalidationBus = invalidationBus;
+    }
+
+    // 依次归档每个门店，返回本次归档的预订总数
+    @Scheduled(cron = "${hotel.archive.cron:0 30 3 * * *}")
+    public int archive() {
+        LocalDate cutoff = LocalDate.now().minusMonths(retentionMonths);
+        int[] total = new int[1];
+        propertyRegistry.forEach(property -> {
+            int archived = 0;
+            Integer moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                archived += moved != null ? moved : 0;
+            } while (moved != null && moved == chunkSize);
+
+            if (archived > 0) {
+                log.info("门店 {} 已归档 {} 条离店日期早于 {} 的预订", property, archived, cutoff);
+            }
+            total[0] += archived;
+        });
+        return total[0];
+    }
+
+    private int archiveChunk(LocalDate cutoff) {
+        List<Long> ids = reservationRepository.findArchivableIds(CLOSED, cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = reservationRepository.copyToArchive(ids);
+        int deleted = reservationRepository.deleteByIdIn(ids);
+        if (copied != ids.size() || deleted != ids.size()) {
+            throw new IllegalStateException("归档行数不一致: 选中 " + ids.size() + ", 复制 " + copied + ", 删除 " + deleted);
+        }
+        invalidationBus.publishAll(CacheInvalidation.EntityType.RESERVATION, ids);
+        return ids.size();
+    }
+}
@@ -1,52 +1,118 @@
 package com.hotelsystem.service;
 
 import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.dto.ReservationSearchRequest;
+import com.hotelsystem.dto.ReservationSearchResult;
+import com.hotelsystem.entity.CacheInvalidation;
 import com.hotelsystem.entity.Guest;
 import com.hotelsystem.entity.Reservation;
 import com.hotelsystem.entity.Room;
+import com.hotelsystem.exception.DomainException;
+import com.hotelsystem.exception.ErrorCode;
+import com.hotelsystem.metrics.ReservationCreateEvent;
+import com.hotelsystem.metrics.ReservationStepEvent;
 import com.hotelsystem.repository.GuestRepository;
+import com.hotelsystem.repository.ReservationArchiveRepository;
 import com.hotelsystem.repository.ReservationRepository;
+import com.hotelsystem.repository.ReservationSpecifications;
 import com.hotelsystem.repository.RoomRepository;
+import com.hotelsystem.service.availability.AvailabilityIndex;
+import com.hotelsystem.service.coalesce.Coalesced;
+import com.hotelsystem.service.invalidation.InvalidationBus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class ReservationService {
 
     private final ReservationRepository reservationRepository;
+    private final ReservationArchiveRepository reservationArchiveRepository;
     private final GuestRepository guestRepository;
     private final RoomRepository roomRepository;
+    private final OutboxService outboxService;
+    private final HousekeepingService housekeepingService;
+    private final InvalidationBus invalidationBus;
+    private final AvailabilityIndex availabilityIndex;
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getAllReservations() {
-        return reservationRepository.findAll().stream()
-                .map(ReservationDto::fromEntity)
-                .collect(Collectors.toList());
+        return reservationRepository.findAllDtos();
     }
 
+    // 逐行交给 action 处理，不在内存中汇总整个列表
+    @Transactional(readOnly = true)
+    public void streamAllReservations(Consumer<ReservationDto> action) {
+        try (Stream<ReservationDto> rows = reservationRepository.streamAllDtos()) {
+            rows.forEach(action);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<ReservationDto> getReservationById(Long id) {
-        return reservationRepository.findById(id)
+        Optional<ReservationDto> reservation = reservationRepository.findById(id)
                 .map(ReservationDto::fromEntity);
+        return reservation.isPresent() ? reservation : reservationArchiveRepository.findDtoById(id);
     }
 
+    // 整体和各步骤分别记录飞行记录事件，便于区分延迟来自哪一步
     public ReservationDto createReservation(ReservationDto reservationDto) {
+        ReservationCreateEvent event = new ReservationCreateEvent();
+        event.begin();
+        String outcome = "FAILED";
+        try {
+            ReservationDto result = doCreateReservation(reservationDto);
+            outcome = "CREATED";
+            return result;
+        } catch (DomainException e) {
+            outcome = e.getErrorCode().name();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.guestId = reservationDto.getGuestId() != null ? reservationDto.getGuestId() : 0;
+                event.roomId = reservationDto.getRoomId() != null ? reservationDto.getRoomId() : 0;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private ReservationDto doCreateReservation(ReservationDto reservationDto) {
         // 验证宾客是否存在
+        ReservationStepEvent step = ReservationStepEvent.begin("guestLookup");
         Guest guest = guestRepository.findById(reservationDto.getGuestId())
-                .orElseThrow(() -> new RuntimeException("宾客不存在"));
+                .orElseThrow(ErrorCode.GUEST_NOT_FOUND::exception);
+        step.commit();
 
         // 验证房间是否存在
+        step = ReservationStepEvent.begin("roomLookup");
         Room room = roomRepository.findById(reservationDto.getRoomId())
-                .orElseThrow(() -> new RuntimeException("房间不存在"));
+                .orElseThrow(ErrorCode.ROOM_NOT_FOUND::exception);
+        step.commit();
 
         // 检查房间在指定日期是否可用
-        if (!isRoomAvailable(room.getId(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate())) {
-            throw new RuntimeException("房间在指定日期不可用");
+        step = ReservationStepEvent.begin("conflictCheck");
+        boolean available = isRoomAvailable(room.getId(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate());
+        step.commit();
+        if (!available) {
+            throw ErrorCode.ROOM_UNAVAILABLE.exception();
         }
 
         Reservation reservation = reservationDto.toEntity();
@@ -56,7 +122,7 @@ public class ReservationService {
         // 计算总金额（简化版：天数 × 房间价格）
         long days = reservationDto.getCheckInDate().until(reservationDto.getCheckOutDate()).getDays();
         if (days <= 0) {
-            throw new RuntimeException("离店日期必须晚于入住日期");
+            throw ErrorCode.INVALID_STAY_DATES.exception();
         }
 
         if (reservation.getTotalAmount() == null) {
@@ -64,21 +130,31 @@ public class ReservationService {
             reservation.setTotalAmount(totalAmount);
         }
 
+        step = ReservationStepEvent.begin("save");
         Reservation savedReservation = reservationRepository.save(reservation);
-        return ReservationDto.fromEntity(savedReservation);
+        ReservationDto result = ReservationDto.fromEntity(savedReservation);
+        step.commit();
+
+        step = ReservationStepEvent.begin("outbox");
+        outboxService.record("Reservation", result.getId(), "RESERVATION_CREATED", result);
+        invalidationBus.publish(CacheInvalidation.EntityType.RESERVATION, result.getId());
+        availabilityIndex.updateAfterCommit(result);
+        step.commit();
+        housekeepingService.arrivalScheduled(room.getId(), result.getCheckInDate());
+        return result;
     }
 
     public ReservationDto updateReservation(Long id, ReservationDto reservationDto) {
         Reservation existingReservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("预订不存在"));
+                .orElseThrow(ErrorCode.RESERVATION_NOT_FOUND::exception);
 
         // 验证宾客是否存在
         Guest guest = guestRepository.findById(reservationDto.getGuestId())
-                .orElseThrow(() -> new RuntimeException("宾客不存在"));
+                .orElseThrow(ErrorCode.GUEST_NOT_FOUND::exception);
 
         // 验证房间是否存在
         Room room = roomRepository.findById(reservationDto.getRoomId())
-                .orElseThrow(() -> new RuntimeException("房间不存在"));
+                .orElseThrow(ErrorCode.ROOM_NOT_FOUND::exception);
 
         // 如果日期或房间有变化，检查房间可用性
         if (!existingReservation.getRoom().getId().equals(reservationDto.getRoomId()) ||
@@ -86,10 +162,13 @@ public class ReservationService {
                 !existingReservation.getCheckOutDate().equals(reservationDto.getCheckOutDate())) {
 
             if (!isRoomAvailable(room.getId(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate(), id)) {
-                throw new RuntimeException("房间在指定日期不可用");
+                throw ErrorCode.ROOM_UNAVAILABLE.exception();
             }
         }
 
+        boolean checkingOut = existingReservation.getStatus() != Reservation.ReservationStatus.CHECKED_OUT
+                && reservationDto.getStatus() == Reservation.ReservationStatus.CHECKED_OUT;
+
         existingReservation.setGuest(guest);
         existingReservation.setRoom(room);
         existingReservation.setCheckInDate(reservationDto.getCheckInDate());
@@ -101,45 +180,109 @@ public class ReservationService {
         existingReservation.setSpecialRequests(reservationDto.getSpecialRequests());
 
         Reservation updatedReservation = reservationRepository.save(existingReservation);
-        return ReservationDto.fromEntity(updatedReservation);
+        ReservationDto result = ReservationDto.fromEntity(updatedReservation);
+        outboxService.record("Reservation", result.getId(), "RESERVATION_UPDATED", result);
+        invalidationBus.publish(CacheInvalidation.EntityType.RESERVATION, id);
+        availabilityIndex.updateAfterCommit(result);
+
+        // 退房后房间进入清洁流程
+        if (checkingOut) {
+            housekeepingService.roomCheckedOut(room);
+        }
+        return result;
     }
 
     public void deleteReservation(Long id) {
         if (!reservationRepository.existsById(id)) {
-            throw new RuntimeException("预订不存在");
+            throw ErrorCode.RESERVATION_NOT_FOUND.exception();
         }
         reservationRepository.deleteById(id);
+        outboxService.record("Reservation", id, "RESERVATION_DELETED", Map.of("id", id));
+        invalidationBus.publish(CacheInvalidation.EntityType.RESERVATION, id);
+        availabilityIndex.removeAfterCommit(id);
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsByGuestId(Long guestId) {
-        return reservationRepository.findByGuestId(guestId).stream()
-                .map(ReservationDto::fromEntity)
-                .collect(Collectors.toList());
+        return merge(reservationRepository.findDtosByGuestId(guestId),
+                reservationArchiveRepository.findDtosByGuestId(guestId));
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsByRoomId(Long roomId) {
-        return reservationRepository.findByRoomId(roomId).stream()
-                .map(ReservationDto::fromEntity)
-                .collect(Collectors.toList());
+        return reservationRepository.findDtosByRoomId(roomId);
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsByStatus(Reservation.ReservationStatus status) {
-        return reservationRepository.findByStatus(status).stream()
-                .map(ReservationDto::fromEntity)
-                .collect(Collectors.toList());
+        return reservationRepository.findDtosByStatus(status);
+    }
+
+    // 组合条件分页查询，只查当前预订表；同一排序值下按 id 保证翻页稳定
+    @Transactional(readOnly = true)
+    public ReservationSearchResult searchReservations(ReservationSearchRequest request) {
+        if (request.getCheckInFrom() != null && request.getCheckInTo() != null
+                && request.getCheckInFrom().isAfter(request.getCheckInTo())) {
+            throw ErrorCode.INVALID_CHECK_IN_RANGE.exception();
+        }
+        if (request.getCheckOutFrom() != null && request.getCheckOutTo() != null
+                && request.getCheckOutFrom().isAfter(request.getCheckOutTo())) {
+            throw ErrorCode.INVALID_CHECK_OUT_RANGE.exception();
+        }
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw ErrorCode.INVALID_AMOUNT_RANGE.exception();
+        }
+
+        String sort = request.getSort();
+        boolean descending = sort.startsWith("-");
+        String property = descending ? sort.substring(1) : sort;
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        PageRequest pageRequest = PageRequest.of(request.getPage(), request.getSize(),
+                Sort.by(direction, property).and(Sort.by(direction, "id")));
+
+        Page<Reservation> page = reservationRepository.findAll(ReservationSpecifications.matching(request), pageRequest);
+        return new ReservationSearchResult(page.getTotalElements(), request.getPage(), request.getSize(),
+                page.map(ReservationDto::fromEntity).getContent());
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsByCheckInDateRange(LocalDate start, LocalDate end) {
-        return reservationRepository.findByCheckInDateBetween(start, end).stream()
-                .map(ReservationDto::fromEntity)
-                .collect(Collectors.toList());
+        return reservationRepository.findDtosByCheckInDateBetween(start, end);
+    }
+
+    // 导出包含已归档的历史预订
+    @Transactional(readOnly = true)
+    public List<ReservationDto> exportReservations(LocalDate start, LocalDate end) {
+        return merge(reservationRepository.findDtosByCheckInDateBetween(start, end),
+                reservationArchiveRepository.findDtosByCheckInDateBetween(start, end));
+    }
+
+    // 合并热表与归档表的结果，按入住日期排序；两次查询在同一个只读事务中，
+    // 归档任务并发搬移的行仍可能在读已提交隔离级别下出现两次，按ID去重
+    private static List<ReservationDto> merge(List<ReservationDto> current, List<ReservationDto> archived) {
+        if (archived.isEmpty()) {
+            return current;
+        }
+        Map<Long, ReservationDto> byId = new LinkedHashMap<>();
+        archived.forEach(reservation -> byId.put(reservation.getId(), reservation));
+        current.forEach(reservation -> byId.put(reservation.getId(), reservation));
+        List<ReservationDto> merged = new ArrayList<>(byId.values());
+        merged.sort(Comparator.comparing(ReservationDto::getCheckInDate).thenComparing(ReservationDto::getId));
+        return merged;
     }
 
     private boolean isRoomAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
         return isRoomAvailable(roomId, checkIn, checkOut, null);
     }
 
+    // 内存索引中已有冲突时直接拒绝，不查数据库；其他节点刚取消的预订要等下一轮失效消息（poll-interval）
+    // 才移出索引，失效总线停滞时索引不参与判断
     private boolean isRoomAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut, Long excludeReservationId) {
+        if (availabilityIndex.hasConflict(roomId, checkIn, checkOut, excludeReservationId)) {
+            return false;
+        }
         List<Reservation> conflictingReservations = reservationRepository
                 .findConflictingReservations(roomId, checkIn, checkOut, excludeReservationId);
         return conflictingReservations.isEmpty();
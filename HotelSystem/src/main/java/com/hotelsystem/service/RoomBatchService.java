@@ -0,0 +1,369 @@
+package com.hotelsystem.service;
+
+import com.hotelsystem.audit.AuditAction;
+import com.hotelsystem.audit.AuditEntityType;
+import com.hotelsystem.audit.AuditJournal;
+import com.hotelsystem.dto.RoomBatchUpdateRequest;
+import com.hotelsystem.dto.RoomDto;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.HousekeepingTask;
+import com.hotelsystem.entity.Room;
+import com.hotelsystem.exception.ErrorCode;
+import com.hotelsystem.repository.RoomRepository;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import com.hotelsystem.service.search.RoomSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 批量开房和批量改价：插入和逐条更新走 JDBC 批处理，按条件更新是一条 UPDATE 语句。
+// 这些写入绕过了 Hibernate 的二级缓存和审计监听器，所以在提交后统一失效一次房间缓存并补写审计记录
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class RoomBatchService {
+
+    private static final String INSERT_SQL = "INSERT INTO rooms (room_number, room_type, description, price, " +
+            "capacity, amenities, status, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 参数为 null 的列保持原值
+    private static final String UPDATE_SQL = "UPDATE rooms SET room_type = COALESCE(?, room_type), " +
+            "description = COALESCE(?, description), price = COALESCE(?, price), " +
+            "capacity = COALESCE(?, capacity), amenities = COALESCE(?, amenities), " +
+            "status = COALESCE(?, status), is_active = COALESCE(?, is_active), updated_at = ? WHERE id = ?";
+
+    private final RoomRepository roomRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditJournal auditJournal;
+    private final RoomSearchIndex roomSearchIndex;
+    private final HousekeepingService housekeepingService;
+    private final InvalidationBus invalidationBus;
+
+    public List<RoomDto> createRooms(List<RoomDto> rooms) {
+        Set<String> roomNumbers = new HashSet<>();
+        for (RoomDto room : rooms) {
+            if (!roomNumbers.add(room.getRoomNumber())) {
+                throw ErrorCode.BATCH_DUPLICATE_ROOM_NUMBER.exception(room.getRoomNumber());
+            }
+        }
+        List<String> existing = roomRepository.findExistingRoomNumbers(roomNumbers);
+        if (!existing.isEmpty()) {
+            throw ErrorCode.ROOM_NUMBER_EXISTS.exception(String.join(", ", existing));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<RoomDto> created = new ArrayList<>(rooms.size());
+        for (RoomDto room : rooms) {
+            // 经由 toEntity 补齐状态、启用标记的默认值，与单个创建保持一致
+            RoomDto dto = RoomDto.fromEntity(room.toEntity());
+            dto.setCreatedAt(now);
+            dto.setUpdatedAt(now);
+            created.add(dto);
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RoomDto room = created.get(i);
+                        ps.setString(1, room.getRoomNumber());
+                        ps.setString(2, room.getRoomType());
+                        ps.setString(3, room.getDescription());
+                        ps.setBigDecimal(4, room.getPrice());
+                        ps.setInt(5, room.getCapacity());
+                        ps.setString(6, room.getAmenities());
+                        ps.setString(7, room.getStatus().name());
+                        ps.setBoolean(8, room.getIsActive());
+                        ps.setTimestamp(9, Timestamp.valueOf(now));
+                        ps.setTimestamp(10, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return created.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < created.size(); i++) {
+            created.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+
+        afterCommit(() -> created.forEach(room -> auditJournal.append(
+                AuditEntityType.ROOM, room.getId(), AuditAction.INSERT, insertChanges(room))));
+        roomSearchIndex.upsertAfterCommit(created);
+        invalidationBus.publishAll(CacheInvalidation.EntityType.ROOM, created.stream().map(RoomDto::getId).toList());
+        return created;
+    }
+
+    // 返回实际更新的房间数
+    public int updateRooms(RoomBatchUpdateRequest request) {
+        boolean perRoom = request.getRooms() != null && !request.getRooms().isEmpty();
+        boolean bySelector = request.getSelector() != null && request.getChanges() != null;
+        if (perRoom == bySelector) {
+            throw ErrorCode.BATCH_REQUEST_EMPTY.exception();
+        }
+        return perRoom ? updateEach(request.getRooms()) : updateMatching(request.getSelector(), request.getChanges());
+    }
+
+    private int updateEach(List<RoomBatchUpdateRequest.Item> items) {
+        Map<Long, RoomBatchUpdateRequest.Changes> changesById = new LinkedHashMap<>();
+        for (RoomBatchUpdateRequest.Item item : items) {
+            if (changesById.put(item.getId(), item.getChanges()) != null) {
+                throw ErrorCode.BATCH_DUPLICATE_ROOM_ID.exception(item.getId());
+            }
+        }
+
+        Map<Long, RoomDto> before = lockRooms((cb, root) -> root.get("id").in(changesById.keySet()));
+        for (Long id : changesById.keySet()) {
+            if (!before.containsKey(id)) {
+                throw ErrorCode.ROOM_NOT_FOUND.exception(id);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(changesById.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RoomBatchUpdateRequest.Changes changes = changesById.get(ids.get(i));
+                ps.setString(1, changes.getRoomType());
+                ps.setString(2, changes.getDescription());
+                ps.setBigDecimal(3, changes.getPrice());
+                ps.setObject(4, changes.getCapacity(), Types.INTEGER);
+                ps.setString(5, changes.getAmenities());
+                ps.setString(6, changes.getStatus() != null ? changes.getStatus().name() : null);
+                ps.setObject(7, changes.getIsActive(), Types.BOOLEAN);
+                ps.setTimestamp(8, now);
+                ps.setLong(9, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+
+        changesById.forEach((id, changes) -> requestCleaningIfNeeded(before.get(id), changes));
+        afterCommit(() -> changesById.forEach((id, changes) -> auditUpdate(before.get(id), changes)));
+        roomSearchIndex.upsertAfterCommit(ids.stream()
+                .map(id -> applied(before.get(id), changesById.get(id), now.toLocalDateTime()))
+                .toList());
+        invalidationBus.publishAll(CacheInvalidation.EntityType.ROOM, ids);
+        return ids.size();
+    }
+
+    private int updateMatching(RoomBatchUpdateRequest.Selector selector, RoomBatchUpdateRequest.Changes changes) {
+        if (isEmpty(selector)) {
+            throw ErrorCode.BATCH_SELECTOR_EMPTY.exception();
+        }
+        if (isEmpty(changes)) {
+            throw ErrorCode.BATCH_CHANGES_EMPTY.exception();
+        }
+
+        Map<Long, RoomDto> before = lockRooms((cb, root) -> matches(cb, root, selector));
+        if (before.isEmpty()) {
+            return 0;
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Room> update = cb.createCriteriaUpdate(Room.class);
+        Root<Room> root = update.from(Room.class);
+        setIfPresent(update, "roomType", changes.getRoomType());
+        setIfPresent(update, "description", changes.getDescription());
+        setIfPresent(update, "price", changes.getPrice());
+        setIfPresent(update, "capacity", changes.getCapacity());
+        setIfPresent(update, "amenities", changes.getAmenities());
+        setIfPresent(update, "status", changes.getStatus());
+        setIfPresent(update, "isActive", changes.getIsActive());
+        LocalDateTime now = LocalDateTime.now();
+        update.set("updatedAt", now);
+        update.where(matches(cb, root, selector));
+        int updated = entityManager.createQuery(update).executeUpdate();
+
+        before.values().forEach(room -> requestCleaningIfNeeded(room, changes));
+        afterCommit(() -> before.values().forEach(room -> auditUpdate(room, changes)));
+        roomSearchIndex.upsertAfterCommit(before.values().stream()
+                .map(room -> applied(room, changes, now))
+                .toList());
+        invalidationBus.publishAll(CacheInvalidation.EntityType.ROOM, before.keySet());
+        return updated;
+    }
+
+    // 被置为清洁中的房间生成清洁任务
+    private void requestCleaningIfNeeded(RoomDto before, RoomBatchUpdateRequest.Changes changes) {
+        if (changes.getStatus() == Room.RoomStatus.CLEANING && before.getStatus() != Room.RoomStatus.CLEANING) {
+            housekeepingService.requestCleaning(before.getId(), before.getRoomNumber(),
+                    HousekeepingTask.TaskReason.STATUS_CHANGE);
+        }
+    }
+
+    // 锁定并读取将被修改的房间，用于存在性校验和审计中的旧值
+    private Map<Long, RoomDto> lockRooms(BiFunction<CriteriaBuilder, Root<Room>, Predicate> condition) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RoomDto> query = cb.createQuery(RoomDto.class);
+        Root<Room> root = query.from(Room.class);
+        query.select(cb.construct(RoomDto.class, root.get("id"), root.get("roomNumber"), root.get("roomType"),
+                root.get("description"), root.get("price"), root.get("capacity"), root.get("amenities"),
+                root.get("status"), root.get("isActive"), root.get("createdAt"), root.get("updatedAt")));
+        query.where(condition.apply(cb, root));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultStream()
+                .collect(Collectors.toMap(RoomDto::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static Predicate matches(CriteriaBuilder cb, Root<Room> root, RoomBatchUpdateRequest.Selector selector) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (selector.getIds() != null && !selector.getIds().isEmpty()) {
+            predicates.add(root.get("id").in(selector.getIds()));
+        }
+        if (selector.getRoomType() != null) {
+            predicates.add(cb.equal(root.get("roomType"), selector.getRoomType()));
+        }
+        if (selector.getStatus() != null) {
+            predicates.add(cb.equal(root.get("status"), selector.getStatus()));
+        }
+        if (selector.getIsActive() != null) {
+            predicates.add(cb.equal(root.get("isActive"), selector.getIsActive()));
+        }
+        if (selector.getRoomNumberPrefix() != null) {
+            predicates.add(cb.like(root.get("roomNumber"), escapeLike(selector.getRoomNumberPrefix()) + "%", '\\'));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    private static <T> void setIfPresent(CriteriaUpdate<Room> update, String attribute, T value) {
+        if (value != null) {
+            update.set(attribute, value);
+        }
+    }
+
+    private static boolean isEmpty(RoomBatchUpdateRequest.Selector selector) {
+        return (selector.getIds() == null || selector.getIds().isEmpty())
+                && selector.getRoomType() == null
+                && selector.getStatus() == null
+                && selector.getIsActive() == null
+                && (selector.getRoomNumberPrefix() == null || selector.getRoomNumberPrefix().isEmpty());
+    }
+
+    private static boolean isEmpty(RoomBatchUpdateRequest.Changes changes) {
+        return changes.getRoomType() == null
+                && changes.getDescription() == null
+                && changes.getPrice() == null
+                && changes.getCapacity() == null
+                && changes.getAmenities() == null
+                && changes.getStatus() == null
+                && changes.getIsActive() == null;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // 提交后执行：补写审计记录，并整体失效一次房间实体缓存和查询缓存
+    private void afterCommit(Runnable audit) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+                cache.evict(Room.class);
+                cache.evictQueryRegions();
+                audit.run();
+            }
+        });
+    }
+
+    private void auditUpdate(RoomDto before, RoomBatchUpdateRequest.Changes changes) {
+        Map<String, Object[]> diff = new LinkedHashMap<>();
+        putIfChanged(diff, "roomType", before.getRoomType(), changes.getRoomType());
+        putIfChanged(diff, "description", before.getDescription(), changes.getDescription());
+        putIfChanged(diff, "price", before.getPrice(), changes.getPrice());
+        putIfChanged(diff, "capacity", before.getCapacity(), changes.getCapacity());
+        putIfChanged(diff, "amenities", before.getAmenities(), changes.getAmenities());
+        putIfChanged(diff, "status", before.getStatus(), changes.getStatus());
+        putIfChanged(diff, "isActive", before.getIsActive(), changes.getIsActive());
+        if (!diff.isEmpty()) {
+            auditJournal.append(AuditEntityType.ROOM, before.getId(), AuditAction.UPDATE, diff);
+        }
+    }
+
+    private static void putIfChanged(Map<String, Object[]> diff, String name, Object before, Object after) {
+        if (after == null) {
+            return;
+        }
+        boolean same = before instanceof BigDecimal a && after instanceof BigDecimal b
+                ? a.compareTo(b) == 0
+                : Objects.equals(before, after);
+        if (!same) {
+            diff.put(name, new Object[]{before, after});
+        }
+    }
+
+    // 更新后的房间内容，用于刷新搜索索引
+    private static RoomDto applied(RoomDto before, RoomBatchUpdateRequest.Changes changes, LocalDateTime now) {
+        return new RoomDto(before.getId(), before.getRoomNumber(),
+                valueOr(changes.getRoomType(), before.getRoomType()),
+                valueOr(changes.getDescription(), before.getDescription()),
+                valueOr(changes.getPrice(), before.getPrice()),
+                valueOr(changes.getCapacity(), before.getCapacity()),
+                valueOr(changes.getAmenities(), before.getAmenities()),
+                valueOr(changes.getStatus(), before.getStatus()),
+                valueOr(changes.getIsActive(), before.getIsActive()),
+                before.getCreatedAt(), now);
+    }
+
+    private static <T> T valueOr(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static Map<String, Object[]> insertChanges(RoomDto room) {
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        changes.put("roomNumber", new Object[]{null, room.getRoomNumber()});
+        changes.put("roomType", new Object[]{null, room.getRoomType()});
+        changes.put("description", new Object[]{null, room.getDescription()});
+        changes.put("price", new Object[]{null, room.getPrice()});
+        changes.put("capacity", new Object[]{null, room.getCapacity()});
+        changes.put("amenities", new Object[]{null, room.getAmenities()});
+        changes.put("status", new Object[]{null, room.getStatus()});
+        changes.put("isActive", new Object[]{null, room.getIsActive()});
+        return changes;
+    }
+}
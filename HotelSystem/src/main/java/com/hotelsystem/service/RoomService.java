@@ -1,27 +1,50 @@
 package com.hotelsystem.service;
 
 import com.hotelsystem.dto.RoomDto;
+import com.hotelsystem.dto.RoomSearchRequest;
+import com.hotelsystem.dto.RoomSearchResult;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.HousekeepingTask;
 import com.hotelsystem.entity.Room;
+import com.hotelsystem.exception.ErrorCode;
 import com.hotelsystem.repository.RoomRepository;
+import com.hotelsystem.service.coalesce.Coalesced;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import com.hotelsystem.service.search.RoomSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomSearchIndex roomSearchIndex;
+    private final HousekeepingService housekeepingService;
+    private final InvalidationBus invalidationBus;
 
+    @Transactional(readOnly = true)
     public List<RoomDto> getAllRooms() {
-        return roomRepository.findAll().stream()
-                .map(RoomDto::fromEntity)
-                .collect(Collectors.toList());
+        return roomRepository.findAllDtos();
     }
 
+    // 逐行交给 action 处理，不在内存中汇总整个列表
+    @Transactional(readOnly = true)
+    public void streamAllRooms(Consumer<RoomDto> action) {
+        try (Stream<RoomDto> rows = roomRepository.streamAllDtos()) {
+            rows.forEach(action);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<RoomDto> getRoomById(Long id) {
         return roomRepository.findById(id)
                 .map(RoomDto::fromEntity);
@@ -29,22 +52,28 @@ public class RoomService {
 
     public RoomDto createRoom(RoomDto roomDto) {
         if (roomRepository.existsByRoomNumber(roomDto.getRoomNumber())) {
-            throw new RuntimeException("房间号已存在");
+            throw ErrorCode.ROOM_NUMBER_EXISTS.exception();
         }
         Room room = roomDto.toEntity();
         Room savedRoom = roomRepository.save(room);
-        return RoomDto.fromEntity(savedRoom);
+        RoomDto created = RoomDto.fromEntity(savedRoom);
+        roomSearchIndex.upsertAfterCommit(List.of(created));
+        invalidationBus.publish(CacheInvalidation.EntityType.ROOM, created.getId());
+        return created;
     }
 
     public RoomDto updateRoom(Long id, RoomDto roomDto) {
         Room existingRoom = roomRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("房间不存在"));
+                .orElseThrow(ErrorCode.ROOM_NOT_FOUND::exception);
 
         if (!existingRoom.getRoomNumber().equals(roomDto.getRoomNumber()) &&
                 roomRepository.existsByRoomNumber(roomDto.getRoomNumber())) {
-            throw new RuntimeException("房间号已被其他房间使用");
+            throw ErrorCode.ROOM_NUMBER_TAKEN.exception();
         }
 
+        boolean needsCleaning = existingRoom.getStatus() != Room.RoomStatus.CLEANING
+                && roomDto.getStatus() == Room.RoomStatus.CLEANING;
+
         existingRoom.setRoomNumber(roomDto.getRoomNumber());
         existingRoom.setRoomType(roomDto.getRoomType());
         existingRoom.setDescription(roomDto.getDescription());
@@ -55,31 +84,45 @@ public class RoomService {
         existingRoom.setIsActive(roomDto.getIsActive());
 
         Room updatedRoom = roomRepository.save(existingRoom);
-        return RoomDto.fromEntity(updatedRoom);
+        RoomDto updated = RoomDto.fromEntity(updatedRoom);
+        roomSearchIndex.upsertAfterCommit(List.of(updated));
+        invalidationBus.publish(CacheInvalidation.EntityType.ROOM, id);
+        if (needsCleaning) {
+            housekeepingService.requestCleaning(updated.getId(), updated.getRoomNumber(),
+                    HousekeepingTask.TaskReason.STATUS_CHANGE);
+        }
+        return updated;
     }
 
     public void deleteRoom(Long id) {
         if (!roomRepository.existsById(id)) {
-            throw new RuntimeException("房间不存在");
+            throw ErrorCode.ROOM_NOT_FOUND.exception();
         }
         roomRepository.deleteById(id);
+        roomSearchIndex.removeAfterCommit(id);
+        invalidationBus.publish(CacheInvalidation.EntityType.ROOM, id);
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<RoomDto> getAvailableRooms() {
-        return roomRepository.findByStatus(Room.RoomStatus.AVAILABLE).stream()
-                .map(RoomDto::fromEntity)
-                .collect(Collectors.toList());
+        return roomRepository.findDtosByStatus(Room.RoomStatus.AVAILABLE);
     }
 
+    @Transactional(readOnly = true)
     public List<RoomDto> getRoomsByType(String roomType) {
-        return roomRepository.findByRoomType(roomType).stream()
-                .map(RoomDto::fromEntity)
-                .collect(Collectors.toList());
+        return roomRepository.findDtosByRoomType(roomType);
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<RoomDto> getActiveRooms() {
-        return roomRepository.findByIsActiveTrue().stream()
-                .map(RoomDto::fromEntity)
-                .collect(Collectors.toList());
+        return roomRepository.findActiveDtos();
+    }
+
+    // 由内存索引响应，不访问数据库
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RoomSearchResult searchRooms(RoomSearchRequest request) {
+        return roomSearchIndex.search(request);
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package com.hotelsystem.service;
 
 import com.hotelsystem.dto.UserDto;
+import com.hotelsystem.entity.CacheInvalidation;
 import com.hotelsystem.entity.User;
+import com.hotelsystem.exception.ErrorCode;
 import com.hotelsystem.repository.UserRepository;
+import com.hotelsystem.service.invalidation.InvalidationBus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final InvalidationBus invalidationBus;
 
     // 获取所有用户
     public List<UserDto> getAllUsers() {
@@ -36,40 +40,41 @@ public class UserService {
     public UserDto createUser(UserDto userDto) {
         // 检查用户名是否已存在
         if (userRepository.existsByUsername(userDto.getUsername())) {
-            throw new RuntimeException("用户名已存在");
+            throw ErrorCode.USERNAME_EXISTS.exception();
         }
 
         // 检查邮箱是否已存在
         if (userRepository.existsByEmail(userDto.getEmail())) {
-            throw new RuntimeException("邮箱已存在");
+            throw ErrorCode.EMAIL_EXISTS.exception();
         }
 
         User user = userDto.toEntity();
         if (userDto.getPassword() != null && !userDto.getPassword().trim().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDto.getPassword()));
         } else {
-            throw new RuntimeException("密码不能为空");
+            throw ErrorCode.PASSWORD_REQUIRED.exception();
         }
 
         User savedUser = userRepository.save(user);
+        invalidationBus.publish(CacheInvalidation.EntityType.USER, savedUser.getId());
         return UserDto.fromEntity(savedUser);
     }
 
     // 更新用户
     public UserDto updateUser(Long id, UserDto userDto) {
         User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
+                .orElseThrow(ErrorCode.USER_NOT_FOUND::exception);
 
         // 检查用户名是否被其他用户使用
         if (!existingUser.getUsername().equals(userDto.getUsername()) &&
                 userRepository.existsByUsername(userDto.getUsername())) {
-            throw new RuntimeException("用户名已被其他用户使用");
+            throw ErrorCode.USERNAME_TAKEN.exception();
         }
 
         // 检查邮箱是否被其他用户使用
         if (!existingUser.getEmail().equals(userDto.getEmail()) &&
                 userRepository.existsByEmail(userDto.getEmail())) {
-            throw new RuntimeException("邮箱已被其他用户使用");
+            throw ErrorCode.EMAIL_TAKEN.exception();
         }
 
         existingUser.setUsername(userDto.getUsername());
@@ -85,15 +90,17 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(existingUser);
+        invalidationBus.publish(CacheInvalidation.EntityType.USER, id);
         return UserDto.fromEntity(updatedUser);
     }
 
     // 删除用户
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
-            throw new RuntimeException("用户不存在");
+            throw ErrorCode.USER_NOT_FOUND.exception();
         }
         userRepository.deleteById(id);
+        invalidationBus.publish(CacheInvalidation.EntityType.USER, id);
     }
 
     // 根据用户名查找用户
@@ -105,26 +112,28 @@ public class UserService {
     // 更改用户密码
     public void changePassword(Long id, String oldPassword, String newPassword) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
+                .orElseThrow(ErrorCode.USER_NOT_FOUND::exception);
 
         // 验证旧密码
         if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
-            throw new RuntimeException("原密码错误");
+            throw ErrorCode.WRONG_PASSWORD.exception();
         }
 
         // 加密新密码
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        invalidationBus.publish(CacheInvalidation.EntityType.USER, id);
     }
 
     // 重置用户密码
     public void resetPassword(Long id, String newPassword) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
+                .orElseThrow(ErrorCode.USER_NOT_FOUND::exception);
 
         // 加密新密码
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        invalidationBus.publish(CacheInvalidation.EntityType.USER, id);
     }
 
 }
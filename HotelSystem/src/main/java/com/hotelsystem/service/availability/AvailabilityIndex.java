@@ -0,0 +1,491 @@
+package com.hotelsystem.service.availability;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.repository.CacheInvalidationRepository;
+import com.hotelsystem.repository.ReservationRepository;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import com.hotelsystem.service.invalidation.InvalidationListener;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// 房间占用的内存索引：按房间保存已确认、已入住预订的日期区间，办理预订时先在内存中判断，有冲突直接拒绝，
+// 没有冲突再由数据库确认。其他节点的变更经缓存失效总线异步到达，总线读取停滞（position 不可用）期间
+// 索引可能保留已被取消的预订，此时不再据此拒绝，全部交给数据库判断。
+// 定时及关闭时把索引写成二进制快照，高水位取缓存失效总线已应用到的 cache_invalidations id；
+// 启动时内存映射读取快照，只重新加载高水位之后有变更的预订，快照不可用或消息已被清理时整体重建
+@Component
+public class AvailabilityIndex implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    private static final int REPLAY_BATCH = 1000;
+    private static final Stay[] NO_STAYS = new Stay[0];
+
+    private final ReservationRepository reservationRepository;
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final InvalidationBus invalidationBus;
+    private final PropertyRegistry propertyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(ReservationRepository reservationRepository,
+                             CacheInvalidationRepository cacheInvalidationRepository,
+                             InvalidationBus invalidationBus,
+                             PropertyRegistry propertyRegistry,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${hotel.availability.enabled:true}") boolean enabled,
+                             @Value("${hotel.availability.dir:data/availability}") String directory) {
+        this.reservationRepository = reservationRepository;
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.invalidationBus = invalidationBus;
+        this.propertyRegistry = propertyRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    // 在失效总线确定起始位置之后执行，快照补读到该位置即可
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            propertyRegistry.forEach(this::load);
+        }
+    }
+
+    // 已就绪的门店写快照，加载失败的门店重试
+    @Scheduled(fixedDelayString = "${hotel.availability.save-interval:5m}",
+            initialDelayString = "${hotel.availability.save-interval:5m}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        propertyRegistry.forEach(property -> {
+            Partition partition = partition(property);
+            if (partition.failed) {
+                load(property);
+            } else {
+                save(property);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            propertyRegistry.propertyIds().forEach(this::save);
+        }
+    }
+
+    // 索引未就绪或失效总线已停滞时返回 false，由数据库判断
+    public boolean hasConflict(Long roomId, LocalDate checkIn, LocalDate checkOut, Long excludeReservationId) {
+        String property = propertyRegistry.current();
+        Partition partition = partitions.get(property);
+        if (partition == null || !partition.ready || roomId == null || checkIn == null || checkOut == null) {
+            return false;
+        }
+        if (invalidationBus.position(property).isEmpty()) {
+            partition.staleSkips.increment();
+            return false;
+        }
+        int in = (int) checkIn.toEpochDay();
+        int out = (int) checkOut.toEpochDay();
+        for (Stay stay : partition.stays(roomId)) {
+            if (stay.conflicts(in, out) && !Long.valueOf(stay.reservationId()).equals(excludeReservationId)) {
+                partition.fastRejects.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 本节点的预订变更在事务提交后更新索引
+    public void updateAfterCommit(ReservationDto reservation) {
+        if (!enabled) {
+            return;
+        }
+        String property = propertyRegistry.current();
+        afterCommit(() -> {
+            if (isActive(reservation.getStatus())) {
+                partition(property).update(List.of(Stay.of(reservation)), List.of());
+            } else {
+                partition(property).update(List.of(), List.of(reservation.getId()));
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long reservationId) {
+        if (!enabled) {
+            return;
+        }
+        String property = propertyRegistry.current();
+        afterCommit(() -> partition(property).update(List.of(), List.of(reservationId)));
+    }
+
+    // 其他节点修改了预订：重新读取这些预订；整体失效时重建
+    @Override
+    public void invalidate(CacheInvalidation.EntityType type, Set<Long> ids) {
+        if (!enabled || type != CacheInvalidation.EntityType.RESERVATION) {
+            return;
+        }
+        String property = propertyRegistry.current();
+        if (ids.isEmpty()) {
+            rebuild(property);
+        } else if (partition(property).deferIfLoading(ids)) {
+            reload(partition(property), ids);
+        }
+    }
+
+    public Map<String, Stats> snapshot() {
+        Map<String, Stats> result = new LinkedHashMap<>();
+        partitions.forEach((property, partition) -> result.put(property, partition.stats()));
+        return result;
+    }
+
+    private void load(String property) {
+        long started = System.nanoTime();
+        AvailabilitySnapshot snapshot = null;
+        try {
+            snapshot = AvailabilitySnapshot.read(file(property));
+        } catch (IOException e) {
+            log.warn("门店 {} 的可用性快照读取失败，改为整体重建", property, e);
+        }
+        if (snapshot == null) {
+            rebuild(property);
+            return;
+        }
+
+        Partition partition = partition(property);
+        partition.beginLoad();
+        try {
+            Set<Long> changed = changedSince(property, snapshot.getMark());
+            if (changed == null) {
+                rebuild(property);
+                return;
+            }
+            partition.replace(snapshot.getStays());
+            reload(partition, changed);
+            partition.finishLoad("SNAPSHOT", changed.size(), System.nanoTime() - started);
+            drainDeferred(partition);
+            log.info("门店 {} 的可用性索引已从快照恢复，共 {} 条预订，补读 {} 条变更",
+                    property, snapshot.getStays().size(), changed.size());
+        } catch (RuntimeException e) {
+            partition.failLoad();
+            log.warn("门店 {} 的可用性索引加载失败，稍后重试", property, e);
+        }
+    }
+
+    private void rebuild(String property) {
+        long started = System.nanoTime();
+        Partition partition = partition(property);
+        partition.beginLoad();
+        try {
+            List<Stay> stays = transactionTemplate.execute(status -> {
+                try (Stream<ReservationDto> rows = reservationRepository.streamActiveDtos()) {
+                    return rows.map(Stay::of).toList();
+                }
+            });
+            partition.replace(stays);
+            partition.finishLoad("REBUILD", 0, System.nanoTime() - started);
+            drainDeferred(partition);
+            log.info("门店 {} 的可用性索引已重建，共 {} 条预订", property, stays.size());
+        } catch (RuntimeException e) {
+            partition.failLoad();
+            log.warn("门店 {} 的可用性索引重建失败，稍后重试", property, e);
+        }
+    }
+
+    // 高水位之后有变更的预订；位置不可用、消息已被清理或出现整体失效时返回 null
+    private Set<Long> changedSince(String property, long mark) {
+        OptionalLong position = invalidationBus.position(property);
+        if (position.isEmpty() || position.getAsLong() < mark) {
+            return null;
+        }
+        long target = position.getAsLong();
+        Set<Long> changed = new HashSet<>();
+        if (target == mark) {
+            return changed;
+        }
+        long oldest = cacheInvalidationRepository.findMinId();
+        if (oldest == 0 || oldest > mark + 1) {
+            return null;
+        }
+        long after = mark;
+        while (after < target) {
+            List<CacheInvalidation> rows = cacheInvalidationRepository.findAfter(after, PageRequest.of(0, REPLAY_BATCH));
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (CacheInvalidation row : rows) {
+                if (row.getId() > target) {
+                    return changed;
+                }
+                if (row.getEntityType() == CacheInvalidation.EntityType.RESERVATION) {
+                    if (row.getEntityId() == null) {
+                        return null;
+                    }
+                    changed.add(row.getEntityId());
+                }
+                after = row.getId();
+            }
+        }
+        return changed;
+    }
+
+    // 按当前数据库内容更新这些预订，已删除或不再占用房间的移出索引
+    private void reload(Partition partition, Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += REPLAY_BATCH) {
+            List<Long> batch = all.subList(from, Math.min(from + REPLAY_BATCH, all.size()));
+            List<Stay> upserts = new ArrayList<>();
+            Set<Long> removals = new HashSet<>(batch);
+            for (ReservationDto reservation : reservationRepository.findDtosByIdIn(batch)) {
+                if (isActive(reservation.getStatus())) {
+                    upserts.add(Stay.of(reservation));
+                    removals.remove(reservation.getId());
+                }
+            }
+            partition.apply(upserts, removals);
+        }
+    }
+
+    // 加载期间到达的变更在加载完成后补读，直到没有新的变更再开放查询
+    private void drainDeferred(Partition partition) {
+        Set<Long> deferred;
+        while (!(deferred = partition.takeDeferredOrOpen()).isEmpty()) {
+            reload(partition, deferred);
+        }
+    }
+
+    private void save(String property) {
+        Partition partition = partitions.get(property);
+        OptionalLong position = invalidationBus.position(property);
+        if (partition == null || !partition.ready || position.isEmpty()) {
+            return;
+        }
+        // 先取高水位再复制：高水位之前的变更都已在副本中，之后的由下次启动补读
+        long mark = position.getAsLong();
+        long version = partition.version;
+        if (mark == partition.savedMark && version == partition.savedVersion) {
+            return;
+        }
+        List<Stay> stays = partition.copy();
+        try {
+            Files.createDirectories(directory);
+            AvailabilitySnapshot.write(file(property), mark, stays);
+            partition.savedMark = mark;
+            partition.savedVersion = version;
+            log.debug("门店 {} 的可用性快照已保存，共 {} 条预订，高水位 {}", property, stays.size(), mark);
+        } catch (IOException e) {
+            log.warn("门店 {} 的可用性快照保存失败", property, e);
+        }
+    }
+
+    private Path file(String property) {
+        return directory.resolve(property + ".snap");
+    }
+
+    private Partition partition(String property) {
+        return partitions.computeIfAbsent(property, key -> new Partition());
+    }
+
+    private static boolean isActive(Reservation.ReservationStatus status) {
+        return status == Reservation.ReservationStatus.CONFIRMED || status == Reservation.ReservationStatus.CHECKED_IN;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // 一条占用房间的预订，日期以 epochDay 保存
+    record Stay(long reservationId, long roomId, int checkIn, int checkOut) {
+
+        static Stay of(ReservationDto reservation) {
+            return new Stay(reservation.getId(), reservation.getRoomId(),
+                    (int) reservation.getCheckInDate().toEpochDay(), (int) reservation.getCheckOutDate().toEpochDay());
+        }
+
+        // 与 ReservationRepository.findConflictingReservations 的判断一致
+        boolean conflicts(int in, int out) {
+            return (checkIn < out && checkOut > in) || checkIn == in || checkOut == out;
+        }
+    }
+
+    // 一个门店的索引：按预订ID保存全部记录，按房间保存不可变数组供无锁读取
+    private static final class Partition {
+
+        // 以下两个 Map 只在 synchronized 方法内修改
+        private final Map<Long, Stay> byId = new HashMap<>();
+        private final Map<Long, Stay[]> byRoom = new ConcurrentHashMap<>();
+        private final Set<Long> deferred = new HashSet<>();
+        private final LongAdder fastRejects = new LongAdder();
+        private final LongAdder staleSkips = new LongAdder();
+
+        private volatile boolean ready;
+        private volatile boolean loading = true;    // 首次加载完成前同样视为加载中
+        private volatile boolean failed;
+        private volatile long version;
+        private volatile String source;
+        private volatile long replayed;
+        private volatile long loadMillis;
+        private volatile long savedMark = -1;
+        private volatile long savedVersion = -1;
+
+        Stay[] stays(long roomId) {
+            return byRoom.getOrDefault(roomId, NO_STAYS);
+        }
+
+        // 加载期间的变更先记下，加载完成后补读
+        synchronized void beginLoad() {
+            ready = false;
+            loading = true;
+        }
+
+        synchronized void finishLoad(String source, long replayed, long elapsedNanos) {
+            this.source = source;
+            this.replayed = replayed;
+            this.loadMillis = elapsedNanos / 1_000_000;
+            this.failed = false;
+        }
+
+        synchronized void failLoad() {
+            ready = false;
+            loading = false;
+            failed = true;
+            deferred.clear();
+        }
+
+        synchronized Set<Long> takeDeferredOrOpen() {
+            if (deferred.isEmpty()) {
+                loading = false;
+                ready = true;
+                return Set.of();
+            }
+            Set<Long> taken = new HashSet<>(deferred);
+            deferred.clear();
+            return taken;
+        }
+
+        // 正在加载时记下并返回 false；加载失败时不必记录，重试时会补读高水位之后的全部变更
+        synchronized boolean deferIfLoading(Collection<Long> ids) {
+            if (loading) {
+                deferred.addAll(ids);
+                return false;
+            }
+            return ready;
+        }
+
+        // 本节点提交的变更，加载期间同样改为完成后补读，避免被随后的整体替换覆盖
+        synchronized void update(Collection<Stay> upserts, Collection<Long> removals) {
+            if (loading) {
+                upserts.forEach(stay -> deferred.add(stay.reservationId()));
+                deferred.addAll(removals);
+            } else if (ready) {
+                apply(upserts, removals);
+            }
+        }
+
+        synchronized void replace(Collection<Stay> stays) {
+            byId.clear();
+            byRoom.clear();
+            apply(stays, List.of());
+        }
+
+        synchronized void apply(Collection<Stay> upserts, Collection<Long> removals) {
+            removals.forEach(this::remove);
+            for (Stay stay : upserts) {
+                remove(stay.reservationId());
+                byId.put(stay.reservationId(), stay);
+                Stay[] current = byRoom.getOrDefault(stay.roomId(), NO_STAYS);
+                Stay[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = stay;
+                byRoom.put(stay.roomId(), next);
+            }
+            version++;
+        }
+
+        synchronized List<Stay> copy() {
+            return new ArrayList<>(byId.values());
+        }
+
+        synchronized Stats stats() {
+            return new Stats(ready, byId.size(), byRoom.size(), source, replayed, loadMillis,
+                    savedMark, fastRejects.sum(), staleSkips.sum());
+        }
+
+        private void remove(Long reservationId) {
+            Stay existing = byId.remove(reservationId);
+            if (existing == null) {
+                return;
+            }
+            Stay[] current = byRoom.get(existing.roomId());
+            Stay[] next = Arrays.stream(current)
+                    .filter(stay -> stay.reservationId() != existing.reservationId())
+                    .toArray(Stay[]::new);
+            if (next.length == 0) {
+                byRoom.remove(existing.roomId());
+            } else {
+                byRoom.put(existing.roomId(), next);
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private boolean ready;
+        private int reservations;
+        private int rooms;
+        private String source;                  // SNAPSHOT 从快照恢复，REBUILD 整体重建
+        private long replayed;                  // 从快照恢复时补读的变更预订数
+        private long loadMillis;
+        private long savedMark;                 // 最近一次保存的快照高水位，未保存过为 -1
+        private long fastRejects;               // 在内存中直接拒绝的冲突预订数
+        private long staleSkips;                // 失效总线停滞、改由数据库判断的次数
+    }
+}
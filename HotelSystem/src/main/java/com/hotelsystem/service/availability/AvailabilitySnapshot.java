@@ -0,0 +1,92 @@
+package com.hotelsystem.service.availability;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// 可用性索引的二进制快照，先写临时文件再原子替换，读取时内存映射
+// 文件格式：24 字节头 + 每条预订 24 字节
+//   0 int  magic      4 int  格式版本     8 long 高水位(cache_invalidations 的 id)
+//  16 int  记录数    20 int  保留
+// 记录：0 long 预订ID  8 long 房间ID  16 int 入住日(epochDay)  20 int 离店日(epochDay)
+final class AvailabilitySnapshot {
+
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 24;
+    private static final int MAGIC = 0x41564149; // "AVAI"
+    private static final int VERSION = 1;
+
+    private final long mark;
+    private final List<AvailabilityIndex.Stay> stays;
+
+    private AvailabilitySnapshot(long mark, List<AvailabilityIndex.Stay> stays) {
+        this.mark = mark;
+        this.stays = stays;
+    }
+
+    long getMark() {
+        return mark;
+    }
+
+    List<AvailabilityIndex.Stay> getStays() {
+        return stays;
+    }
+
+    static void write(Path path, long mark, Collection<AvailabilityIndex.Stay> stays) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) RECORD_SIZE * stays.size());
+            int position = HEADER_SIZE;
+            for (AvailabilityIndex.Stay stay : stays) {
+                buffer.putLong(position, stay.reservationId());
+                buffer.putLong(position + 8, stay.roomId());
+                buffer.putInt(position + 16, stay.checkIn());
+                buffer.putInt(position + 20, stay.checkOut());
+                position += RECORD_SIZE;
+            }
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, mark);
+            buffer.putInt(16, stays.size());
+            buffer.putInt(20, 0);
+            // magic 最后写入，没写完的文件读取时会被丢弃
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 文件不存在、不完整或格式不符时返回 null，由调用方整体重建
+    static AvailabilitySnapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int count = buffer.getInt(16);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || count < 0 || size != HEADER_SIZE + (long) RECORD_SIZE * count) {
+                return null;
+            }
+            List<AvailabilityIndex.Stay> stays = new ArrayList<>(count);
+            for (int i = 0, position = HEADER_SIZE; i < count; i++, position += RECORD_SIZE) {
+                stays.add(new AvailabilityIndex.Stay(buffer.getLong(position), buffer.getLong(position + 8),
+                        buffer.getInt(position + 16), buffer.getInt(position + 20)));
+            }
+            return new AvailabilitySnapshot(buffer.getLong(8), stays);
+        }
+    }
+}
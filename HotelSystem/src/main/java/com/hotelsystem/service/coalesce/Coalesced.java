@@ -0,0 +1,15 @@
+package com.hotelsystem.service.coalesce;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 标注只读查询方法：同一门店下参数相同的并发调用只执行一次，结果由所有调用方共享，
+// 因此返回值必须当作只读使用
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
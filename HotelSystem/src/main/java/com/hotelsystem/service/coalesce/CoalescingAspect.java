@@ -0,0 +1,175 @@
+package com.hotelsystem.service.coalesce;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ReadWriteRoutingDataSource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+// @Coalesced 方法的单飞执行：第一个调用在自己的线程上查询，期间到达的相同调用等待并共享其结果。
+// 排在事务切面之外，由第一个调用单独开启只读事务；调用方已在事务中时不合并，以免读不到本事务未提交的修改；
+// 开启只读副本时，处于读己之写窗口内的用户也不合并：他的查询要走主库，不能共享其他人从副本读到的结果
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CoalescingAspect {
+
+    private final PropertyRegistry propertyRegistry;
+    private final ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSource;
+    private final Duration maxWait;
+    private final Map<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public CoalescingAspect(PropertyRegistry propertyRegistry,
+                            ObjectProvider<ReadWriteRoutingDataSource> readWriteRoutingDataSource,
+                            @Value("${hotel.coalescing.max-wait:5s}") Duration maxWait) {
+        this.propertyRegistry = propertyRegistry;
+        this.readWriteRoutingDataSource = readWriteRoutingDataSource;
+        this.maxWait = maxWait;
+    }
+
+    @Around("@annotation(com.hotelsystem.service.coalesce.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Counters methodCounters = counters.computeIfAbsent(
+                method.getDeclaringClass().getSimpleName() + "." + method.getName(), name -> new Counters());
+        methodCounters.calls.increment();
+        if (TransactionSynchronizationManager.isActualTransactionActive() || readsOwnWrites()) {
+            methodCounters.bypassed.increment();
+            return joinPoint.proceed();
+        }
+
+        CallKey key = new CallKey(propertyRegistry.current(), method, joinPoint.getArgs());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader == null) {
+            return lead(joinPoint, key, mine, methodCounters);
+        }
+        methodCounters.coalesced.increment();
+        return follow(joinPoint, leader, methodCounters);
+    }
+
+    public Map<String, Stats> snapshot() {
+        Map<String, Stats> result = new TreeMap<>();
+        counters.forEach((name, value) -> result.put(name, new Stats(value.calls.sum(), value.executions.sum(),
+                value.coalesced.sum(), value.fallbacks.sum(), value.bypassed.sum())));
+        return result;
+    }
+
+    private boolean readsOwnWrites() {
+        ReadWriteRoutingDataSource routing = readWriteRoutingDataSource.getIfAvailable();
+        return routing != null && routing.isWithinReadYourWritesWindow();
+    }
+
+    // 先移出登记再唤醒等待者，之后到达的调用重新查询，不会拿到已经过时的结果
+    private Object lead(ProceedingJoinPoint joinPoint, CallKey key, CompletableFuture<Object> mine,
+                        Counters methodCounters) throws Throwable {
+        methodCounters.executions.increment();
+        try {
+            Object result = joinPoint.proceed();
+            inFlight.remove(key, mine);
+            mine.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, mine);
+            // 第一个调用被中断时，等待者不应跟着失败，让它们各自重新执行
+            mine.completeExceptionally(interrupted(e) ? new CancellationException() : e);
+            throw e;
+        }
+    }
+
+    // 抛出 InterruptedException 时中断标志已被清除，需要同时检查异常链
+    private static boolean interrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 等待者被中断只影响自己；第一个调用被取消或迟迟未返回时，等待者自行查询
+    private Object follow(ProceedingJoinPoint joinPoint, CompletableFuture<Object> leader,
+                          Counters methodCounters) throws Throwable {
+        try {
+            return leader.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("请求已取消");
+        } catch (CancellationException | TimeoutException e) {
+            methodCounters.fallbacks.increment();
+            return joinPoint.proceed();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CancellationException) {
+                methodCounters.fallbacks.increment();
+                return joinPoint.proceed();
+            }
+            if (cause instanceof RuntimeException || cause instanceof Error) {
+                throw cause;
+            }
+            throw new UndeclaredThrowableException(cause);
+        }
+    }
+
+    // 参数按 equals 比较，数组参数展开比较内容
+    private record CallKey(String property, Method method, Object[] args) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CallKey key
+                    && property.equals(key.property)
+                    && method.equals(key.method)
+                    && Arrays.deepEquals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * property.hashCode() + method.hashCode()) + Arrays.deepHashCode(args);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder bypassed = new LongAdder();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private long calls;
+        private long executions;                // 实际执行查询的次数
+        private long coalesced;                 // 等待并共享其他调用结果的次数
+        private long fallbacks;                 // 等待超时或第一个调用被取消后自行查询的次数
+        private long bypassed;                  // 调用方已在事务中或处于读己之写窗口内而未合并的次数
+    }
+}
@@ -0,0 +1,475 @@
+package com.hotelsystem.service.housekeeping;
+
+import com.hotelsystem.config.PropertyContext;
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.dto.HousekeepingTaskDto;
+import com.hotelsystem.entity.HousekeepingTask;
+import com.hotelsystem.exception.ErrorCode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 清洁任务的内存调度：待分配任务按房间下一次入住日期排在优先队列中，
+// 等待领取的房务员（长轮询或 SSE）排在等待队列中，由唯一的调度线程逐一配对。
+// 集群内每个节点都持有全部未完成任务，分配以数据库上的条件更新为准（只有把 PENDING 改为 ASSIGNED
+// 成功的节点能交出任务），同一任务不会被分给两个人；其他节点创建、分配、退回或完成的任务定时同步过来。
+// 完成、取消状态先记在内存，定时批量写回数据库。
+// 每个门店的任务和房务员互不相干，各有一套队列和调度线程
+@Component
+public class HousekeepingQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(HousekeepingQueue.class);
+
+    private static final String ASSIGN_SQL = "UPDATE housekeeping_tasks SET status = 'ASSIGNED', assignee = ?, " +
+            "assigned_at = ? WHERE id = ? AND status = 'PENDING'";
+    private static final String RELEASE_SQL = "UPDATE housekeeping_tasks SET status = 'PENDING', assignee = NULL, " +
+            "assigned_at = NULL WHERE id = ? AND status = 'ASSIGNED' AND assignee = ?";
+    // 已结束的任务不再改写
+    private static final String FINISH_SQL = "UPDATE housekeeping_tasks SET status = ?, completed_at = ? " +
+            "WHERE id = ? AND status IN ('PENDING', 'ASSIGNED')";
+    private static final String OPEN_TASKS_SQL = "SELECT id, room_id, room_number, reason, status, " +
+            "next_arrival_date, assignee, created_at, assigned_at FROM housekeeping_tasks " +
+            "WHERE status IN ('PENDING', 'ASSIGNED')";
+
+    // 下一次入住越早越优先，没有后续入住的排在最后，同等情况下先到先得
+    private static final Comparator<OpenTask> PRIORITY = Comparator
+            .comparing((OpenTask task) -> task.nextArrivalDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(task -> task.createdAt)
+            .thenComparing(task -> task.id);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PropertyRegistry propertyRegistry;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    // 待写回数据库的已完成、已取消任务
+    private final Queue<OpenTask> dirty = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = true;
+
+    public HousekeepingQueue(JdbcTemplate jdbcTemplate, PropertyRegistry propertyRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.propertyRegistry = propertyRegistry;
+    }
+
+    // 加载当前门店重启前未完成的任务，由 HousekeepingService 在应用就绪后调用
+    public void start(Collection<HousekeepingTask> unfinished) {
+        Lane lane = lane();
+        for (HousekeepingTask task : unfinished) {
+            lane.adopt(new OpenTask(lane.property, task));
+        }
+        log.info("门店 {} 的清洁任务调度已启动，未完成任务 {} 个", lane.property, lane.openTasks.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes.values()) {
+            lane.dispatcher.interrupt();
+            lane.dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        flush();
+    }
+
+    public boolean hasOpenTask(Long roomId) {
+        return lane().openTasksByRoom.containsKey(roomId);
+    }
+
+    // 新任务已在创建事务中写入数据库；同一房间已有未完成任务时取消新任务
+    public void enqueue(HousekeepingTask task) {
+        Lane lane = lane();
+        if (lane.openTasks.containsKey(task.getId())) {
+            // 提交后、登记前已被同步加入
+            return;
+        }
+        OpenTask open = new OpenTask(lane.property, task);
+        OpenTask existing = lane.openTasksByRoom.putIfAbsent(open.roomId, open);
+        if (existing != null) {
+            open.status = HousekeepingTask.TaskStatus.CANCELLED;
+            lane.finished.put(open.id, Long.MAX_VALUE);
+            dirty.add(open);
+            lane.reprioritize(existing, open.nextArrivalDate);
+            return;
+        }
+        lane.openTasks.put(open.id, open);
+        lane.pending.add(open);
+    }
+
+    // 房间有了更早的入住，提前该房间待分配任务的位置
+    public void arrivalScheduled(Long roomId, LocalDate checkInDate) {
+        Lane lane = lane();
+        OpenTask task = lane.openTasksByRoom.get(roomId);
+        if (task != null) {
+            lane.reprioritize(task, checkInDate);
+        }
+    }
+
+    public void addWaiter(HousekeepingWaiter waiter) {
+        lane().waiters.add(waiter);
+    }
+
+    public List<HousekeepingTaskDto> openTasks() {
+        return lane().openTasks.values().stream()
+                .sorted(PRIORITY)
+                .map(OpenTask::toDto)
+                .toList();
+    }
+
+    // 校验任务仍由该用户持有，完成前调用
+    public HousekeepingTaskDto assignedTo(Long taskId, String username) {
+        OpenTask task = lane().openTasks.get(taskId);
+        if (task == null) {
+            throw ErrorCode.TASK_NOT_FOUND.exception();
+        }
+        synchronized (task) {
+            if (task.status != HousekeepingTask.TaskStatus.ASSIGNED || !username.equals(task.assignee)) {
+                throw ErrorCode.TASK_NOT_ASSIGNED.exception();
+            }
+            return task.toDto();
+        }
+    }
+
+    // 房间状态已在事务中恢复，提交后结束任务
+    public void complete(Long taskId) {
+        Lane lane = lane();
+        OpenTask task = lane.openTasks.remove(taskId);
+        if (task == null) {
+            return;
+        }
+        String assignee;
+        synchronized (task) {
+            task.status = HousekeepingTask.TaskStatus.DONE;
+            task.completedAt = LocalDateTime.now();
+            assignee = task.assignee;
+        }
+        lane.openTasksByRoom.remove(task.roomId, task);
+        lane.finished.put(task.id, Long.MAX_VALUE);
+        dirty.add(task);
+        lane.resumeStreams(assignee);
+    }
+
+    // 房务员放弃任务，任务回到待分配队列
+    public HousekeepingTaskDto release(Long taskId, String username) {
+        Lane lane = lane();
+        OpenTask task = lane.openTasks.get(taskId);
+        if (task == null) {
+            throw ErrorCode.TASK_NOT_FOUND.exception();
+        }
+        HousekeepingTaskDto released;
+        synchronized (task) {
+            if (task.status != HousekeepingTask.TaskStatus.ASSIGNED || !username.equals(task.assignee)) {
+                throw ErrorCode.TASK_NOT_ASSIGNED.exception();
+            }
+            PropertyContext.runWith(lane.property, () -> jdbcTemplate.update(RELEASE_SQL, taskId, username));
+            task.unassign();
+            released = task.toDto();
+        }
+        lane.pending.add(task);
+        lane.resumeStreams(username);
+        return released;
+    }
+
+    // 与数据库对齐：其他节点创建的任务加入本节点的队列，其他节点上的分配、退回、完成同步到本节点
+    @Scheduled(fixedDelayString = "${hotel.housekeeping.sync-interval:5s}")
+    public void sync() {
+        propertyRegistry.forEach(property -> {
+            try {
+                long readAt = System.nanoTime();
+                List<HousekeepingTask> open = jdbcTemplate.query(OPEN_TASKS_SQL, HousekeepingQueue::mapTask);
+                lane().reconcile(open, readAt);
+            } catch (RuntimeException e) {
+                log.warn("同步门店 {} 的清洁任务失败", property, e);
+            }
+        });
+    }
+
+    // 批量写回完成、取消；按门店分别写入各自的数据库
+    @Scheduled(fixedDelayString = "${hotel.housekeeping.flush-interval:2s}")
+    public void flush() {
+        Map<String, Map<Long, OpenTask>> changed = new LinkedHashMap<>();
+        OpenTask task;
+        while ((task = dirty.poll()) != null) {
+            changed.computeIfAbsent(task.property, key -> new LinkedHashMap<>()).put(task.id, task);
+        }
+        changed.forEach((property, tasks) -> {
+            List<Object[]> rows = new ArrayList<>(tasks.size());
+            for (OpenTask each : tasks.values()) {
+                synchronized (each) {
+                    rows.add(new Object[]{each.status.name(), timestamp(each.completedAt), each.id});
+                }
+            }
+            try {
+                PropertyContext.runWith(property, () -> jdbcTemplate.batchUpdate(FINISH_SQL, rows));
+                long writtenAt = System.nanoTime();
+                Lane lane = lanes.get(property);
+                tasks.keySet().forEach(id -> lane.finished.replace(id, writtenAt));
+            } catch (RuntimeException e) {
+                dirty.addAll(tasks.values());
+                log.error("写回门店 {} 的 {} 个清洁任务状态失败，稍后重试", property, tasks.size(), e);
+            }
+        });
+    }
+
+    private Lane lane() {
+        return lanes.computeIfAbsent(propertyRegistry.current(), Lane::new);
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static HousekeepingTask mapTask(ResultSet rs, int rowNum) throws SQLException {
+        HousekeepingTask task = new HousekeepingTask();
+        task.setId(rs.getLong("id"));
+        task.setRoomId(rs.getLong("room_id"));
+        task.setRoomNumber(rs.getString("room_number"));
+        String reason = rs.getString("reason");
+        task.setReason(reason != null ? HousekeepingTask.TaskReason.valueOf(reason) : null);
+        task.setStatus(HousekeepingTask.TaskStatus.valueOf(rs.getString("status")));
+        task.setNextArrivalDate(rs.getObject("next_arrival_date", LocalDate.class));
+        task.setAssignee(rs.getString("assignee"));
+        task.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        task.setAssignedAt(rs.getObject("assigned_at", LocalDateTime.class));
+        return task;
+    }
+
+    // 一个门店的待分配任务、等待中的房务员和调度线程
+    private final class Lane {
+        private final String property;
+        private final PriorityBlockingQueue<OpenTask> pending = new PriorityBlockingQueue<>(64, PRIORITY);
+        private final BlockingQueue<HousekeepingWaiter> waiters = new LinkedBlockingQueue<>();
+        private final Map<Long, OpenTask> openTasks = new ConcurrentHashMap<>();
+        private final Map<Long, OpenTask> openTasksByRoom = new ConcurrentHashMap<>();
+        // 已领到任务的 SSE 连接，完成或退回任务后重新进入等待队列
+        private final Map<String, Queue<HousekeepingWaiter>> busyStreams = new ConcurrentHashMap<>();
+        // 在本节点完成或取消的任务 id → 写回数据库的时间（尚未写回为 Long.MAX_VALUE），
+        // 写回前数据库中仍是未完成状态，同步时不能再把它们加回来
+        private final Map<Long, Long> finished = new ConcurrentHashMap<>();
+        private final Thread dispatcher;
+
+        private Lane(String property) {
+            this.property = property;
+            this.dispatcher = new Thread(this::dispatchLoop, "housekeeping-dispatcher-" + property);
+            this.dispatcher.setDaemon(true);
+            this.dispatcher.start();
+        }
+
+        // 本节点启动时加载或从其他节点同步来的任务；同一房间在不同节点上几乎同时生成的任务都保留
+        private void adopt(OpenTask task) {
+            openTasks.put(task.id, task);
+            openTasksByRoom.putIfAbsent(task.roomId, task);
+            if (task.status == HousekeepingTask.TaskStatus.PENDING) {
+                pending.add(task);
+            }
+        }
+
+        // readAt 之前已在本节点登记、却不在数据库未完成列表中的任务，已在其他节点完成或取消
+        private void reconcile(List<HousekeepingTask> open, long readAt) {
+            Set<Long> openIds = new HashSet<>();
+            for (HousekeepingTask row : open) {
+                openIds.add(row.getId());
+                if (finished.containsKey(row.getId())) {
+                    continue;
+                }
+                OpenTask task = openTasks.get(row.getId());
+                if (task == null) {
+                    adopt(new OpenTask(property, row));
+                    continue;
+                }
+                String released = null;
+                synchronized (task) {
+                    if (row.getStatus() == HousekeepingTask.TaskStatus.ASSIGNED) {
+                        if (!task.assignedHere) {
+                            pending.remove(task);
+                            task.status = HousekeepingTask.TaskStatus.ASSIGNED;
+                            task.assignee = row.getAssignee();
+                            task.assignedAt = row.getAssignedAt();
+                        }
+                    } else if (task.status == HousekeepingTask.TaskStatus.ASSIGNED && !task.assignedHere) {
+                        // 在其他节点上被退回
+                        released = task.assignee;
+                        task.unassign();
+                        pending.add(task);
+                    } else if (task.status == HousekeepingTask.TaskStatus.PENDING && !pending.contains(task)) {
+                        // 上次分配时写库失败，重新排队
+                        pending.add(task);
+                    }
+                }
+                reprioritize(task, row.getNextArrivalDate());
+                if (released != null) {
+                    resumeStreams(released);
+                }
+            }
+            for (OpenTask task : openTasks.values()) {
+                if (task.registeredAt < readAt && !openIds.contains(task.id)) {
+                    openTasks.remove(task.id, task);
+                    openTasksByRoom.remove(task.roomId, task);
+                    pending.remove(task);
+                    String assignee;
+                    synchronized (task) {
+                        assignee = task.assignee;
+                    }
+                    resumeStreams(assignee);
+                }
+            }
+            // 写回早于本次读取的结束状态已反映在查询结果中
+            finished.values().removeIf(writtenAt -> writtenAt < readAt);
+        }
+
+        // 优先级字段只能在任务不在队列中时修改，否则会破坏堆的顺序
+        private void reprioritize(OpenTask task, LocalDate arrival) {
+            synchronized (task) {
+                if (arrival == null || (task.nextArrivalDate != null && !arrival.isBefore(task.nextArrivalDate))) {
+                    return;
+                }
+                boolean queued = pending.remove(task);
+                task.nextArrivalDate = arrival;
+                if (queued) {
+                    pending.add(task);
+                }
+            }
+        }
+
+        private void resumeStreams(String username) {
+            Queue<HousekeepingWaiter> streams = username != null ? busyStreams.get(username) : null;
+            HousekeepingWaiter stream;
+            while (streams != null && (stream = streams.poll()) != null) {
+                if (stream.isActive()) {
+                    waiters.add(stream);
+                }
+            }
+        }
+
+        // 取出一个仍在等待的房务员，再等到一个待分配任务；投递失败时任务放回队列，换下一位
+        private void dispatchLoop() {
+            while (running) {
+                try {
+                    HousekeepingWaiter waiter = waiters.take();
+                    OpenTask task = null;
+                    while (running && waiter.isActive() && task == null) {
+                        task = pending.poll(1, TimeUnit.SECONDS);
+                        if (task != null && !assign(task, waiter.username())) {
+                            task = null;
+                        }
+                    }
+                    if (task == null) {
+                        continue;
+                    }
+                    if (waiter.deliver(task.toDto())) {
+                        if (waiter.isStream()) {
+                            busyStreams.computeIfAbsent(waiter.username(), key -> new ConcurrentLinkedQueue<>()).add(waiter);
+                        }
+                    } else {
+                        synchronized (task) {
+                            OpenTask undelivered = task;
+                            PropertyContext.runWith(property,
+                                    () -> jdbcTemplate.update(RELEASE_SQL, undelivered.id, waiter.username()));
+                            task.unassign();
+                        }
+                        pending.add(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.error("分配门店 {} 的清洁任务失败", property, e);
+                }
+            }
+        }
+
+        // 先在数据库上抢占：其他节点已分配、完成或取消的任务更新 0 行，等下次同步更新本地状态
+        private boolean assign(OpenTask task, String username) {
+            synchronized (task) {
+                if (task.status != HousekeepingTask.TaskStatus.PENDING) {
+                    return false;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                int updated;
+                try {
+                    updated = PropertyContext.callWith(property,
+                            () -> jdbcTemplate.update(ASSIGN_SQL, username, Timestamp.valueOf(now), task.id));
+                } catch (RuntimeException e) {
+                    // 任务仍为待分配，下次同步时重新排队
+                    log.warn("分配门店 {} 的清洁任务 {} 时写库失败", property, task.id, e);
+                    return false;
+                }
+                if (updated == 0) {
+                    log.debug("门店 {} 的清洁任务 {} 已被其他节点处理", property, task.id);
+                    task.status = HousekeepingTask.TaskStatus.ASSIGNED;
+                    task.assignee = null;
+                    return false;
+                }
+                task.status = HousekeepingTask.TaskStatus.ASSIGNED;
+                task.assignee = username;
+                task.assignedAt = now;
+                task.assignedHere = true;
+                return true;
+            }
+        }
+    }
+
+    // 内存中的任务；状态字段的读写在任务自身的锁内进行
+    private static final class OpenTask {
+        private final String property;
+        private final Long id;
+        private final Long roomId;
+        private final String roomNumber;
+        private final HousekeepingTask.TaskReason reason;
+        private final LocalDateTime createdAt;
+        private final long registeredAt = System.nanoTime(); // 在本节点登记的时间，同步时据此判断是否已被其他节点结束
+        private volatile LocalDate nextArrivalDate;
+        private HousekeepingTask.TaskStatus status;
+        private String assignee;
+        private LocalDateTime assignedAt;
+        private LocalDateTime completedAt;
+        private boolean assignedHere; // 由本节点分配，其他节点上的退回不会发生，同步时不覆盖
+
+        private OpenTask(String property, HousekeepingTask task) {
+            this.property = property;
+            this.id = task.getId();
+            this.roomId = task.getRoomId();
+            this.roomNumber = task.getRoomNumber();
+            this.reason = task.getReason();
+            this.createdAt = task.getCreatedAt();
+            this.nextArrivalDate = task.getNextArrivalDate();
+            this.status = task.getStatus();
+            this.assignee = task.getAssignee();
+            this.assignedAt = task.getAssignedAt();
+        }
+
+        private void unassign() {
+            status = HousekeepingTask.TaskStatus.PENDING;
+            assignee = null;
+            assignedAt = null;
+            assignedHere = false;
+        }
+
+        private synchronized HousekeepingTaskDto toDto() {
+            return new HousekeepingTaskDto(id, roomId, roomNumber, reason, status, nextArrivalDate,
+                    assignee, createdAt, assignedAt, completedAt);
+        }
+    }
+}
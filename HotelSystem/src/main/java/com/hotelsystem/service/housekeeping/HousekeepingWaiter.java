@@ -0,0 +1,83 @@
+package com.hotelsystem.service.housekeeping;
+
+import com.hotelsystem.dto.ApiResponse;
+import com.hotelsystem.dto.HousekeepingTaskDto;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+// 等待领取任务的房务员：一次性的长轮询，或持续接收任务的 SSE 连接
+public interface HousekeepingWaiter {
+
+    String username();
+
+    boolean isActive();
+
+    boolean isStream();
+
+    // 返回 false 表示连接已断开，任务需放回队列
+    boolean deliver(HousekeepingTaskDto task);
+
+    record LongPoll(String username, DeferredResult<ApiResponse<HousekeepingTaskDto>> result)
+            implements HousekeepingWaiter {
+
+        @Override
+        public boolean isActive() {
+            return !result.isSetOrExpired();
+        }
+
+        @Override
+        public boolean isStream() {
+            return false;
+        }
+
+        @Override
+        public boolean deliver(HousekeepingTaskDto task) {
+            return result.setResult(ApiResponse.success("已分配清洁任务", task));
+        }
+    }
+
+    final class Stream implements HousekeepingWaiter {
+        private final String username;
+        private final SseEmitter emitter;
+        private volatile boolean active = true;
+
+        public Stream(String username, SseEmitter emitter) {
+            this.username = username;
+            this.emitter = emitter;
+            emitter.onCompletion(() -> active = false);
+            emitter.onTimeout(() -> active = false);
+            emitter.onError(e -> active = false);
+        }
+
+        @Override
+        public String username() {
+            return username;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public boolean isStream() {
+            return true;
+        }
+
+        @Override
+        public boolean deliver(HousekeepingTaskDto task) {
+            if (!active) {
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("task").id(String.valueOf(task.getId())).data(task));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                active = false;
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.hotelsystem.service.invalidation;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.Guest;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.entity.Room;
+import com.hotelsystem.entity.User;
+import com.hotelsystem.repository.CacheInvalidationRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 集群内的缓存失效总线：写操作在业务事务中向 cache_invalidations 追加消息，各节点定时按 id 顺序读取，
+// 失效二级缓存并通知进程内缓存（房间搜索索引等）。
+// 自增 id 按分配顺序而非提交顺序可见，遇到空洞时先应用其后的消息，游标停在空洞前等待晚提交的事务，
+// 超过 gap-timeout 视为回滚跳过；超过 max-staleness 没有成功读取时清空本地缓存，恢复后整体重建
+@Component
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final PropertyRegistry propertyRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<InvalidationListener> listeners;   // 延迟获取，监听者自身可以依赖总线
+    private final String nodeId;
+    private final int batchSize;
+    private final int maxIdsPerType;
+    private final Duration gapTimeout;
+    private final Duration maxStaleness;
+    private final Duration retention;
+    private final Duration pollInterval;
+    private final Map<String, InvalidationCursor> cursors = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    public InvalidationBus(CacheInvalidationRepository cacheInvalidationRepository,
+                           PropertyRegistry propertyRegistry,
+                           EntityManagerFactory entityManagerFactory,
+                           ObjectProvider<InvalidationListener> listeners,
+                           @Value("${hotel.invalidation.node-id:}") String nodeId,
+                           @Value("${hotel.invalidation.batch-size:500}") int batchSize,
+                           @Value("${hotel.invalidation.max-ids-per-type:100}") int maxIdsPerType,
+                           @Value("${hotel.invalidation.gap-timeout:60s}") Duration gapTimeout,
+                           @Value("${hotel.invalidation.max-staleness:5s}") Duration maxStaleness,
+                           @Value("${hotel.invalidation.retention:1h}") Duration retention,
+                           @Value("${hotel.invalidation.poll-interval:500ms}") Duration pollInterval) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.propertyRegistry = propertyRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+        this.listeners = listeners;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.maxIdsPerType = maxIdsPerType;
+        this.gapTimeout = gapTimeout;
+        this.maxStaleness = maxStaleness;
+        this.retention = retention;
+        this.pollInterval = pollInterval;
+    }
+
+    // 启动时本地缓存为空，从各门店当前最大 id 开始读取；先于监听者的启动加载执行，
+    // 监听者从持久化快照恢复时补读到此位置即可，之后的消息由总线送达。
+    // 读取和陈旧检查在总线自己的两个线程上运行，不与其他定时任务排队：
+    // 读取卡住时看门狗仍能按时把门店标记为陈旧
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void start() {
+        propertyRegistry.forEach(property -> {
+            try {
+                cursors.put(property, new InvalidationCursor(cacheInvalidationRepository.findMaxId(), System.nanoTime()));
+            } catch (RuntimeException e) {
+                log.warn("门店 {} 读取缓存失效游标失败，稍后重试", property, e);
+            }
+        });
+        if (executor == null) {
+            AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newScheduledThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "invalidation-bus-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long pollMillis = pollInterval.toMillis();
+            executor.scheduleWithFixedDelay(this::pollSafely, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+            executor.scheduleWithFixedDelay(this::checkStaleness, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(CacheInvalidation.EntityType type, Long id) {
+        cacheInvalidationRepository.save(message(type, id));
+    }
+
+    // 数量超过 max-ids-per-type 时合并为一条整体失效
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(CacheInvalidation.EntityType type, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (ids.size() > maxIdsPerType) {
+            cacheInvalidationRepository.save(message(type, null));
+            return;
+        }
+        cacheInvalidationRepository.saveAll(ids.stream().map(id -> message(type, id)).toList());
+    }
+
+    public synchronized void poll() {
+        propertyRegistry.forEach(this::poll);
+    }
+
+    // 距上次成功读取超过 max-staleness 即不再信任本地缓存，无论读取是失败还是迟迟没有返回；
+    // 这里只清空二级缓存，进程内缓存在恢复读取后由读取线程整体重建，期间 position() 不可用
+    void checkStaleness() {
+        long now = System.nanoTime();
+        cursors.forEach((property, cursor) -> {
+            if (cursor.stale || now - cursor.lastSuccess <= maxStaleness.toNanos()) {
+                return;
+            }
+            cursor.stale = true;
+            cursor.fullFlushes++;
+            log.warn("门店 {} 已超过 {} 未能读取缓存失效消息，清空本地缓存", property, maxStaleness);
+            try {
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+            } catch (RuntimeException e) {
+                log.warn("清空二级缓存失败", e);
+            }
+        });
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("读取缓存失效消息失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.invalidation.purge-interval:10m}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        propertyRegistry.forEach(property -> {
+            int purged = cacheInvalidationRepository.deleteCreatedBefore(cutoff);
+            if (purged > 0) {
+                log.debug("门店 {} 已清理 {} 条过期的缓存失效消息", property, purged);
+            }
+        });
+    }
+
+    // 已应用到的位置，落后一轮读取：其之前本节点写入的消息，所在事务的提交回调都已执行完毕
+    // 门店已陈旧，或距上次成功读取已超过 max-staleness 时不可用
+    public OptionalLong position(String property) {
+        InvalidationCursor cursor = cursors.get(property);
+        if (cursor == null || cursor.stale || System.nanoTime() - cursor.lastSuccess > maxStaleness.toNanos()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(cursor.settledId);
+    }
+
+    public Map<String, Stats> snapshot() {
+        long now = System.nanoTime();
+        Map<String, Stats> result = new LinkedHashMap<>();
+        cursors.forEach((property, cursor) -> result.put(property, new Stats(cursor.appliedId,
+                cursor.pending.size(), cursor.received, cursor.fullFlushes, cursor.stale,
+                (now - cursor.lastSuccess) / 1_000_000)));
+        return result;
+    }
+
+    private void poll(String property) {
+        long now = System.nanoTime();
+        InvalidationCursor cursor = cursors.get(property);
+        try {
+            if (cursor == null) {
+                cursors.put(property, new InvalidationCursor(cacheInvalidationRepository.findMaxId(), now));
+                return;
+            }
+            if (cursor.stale) {
+                // 中断期间的消息可能已被清理，直接整体重建，从当前最大 id 继续
+                long maxId = cacheInvalidationRepository.findMaxId();
+                flushAll();
+                cursor.reset(maxId);
+                log.info("门店 {} 已恢复缓存失效消息的读取，本地缓存已整体重建", property);
+            } else {
+                long settled = cursor.appliedId;
+                List<CacheInvalidation> rows = new ArrayList<>();
+                if (!cursor.pending.isEmpty()) {
+                    // 重读空洞区间，取回晚提交的消息
+                    rows.addAll(cacheInvalidationRepository.findAfter(cursor.appliedId,
+                            PageRequest.of(0, (int) Math.min(batchSize, cursor.pending.last() - cursor.appliedId))));
+                }
+                rows.addAll(cacheInvalidationRepository.findAfter(cursor.highestSeen(), PageRequest.of(0, batchSize)));
+                apply(property, rows.stream().filter(cursor::accept).toList());
+                cursor.advance(now, gapTimeout.toNanos());
+                cursor.settledId = settled;
+            }
+            cursor.lastSuccess = now;
+        } catch (RuntimeException e) {
+            // 陈旧与否由看门狗按上次成功读取的时间判断
+            log.debug("门店 {} 读取缓存失效消息失败", property, e);
+        }
+    }
+
+    private void apply(String property, List<CacheInvalidation> rows) {
+        Map<CacheInvalidation.EntityType, Set<Long>> changed = new EnumMap<>(CacheInvalidation.EntityType.class);
+        Set<CacheInvalidation.EntityType> all = EnumSet.noneOf(CacheInvalidation.EntityType.class);
+        for (CacheInvalidation row : rows) {
+            if (nodeId.equals(row.getOriginNode())) {
+                continue;
+            }
+            if (row.getEntityId() == null) {
+                all.add(row.getEntityType());
+            } else {
+                changed.computeIfAbsent(row.getEntityType(), type -> new HashSet<>()).add(row.getEntityId());
+            }
+        }
+        all.forEach(changed::remove);
+        if (all.isEmpty() && changed.isEmpty()) {
+            return;
+        }
+
+        // 只有整体失效的消息才清空整个实体区域，其余按ID逐个失效；查询缓存无法按ID定位，仍整体清空
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Cache cache = sessionFactory.getCache();
+        all.forEach(type -> cache.evict(entityClass(type)));
+        changed.forEach((type, ids) -> evictEntities(sessionFactory, property, type, ids));
+        cache.evictQueryRegions();
+        all.forEach(type -> notifyListeners(type, Set.of()));
+        changed.forEach(this::notifyListeners);
+    }
+
+    // 开启分库时二级缓存键包含租户（门店），Cache.evictEntityData 构造的键不带租户，
+    // 因此直接用实体的缓存访问策略按正在读取的门店构造键
+    private void evictEntities(SessionFactoryImplementor sessionFactory, String property,
+                               CacheInvalidation.EntityType type, Set<Long> ids) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass(type));
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        String tenant = sessionFactory.getSessionFactoryOptions().getCurrentTenantIdentifierResolver() != null
+                ? property : null;
+        for (Long id : ids) {
+            access.evict(access.generateCacheKey(id, persister, sessionFactory, tenant));
+        }
+    }
+
+    private void flushAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        for (CacheInvalidation.EntityType type : CacheInvalidation.EntityType.values()) {
+            notifyListeners(type, Set.of());
+        }
+    }
+
+    private void notifyListeners(CacheInvalidation.EntityType type, Set<Long> ids) {
+        for (InvalidationListener listener : listeners.orderedStream().toList()) {
+            try {
+                listener.invalidate(type, ids);
+            } catch (RuntimeException e) {
+                log.warn("{} 处理 {} 失效消息失败", listener.getClass().getSimpleName(), type, e);
+            }
+        }
+    }
+
+    private CacheInvalidation message(CacheInvalidation.EntityType type, Long id) {
+        CacheInvalidation message = new CacheInvalidation();
+        message.setEntityType(type);
+        message.setEntityId(id);
+        message.setOriginNode(nodeId);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    private static Class<?> entityClass(CacheInvalidation.EntityType type) {
+        return switch (type) {
+            case ROOM -> Room.class;
+            case GUEST -> Guest.class;
+            case USER -> User.class;
+            case RESERVATION -> Reservation.class;
+        };
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private long appliedId;
+        private int pending;                    // 空洞之后已应用、等待游标推进的消息数
+        private long received;                  // 已读取的消息数，含本节点写入的
+        private long fullFlushes;               // 超过陈旧上限后整体清空的次数
+        private boolean stale;
+        private long millisSinceLastPoll;
+    }
+}
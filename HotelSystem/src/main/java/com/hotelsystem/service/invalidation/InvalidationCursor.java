@@ -0,0 +1,66 @@
+package com.hotelsystem.service.invalidation;
+
+import com.hotelsystem.entity.CacheInvalidation;
+
+import java.util.TreeSet;
+
+// 单个门店的读取进度：appliedId 之前的消息都已应用，pending 为空洞之后已应用的 id。
+// 只由读取线程修改；stale 与 lastSuccess 另由看门狗线程读写
+final class InvalidationCursor {
+
+    long appliedId;
+    long settledId;
+    final TreeSet<Long> pending = new TreeSet<>();
+    private long gapSince;
+    private boolean gapOpen;
+    volatile long lastSuccess;
+    volatile boolean stale;
+    long received;
+    volatile long fullFlushes;
+
+    InvalidationCursor(long appliedId, long now) {
+        this.appliedId = appliedId;
+        this.settledId = appliedId;
+        this.lastSuccess = now;
+    }
+
+    long highestSeen() {
+        return pending.isEmpty() ? appliedId : pending.last();
+    }
+
+    // 同一条消息只应用一次
+    boolean accept(CacheInvalidation row) {
+        if (row.getId() <= appliedId || !pending.add(row.getId())) {
+            return false;
+        }
+        received++;
+        return true;
+    }
+
+    // 连续的 id 推进游标；遇到空洞时停下等待晚提交的事务，空洞超过 gapTimeout 视为回滚跳过
+    void advance(long now, long gapTimeoutNanos) {
+        while (!pending.isEmpty()) {
+            if (pending.first() == appliedId + 1) {
+                appliedId = pending.pollFirst();
+                gapOpen = false;
+            } else if (!gapOpen) {
+                gapOpen = true;
+                gapSince = now;
+                return;
+            } else if (now - gapSince > gapTimeoutNanos) {
+                appliedId = pending.first() - 1;
+                gapOpen = false;
+            } else {
+                return;
+            }
+        }
+    }
+
+    void reset(long maxId) {
+        appliedId = maxId;
+        settledId = maxId;
+        pending.clear();
+        gapOpen = false;
+        stale = false;
+    }
+}
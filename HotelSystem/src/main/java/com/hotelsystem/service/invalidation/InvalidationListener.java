@@ -0,0 +1,11 @@
+package com.hotelsystem.service.invalidation;
+
+import com.hotelsystem.entity.CacheInvalidation;
+
+import java.util.Set;
+
+// 进程内缓存实现此接口以接收其他节点的修改；在对应门店的 PropertyContext 下调用，ids 为空表示该类型全部失效
+public interface InvalidationListener {
+
+    void invalidate(CacheInvalidation.EntityType type, Set<Long> ids);
+}
@@ -0,0 +1,46 @@
+package com.hotelsystem.service.outbox;
+
+import com.hotelsystem.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+// 以 HTTP POST 投递事件内容，事件ID放在 X-Event-Id 头中供下游去重
+@Component
+@ConditionalOnProperty(prefix = "hotel.outbox.http", name = "url")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+
+    public HttpOutboxSink(@Value("${hotel.outbox.http.url}") String url,
+                          @Value("${hotel.outbox.http.timeout:3s}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        restClient.post()
+                .header("X-Event-Id", String.valueOf(event.getId()))
+                .header("X-Event-Type", event.getEventType())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(event.getPayload())
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
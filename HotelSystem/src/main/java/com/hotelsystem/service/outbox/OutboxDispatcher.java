@@ -0,0 +1,189 @@
+package com.hotelsystem.service.outbox;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.entity.OutboxEvent;
+import com.hotelsystem.repository.OutboxEventRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 定时批量领取发件箱事件并投递到所有 OutboxSink，失败时按指数退避重试。
+// 领取、记录结果各用一个短事务，投递本身在事务之外进行，不占用行锁和数据库连接；
+// 每个事件记下已投递成功的 sink，某个 sink 失败时只重试它
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final PropertyRegistry propertyRegistry;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong lastDispatchLagMillis = new AtomicLong();
+
+    @Value("${hotel.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${hotel.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${hotel.outbox.initial-backoff:2s}")
+    private Duration initialBackoff;
+
+    @Value("${hotel.outbox.max-backoff:10m}")
+    private Duration maxBackoff;
+
+    @Value("${hotel.outbox.lease:5m}")
+    private Duration lease;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+                            PlatformTransactionManager transactionManager, PropertyRegistry propertyRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.propertyRegistry = propertyRegistry;
+    }
+
+    // 每个门店的发件箱在各自的数据库中，依次处理
+    @Scheduled(fixedDelayString = "${hotel.outbox.poll-interval:1s}")
+    public void dispatch() {
+        propertyRegistry.forEach(property -> {
+            List<OutboxEvent> claimed;
+            do {
+                claimed = transactionTemplate.execute(status -> claim());
+                if (claimed != null && !claimed.isEmpty()) {
+                    List<Delivery> deliveries = claimed.stream().map(this::deliver).toList();
+                    transactionTemplate.executeWithoutResult(status -> record(deliveries));
+                }
+            } while (claimed != null && claimed.size() == batchSize);
+        });
+    }
+
+    // 以 SKIP LOCKED 领取一批事件，把下次可投递时间推迟一个租约后立即提交：
+    // 其他节点在租约内不会重复领取，本节点宕机时租约到期后重新投递
+    private List<OutboxEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.findDispatchable(now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseUntil = now.plus(lease);
+        events.forEach(event -> event.setNextAttemptAt(leaseUntil));
+        return events;
+    }
+
+    // 依次投递到尚未成功的 sink，某个 sink 失败不影响其他 sink
+    private Delivery deliver(OutboxEvent event) {
+        Set<String> delivered = new LinkedHashSet<>(deliveredSinks(event));
+        List<String> errors = new ArrayList<>();
+        for (OutboxSink sink : sinks) {
+            if (delivered.contains(sink.getName())) {
+                continue;
+            }
+            try {
+                sink.deliver(event);
+                delivered.add(sink.getName());
+            } catch (Exception e) {
+                errors.add(sink.getName() + " " + e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        return new Delivery(event.getId(), delivered, errors.isEmpty() ? null : String.join("; ", errors));
+    }
+
+    private void record(List<Delivery> deliveries) {
+        List<Long> ids = deliveries.stream().map(Delivery::eventId).toList();
+        Map<Long, OutboxEvent> events = outboxEventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(OutboxEvent::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        for (Delivery delivery : deliveries) {
+            OutboxEvent event = events.get(delivery.eventId());
+            if (event == null) {
+                continue;
+            }
+            event.setDeliveredSinks(String.join(",", delivery.delivered()));
+            if (delivery.error() == null) {
+                event.setStatus(OutboxEvent.OutboxStatus.DISPATCHED);
+                event.setDispatchedAt(now);
+                event.setLastError(null);
+                dispatched.increment();
+                lastDispatchLagMillis.set(Duration.between(event.getCreatedAt(), now).toMillis());
+            } else {
+                scheduleRetry(event, delivery.error(), now);
+            }
+            event.setAttempts(event.getAttempts() + 1);
+        }
+    }
+
+    private static List<String> deliveredSinks(OutboxEvent event) {
+        String names = event.getDeliveredSinks();
+        return names == null || names.isBlank() ? List.of() : Arrays.asList(names.split(","));
+    }
+
+    private void scheduleRetry(OutboxEvent event, String error, LocalDateTime now) {
+        event.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        int attempt = event.getAttempts() + 1;
+        if (attempt >= maxAttempts) {
+            event.setStatus(OutboxEvent.OutboxStatus.FAILED);
+            failed.increment();
+            log.error("发件箱事件 {} ({}) 投递失败且已达最大重试次数: {}", event.getId(), event.getEventType(), error);
+            return;
+        }
+        retried.increment();
+        event.setNextAttemptAt(now.plus(backoff(attempt)));
+        log.warn("发件箱事件 {} 第 {} 次投递失败，稍后重试: {}", event.getId(), attempt, error);
+    }
+
+    private Duration backoff(int attempt) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    public Stats snapshot() {
+        LocalDateTime oldestPending = outboxEventRepository.findOldestPendingCreatedAt();
+        long oldestPendingAgeMillis = oldestPending == null ? 0
+                : Duration.between(oldestPending, LocalDateTime.now()).toMillis();
+        return new Stats(
+                outboxEventRepository.countByStatus(OutboxEvent.OutboxStatus.PENDING),
+                oldestPendingAgeMillis,
+                lastDispatchLagMillis.get(),
+                dispatched.sum(),
+                retried.sum(),
+                failed.sum());
+    }
+
+    // 一个事件本次投递的结果，error 为空表示所有 sink 都已成功
+    private record Delivery(Long eventId, Set<String> delivered, String error) {
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private long pending;
+        private long oldestPendingAgeMillis;   // 积压延迟
+        private long lastDispatchLagMillis;    // 最近一次投递距事件产生的时间
+        private long dispatched;
+        private long retried;
+        private long failed;
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotelsystem.service.outbox;
+
+import com.hotelsystem.entity.OutboxEvent;
+
+// 下游投递目标（渠道管理、客房、账务等），投递失败时抛出异常以触发重试
+public interface OutboxSink {
+
+    String getName();
+
+    void deliver(OutboxEvent event) throws Exception;
+}
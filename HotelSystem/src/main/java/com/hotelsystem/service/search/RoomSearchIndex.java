@@ -0,0 +1,485 @@
+package com.hotelsystem.service.search;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.dto.RoomDto;
+import com.hotelsystem.dto.RoomSearchRequest;
+import com.hotelsystem.dto.RoomSearchResult;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.repository.RoomRepository;
+import com.hotelsystem.service.invalidation.InvalidationListener;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+// 房间分面搜索的内存索引。
+// 每个房间的设施被驻留为位图，价格和容量各有一份按值排序的数组用于二分查找区间；
+// 索引本身不可变，写入时在锁内基于上一份快照只修补变化的房间，生成新快照，查询无锁读取 volatile 引用。
+// 各门店的房间ID互相独立，每个门店单独一份索引
+@Component
+@RequiredArgsConstructor
+public class RoomSearchIndex implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomSearchIndex.class);
+
+    private final RoomRepository roomRepository;
+    private final PropertyRegistry propertyRegistry;
+
+    // 每个门店一份索引
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    // 重建所有门店的索引
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        propertyRegistry.forEach(this::rebuild);
+    }
+
+    // 其他节点修改了房间：重新读取这些房间，已删除的移出索引
+    @Override
+    public void invalidate(CacheInvalidation.EntityType type, Set<Long> ids) {
+        if (type != CacheInvalidation.EntityType.ROOM) {
+            return;
+        }
+        String property = propertyRegistry.current();
+        if (ids.isEmpty()) {
+            rebuild(property);
+            return;
+        }
+        List<RoomDto> found = roomRepository.findAllById(ids).stream().map(RoomDto::fromEntity).toList();
+        Set<Long> removed = new HashSet<>(ids);
+        found.forEach(room -> removed.remove(room.getId()));
+        partition(property).apply(found, removed);
+    }
+
+    private void rebuild(String property) {
+        List<RoomDto> all = roomRepository.findAllDtos();
+        partition(property).replace(all);
+        log.info("门店 {} 的房间搜索索引已重建，共 {} 个房间", property, all.size());
+    }
+
+    // 在当前事务提交后更新索引；没有事务时立即更新
+    public void upsertAfterCommit(Collection<RoomDto> changed) {
+        String property = propertyRegistry.current();
+        afterCommit(() -> partition(property).apply(changed, List.of()));
+    }
+
+    public void removeAfterCommit(Long roomId) {
+        String property = propertyRegistry.current();
+        afterCommit(() -> partition(property).apply(List.of(), List.of(roomId)));
+    }
+
+    public void apply(Collection<RoomDto> upserts, Collection<Long> removals) {
+        partition(propertyRegistry.current()).apply(upserts, removals);
+    }
+
+    public RoomSearchResult search(RoomSearchRequest request) {
+        Snapshot index = partition(propertyRegistry.current()).snapshot;
+        BitSet matches = index.filter(request);
+
+        List<RoomDto> page = new ArrayList<>(request.getSize());
+        int skip = request.getPage() * request.getSize();
+        int[] order = index.order(request.getSort());
+        boolean descending = request.getSort().startsWith("-");
+        for (int i = 0; i < order.length && page.size() < request.getSize(); i++) {
+            int doc = order[descending ? order.length - 1 - i : i];
+            if (matches.get(doc) && skip-- <= 0) {
+                page.add(index.rooms[doc]);
+            }
+        }
+        return new RoomSearchResult(matches.cardinality(), request.getPage(), request.getSize(),
+                page, index.facets(matches));
+    }
+
+    private Partition partition(String property) {
+        return partitions.computeIfAbsent(property, key -> new Partition());
+    }
+
+    // 一个门店的房间集合与当前快照
+    private static final class Partition {
+
+        // 以下字段只在 synchronized 方法内修改
+        private final Map<Long, RoomDto> rooms = new HashMap<>();
+        private final Map<String, Integer> amenityIds = new HashMap<>();
+        private final List<String> amenityNames = new ArrayList<>();     // 空出的位号为 null
+        private final Map<String, Integer> amenityRooms = new HashMap<>(); // 每个设施被多少个房间引用
+        private final Deque<Integer> freeAmenityIds = new ArrayDeque<>();
+
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+        synchronized void replace(Collection<RoomDto> all) {
+            rooms.clear();
+            amenityIds.clear();
+            amenityNames.clear();
+            amenityRooms.clear();
+            freeAmenityIds.clear();
+            all.forEach(room -> track(rooms.put(room.getId(), room), room));
+            snapshot = Snapshot.build(rooms.values(), Map.copyOf(amenityIds), amenityNames.toArray(new String[0]));
+        }
+
+        synchronized void apply(Collection<RoomDto> upserts, Collection<Long> removals) {
+            // 值为 null 表示删除
+            Map<Long, RoomDto> changed = new HashMap<>();
+            for (RoomDto room : upserts) {
+                track(rooms.put(room.getId(), room), room);
+                changed.put(room.getId(), room);
+            }
+            for (Long id : removals) {
+                RoomDto previous = rooms.remove(id);
+                if (previous != null) {
+                    track(previous, null);
+                    changed.put(id, null);
+                }
+            }
+            if (!changed.isEmpty()) {
+                snapshot = snapshot.patch(changed, Map.copyOf(amenityIds), amenityNames.toArray(new String[0]));
+            }
+        }
+
+        // 维护设施的引用计数：不再被任何房间引用的设施移出字典，空出的位号留给之后出现的新设施，
+        // 位图宽度因此只取决于同时存在的设施数，而不是历史上出现过的设施数
+        private void track(RoomDto previous, RoomDto current) {
+            // 先计入新设施再扣减旧设施，房间保留的设施不会先被移出再换一个位号
+            if (current != null) {
+                for (String amenity : amenitiesOf(current)) {
+                    if (amenityRooms.merge(amenity, 1, Integer::sum) == 1) {
+                        Integer id = freeAmenityIds.poll();
+                        if (id == null) {
+                            amenityNames.add(amenity);
+                            id = amenityNames.size() - 1;
+                        } else {
+                            amenityNames.set(id, amenity);
+                        }
+                        amenityIds.put(amenity, id);
+                    }
+                }
+            }
+            if (previous != null) {
+                for (String amenity : amenitiesOf(previous)) {
+                    if (amenityRooms.compute(amenity, (key, count) -> count == 1 ? null : count - 1) == null) {
+                        int id = amenityIds.remove(amenity);
+                        amenityNames.set(id, null);
+                        freeAmenityIds.push(id);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Set<String> amenitiesOf(RoomDto room) {
+        if (room.getAmenities() == null || room.getAmenities().isBlank()) {
+            return Set.of();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String amenity : room.getAmenities().split("[,，]")) {
+            if (!amenity.isBlank()) {
+                result.add(amenity.trim());
+            }
+        }
+        return result;
+    }
+
+    // 价格以分为单位存储，缺失的价格和容量记为 -1，只要带了对应的区间条件就会被排除
+    private static long cents(BigDecimal price) {
+        return price == null ? -1 : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new RoomDto[0], new String[0], Map.of(), 1, new long[0],
+                new long[0], new int[0], new long[0], new int[0]);
+
+        private static final Comparator<RoomDto> ROOM_NUMBER_ORDER =
+                Comparator.comparing(RoomDto::getRoomNumber, Comparator.nullsLast(Comparator.naturalOrder()));
+
+        final RoomDto[] rooms;          // 按房间号排序，下标即文档号
+        final String[] amenityNames;    // 已移出字典的位号为 null
+        final Map<String, Integer> amenityIds;
+        final int words;                // 每个房间的设施位图占用的 long 个数
+        final long[] amenityBits;       // rooms.length * words
+        final long[] sortedPrices;
+        final int[] priceOrder;         // 与 sortedPrices 对应的文档号
+        final long[] sortedCapacities;
+        final int[] capacityOrder;
+        final int[] roomNumberOrder;
+
+        private Snapshot(RoomDto[] rooms, String[] amenityNames, Map<String, Integer> amenityIds, int words,
+                         long[] amenityBits, long[] sortedPrices, int[] priceOrder,
+                         long[] sortedCapacities, int[] capacityOrder) {
+            this.rooms = rooms;
+            this.amenityNames = amenityNames;
+            this.amenityIds = amenityIds;
+            this.words = words;
+            this.amenityBits = amenityBits;
+            this.sortedPrices = sortedPrices;
+            this.priceOrder = priceOrder;
+            this.sortedCapacities = sortedCapacities;
+            this.capacityOrder = capacityOrder;
+            this.roomNumberOrder = IntStream.range(0, rooms.length).toArray();
+        }
+
+        static Snapshot build(Collection<RoomDto> all, Map<String, Integer> amenityIds, String[] amenityNames) {
+            Map<Long, RoomDto> changed = new HashMap<>();
+            all.forEach(room -> changed.put(room.getId(), room));
+            return EMPTY.patch(changed, amenityIds, amenityNames);
+        }
+
+        // 未变化的房间沿用原有的设施位图以及在价格、容量数组中的相对顺序，只换成新的文档号；
+        // 只有 changed 中的房间需要解析设施并排序，再按房间号、价格、容量分别归并进去。changed 中值为 null 表示删除
+        Snapshot patch(Map<Long, RoomDto> changed, Map<String, Integer> nextAmenityIds, String[] nextAmenityNames) {
+            RoomDto[] upserts = changed.values().stream()
+                    .filter(Objects::nonNull)
+                    .sorted(ROOM_NUMBER_ORDER)
+                    .toArray(RoomDto[]::new);
+
+            // 旧文档号到新文档号的映射，删除或被替换的记为 -1
+            int[] remap = new int[rooms.length];
+            int[] upsertDocs = new int[upserts.length];
+            List<RoomDto> merged = new ArrayList<>(rooms.length + upserts.length);
+            int i = 0;
+            int j = 0;
+            while (i < rooms.length || j < upserts.length) {
+                if (i < rooms.length && changed.containsKey(rooms[i].getId())) {
+                    remap[i++] = -1;
+                } else if (j == upserts.length
+                        || (i < rooms.length && ROOM_NUMBER_ORDER.compare(rooms[i], upserts[j]) <= 0)) {
+                    remap[i] = merged.size();
+                    merged.add(rooms[i++]);
+                } else {
+                    upsertDocs[j] = merged.size();
+                    merged.add(upserts[j++]);
+                }
+            }
+            RoomDto[] nextRooms = merged.toArray(new RoomDto[0]);
+            int nextWords = Math.max(1, (nextAmenityNames.length + 63) / 64);
+
+            long[] nextBits = new long[nextRooms.length * nextWords];
+            for (int doc = 0; doc < rooms.length; doc++) {
+                if (remap[doc] >= 0) {
+                    System.arraycopy(amenityBits, doc * words, nextBits, remap[doc] * nextWords,
+                            Math.min(words, nextWords));
+                }
+            }
+            long[] upsertPrices = new long[upserts.length];
+            long[] upsertCapacities = new long[upserts.length];
+            for (int k = 0; k < upserts.length; k++) {
+                for (String amenity : amenitiesOf(upserts[k])) {
+                    int bit = nextAmenityIds.get(amenity);
+                    nextBits[upsertDocs[k] * nextWords + (bit >>> 6)] |= 1L << bit;
+                }
+                upsertPrices[k] = cents(upserts[k].getPrice());
+                upsertCapacities[k] = upserts[k].getCapacity() != null ? upserts[k].getCapacity() : -1;
+            }
+
+            long[] nextPrices = new long[nextRooms.length];
+            int[] nextPriceOrder = new int[nextRooms.length];
+            merge(sortedPrices, priceOrder, remap, upsertPrices, upsertDocs, nextPrices, nextPriceOrder);
+            long[] nextCapacities = new long[nextRooms.length];
+            int[] nextCapacityOrder = new int[nextRooms.length];
+            merge(sortedCapacities, capacityOrder, remap, upsertCapacities, upsertDocs,
+                    nextCapacities, nextCapacityOrder);
+            return new Snapshot(nextRooms, nextAmenityNames, nextAmenityIds, nextWords, nextBits,
+                    nextPrices, nextPriceOrder, nextCapacities, nextCapacityOrder);
+        }
+
+        // 旧数组去掉失效文档、换成新文档号后仍按 (值, 文档号) 有序，与排好序的变化房间归并即可
+        private static void merge(long[] sorted, int[] order, int[] remap, long[] upsertValues, int[] upsertDocs,
+                                  long[] values, int[] docs) {
+            int[] added = IntStream.range(0, upsertValues.length).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(k -> upsertValues[k]).thenComparingInt(k -> upsertDocs[k]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int out = 0;
+            int a = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                int doc = remap[order[i]];
+                if (doc < 0) {
+                    continue;
+                }
+                while (a < added.length && (upsertValues[added[a]] < sorted[i]
+                        || (upsertValues[added[a]] == sorted[i] && upsertDocs[added[a]] < doc))) {
+                    values[out] = upsertValues[added[a]];
+                    docs[out++] = upsertDocs[added[a++]];
+                }
+                values[out] = sorted[i];
+                docs[out++] = doc;
+            }
+            while (a < added.length) {
+                values[out] = upsertValues[added[a]];
+                docs[out++] = upsertDocs[added[a++]];
+            }
+        }
+
+        BitSet filter(RoomSearchRequest request) {
+            int n = rooms.length;
+            BitSet matches = new BitSet(n);
+            matches.set(0, n);
+
+            if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+                long min = Math.max(0, request.getMinPrice() != null ? cents(request.getMinPrice()) : 0);
+                long max = request.getMaxPrice() != null ? cents(request.getMaxPrice()) : Long.MAX_VALUE;
+                matches.and(range(lowerBound(sortedPrices, min), upperBound(sortedPrices, max), priceOrder));
+            }
+            if (request.getMinCapacity() != null || request.getMaxCapacity() != null) {
+                int min = Math.max(0, request.getMinCapacity() != null ? request.getMinCapacity() : 0);
+                int max = request.getMaxCapacity() != null ? request.getMaxCapacity() : Integer.MAX_VALUE;
+                matches.and(range(lowerBound(sortedCapacities, min), upperBound(sortedCapacities, max), capacityOrder));
+            }
+
+            long[] required = new long[words];
+            if (request.getAmenities() != null) {
+                for (String amenity : request.getAmenities()) {
+                    Integer bit = amenityIds.get(amenity.trim());
+                    if (bit == null) {
+                        return new BitSet();
+                    }
+                    required[bit >>> 6] |= 1L << bit;
+                }
+            }
+
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                RoomDto room = rooms[doc];
+                if (!hasAll(doc, required)
+                        || (request.getRoomType() != null && !request.getRoomType().equals(room.getRoomType()))
+                        || (request.getStatus() != null && request.getStatus() != room.getStatus())
+                        || (request.getIsActive() != null && !request.getIsActive().equals(room.getIsActive()))) {
+                    matches.clear(doc);
+                }
+            }
+            return matches;
+        }
+
+        int[] order(String sort) {
+            return switch (sort.startsWith("-") ? sort.substring(1) : sort) {
+                case "price" -> priceOrder;
+                case "capacity" -> capacityOrder;
+                default -> roomNumberOrder;
+            };
+        }
+
+        Map<String, Map<String, Integer>> facets(BitSet matches) {
+            int[] amenityCounts = new int[amenityNames.length];
+            Map<String, Integer> roomTypes = new TreeMap<>();
+            Map<String, Integer> statuses = new TreeMap<>();
+            Map<Integer, Integer> capacities = new TreeMap<>();
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                for (int w = 0; w < words; w++) {
+                    long bits = amenityBits[doc * words + w];
+                    while (bits != 0) {
+                        amenityCounts[(w << 6) + Long.numberOfTrailingZeros(bits)]++;
+                        bits &= bits - 1;
+                    }
+                }
+                RoomDto room = rooms[doc];
+                if (room.getRoomType() != null) {
+                    roomTypes.merge(room.getRoomType(), 1, Integer::sum);
+                }
+                if (room.getStatus() != null) {
+                    statuses.merge(room.getStatus().name(), 1, Integer::sum);
+                }
+                if (room.getCapacity() != null) {
+                    capacities.merge(room.getCapacity(), 1, Integer::sum);
+                }
+            }
+
+            Map<String, Integer> amenities = new TreeMap<>();
+            for (int bit = 0; bit < amenityCounts.length; bit++) {
+                if (amenityCounts[bit] > 0) {
+                    amenities.put(amenityNames[bit], amenityCounts[bit]);
+                }
+            }
+            Map<String, Integer> capacityFacet = new LinkedHashMap<>();
+            capacities.forEach((capacity, count) -> capacityFacet.put(String.valueOf(capacity), count));
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("amenities", amenities);
+            facets.put("roomType", roomTypes);
+            facets.put("status", statuses);
+            facets.put("capacity", capacityFacet);
+            return facets;
+        }
+
+        private boolean hasAll(int doc, long[] required) {
+            for (int w = 0; w < words; w++) {
+                if ((amenityBits[doc * words + w] & required[w]) != required[w]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static BitSet range(int from, int to, int[] order) {
+            BitSet result = new BitSet(order.length);
+            for (int i = from; i < to; i++) {
+                result.set(order[i]);
+            }
+            return result;
+        }
+
+        // 第一个 >= value 的位置
+        private static int lowerBound(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // 第一个 > value 的位置
+        private static int upperBound(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
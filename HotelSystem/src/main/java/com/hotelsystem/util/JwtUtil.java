@@ -3,10 +3,13 @@ package com.hotelsystem.util;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,15 +23,28 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24小时
     private long expiration;
 
-    private SecretKey getSigningKey() {
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // 密钥和解析器只构建一次，二者都是线程安全的
+    @PostConstruct
+    public void init() {
         // 在 0.12.x 中，secret 必须是至少 32 字节的字符串
-        byte[] keyBytes = secret.getBytes();
-        return Jwts.SIG.HS256.key().build();
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    private SecretKey getSigningKey() {
+        return signingKey;
     }
 
-    public String generateToken(String username, String role) {
+    public String generateToken(String username, String role, String property) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
+        claims.put("property", property); // 所属门店，决定请求路由到哪个门店的数据库
 
         return Jwts.builder()
                 .claims(claims)
@@ -40,10 +56,6 @@ public class JwtUtil {
     }
 
     public Claims extractClaims(String token) {
-        JwtParser parser = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build();
-
         return parser.parseSignedClaims(token).getPayload();
     }
 
@@ -55,6 +67,10 @@ public class JwtUtil {
         return extractClaims(token).get("role", String.class);
     }
 
+    public String extractProperty(String token) {
+        return extractClaims(token).get("property", String.class);
+    }
+
     public Date extractExpiration(String token) {
         return extractClaims(token).getExpiration();
     }
@@ -0,0 +1,87 @@
+-- 基线表结构，与实体映射保持一致
+-- 使用 IF NOT EXISTS，已由 ddl-auto: update 建好表的库也可以直接接入迁移
+
+CREATE TABLE IF NOT EXISTS users (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    username    VARCHAR(50)  NOT NULL,
+    password    VARCHAR(100) NOT NULL,
+    full_name   VARCHAR(50)  NOT NULL,
+    email       VARCHAR(100),
+    phone       VARCHAR(20),
+    role        VARCHAR(20),
+    is_active   BIT,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS rooms (
+    id           BIGINT        NOT NULL AUTO_INCREMENT,
+    room_number  VARCHAR(20)   NOT NULL,
+    room_type    VARCHAR(50)   NOT NULL,
+    description  VARCHAR(200),
+    price        DECIMAL(38, 2),
+    capacity     INT,
+    amenities    VARCHAR(100),
+    status       VARCHAR(20),
+    is_active    BIT,
+    created_at   DATETIME(6),
+    updated_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rooms_room_number UNIQUE (room_number)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS guests (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    full_name         VARCHAR(50)  NOT NULL,
+    id_card_number    VARCHAR(20)  NOT NULL,
+    phone             VARCHAR(20),
+    email             VARCHAR(100),
+    gender            VARCHAR(10),
+    date_of_birth     DATE,
+    address           VARCHAR(200),
+    preferences       VARCHAR(100),
+    special_requests  VARCHAR(500),
+    created_at        DATETIME(6),
+    updated_at        DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_guests_id_card_number UNIQUE (id_card_number)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS reservations (
+    id                  BIGINT       NOT NULL AUTO_INCREMENT,
+    reservation_number  VARCHAR(50)  NOT NULL,
+    guest_id            BIGINT       NOT NULL,
+    room_id             BIGINT       NOT NULL,
+    check_in_date       DATE         NOT NULL,
+    check_out_date      DATE         NOT NULL,
+    number_of_guests    INT,
+    total_amount        DECIMAL(38, 2),
+    paid_amount         DECIMAL(38, 2),
+    status              VARCHAR(20),
+    special_requests    VARCHAR(500),
+    created_by          VARCHAR(255),
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reservations_guest FOREIGN KEY (guest_id) REFERENCES guests (id),
+    CONSTRAINT fk_reservations_room FOREIGN KEY (room_id) REFERENCES rooms (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    aggregate_type   VARCHAR(50)  NOT NULL,
+    aggregate_id     BIGINT,
+    event_type       VARCHAR(50)  NOT NULL,
+    payload          LONGTEXT,
+    status           VARCHAR(20),
+    attempts         INT,
+    next_attempt_at  DATETIME(6),
+    last_error       VARCHAR(500),
+    created_at       DATETIME(6),
+    dispatched_at    DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_outbox_status_next_attempt (status, next_attempt_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
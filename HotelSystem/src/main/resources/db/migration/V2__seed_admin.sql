@@ -0,0 +1,6 @@
+-- 默认管理员（用户名 admin，密码 admin123），取代启动时 DataInitializer 的 BCrypt 计算
+INSERT INTO users (username, password, full_name, email, phone, role, is_active, created_at, updated_at)
+SELECT 'admin', '$2a$10$Gn3ptG5VxnKQNl1HqCxcVunhLp.IbDTi28bwX5JGakhj/qFL8za9u', '系统管理员',
+       'admin@hotel.com', '13800138000', 'ADMIN', TRUE, NOW(6), NOW(6)
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'admin');
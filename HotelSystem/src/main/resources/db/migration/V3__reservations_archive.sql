@@ -0,0 +1,25 @@
+-- 历史预订归档表，结构与 reservations 相同并保留原ID；
+-- 归档数据只读且多为文本，使用 InnoDB 压缩行格式
+CREATE TABLE IF NOT EXISTS reservations_archive (
+    id                  BIGINT       NOT NULL,
+    reservation_number  VARCHAR(50)  NOT NULL,
+    guest_id            BIGINT       NOT NULL,
+    room_id             BIGINT       NOT NULL,
+    check_in_date       DATE         NOT NULL,
+    check_out_date      DATE         NOT NULL,
+    number_of_guests    INT,
+    total_amount        DECIMAL(38, 2),
+    paid_amount         DECIMAL(38, 2),
+    status              VARCHAR(20),
+    special_requests    VARCHAR(500),
+    created_by          VARCHAR(255),
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    archived_at         DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_reservations_archive_guest (guest_id),
+    INDEX idx_reservations_archive_check_in (check_in_date)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 ROW_FORMAT = COMPRESSED KEY_BLOCK_SIZE = 8;
+
+-- 归档任务按 状态 + 离店日期 领取待归档预订
+CREATE INDEX idx_reservations_status_check_out ON reservations (status, check_out_date);
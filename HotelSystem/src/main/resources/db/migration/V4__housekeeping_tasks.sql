@@ -0,0 +1,15 @@
+-- 房务清洁任务；分配和完成状态由应用批量写回
+CREATE TABLE IF NOT EXISTS housekeeping_tasks (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    room_id            BIGINT       NOT NULL,
+    room_number        VARCHAR(20),
+    reason             VARCHAR(20),
+    status             VARCHAR(20),
+    next_arrival_date  DATE,
+    assignee           VARCHAR(50),
+    created_at         DATETIME(6),
+    assigned_at        DATETIME(6),
+    completed_at       DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_housekeeping_tasks_status (status)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,11 @@
+-- 幂等请求的响应缓存，过期记录由应用定时清理
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    key_hash      VARCHAR(64)  NOT NULL,
+    request_hash  VARCHAR(64)  NOT NULL,
+    status_code   INT,
+    content_type  VARCHAR(100),
+    body          MEDIUMBLOB,
+    created_at    DATETIME(6),
+    PRIMARY KEY (key_hash),
+    INDEX idx_idempotency_keys_created_at (created_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,6 @@
+-- 组合查询 GET /reservations/search 常用的过滤与排序列
+-- 宾客、房间条件带上入住日期，按默认的入住日期排序时可直接走索引
+CREATE INDEX idx_reservations_check_in ON reservations (check_in_date);
+CREATE INDEX idx_reservations_guest_check_in ON reservations (guest_id, check_in_date);
+CREATE INDEX idx_reservations_room_check_in ON reservations (room_id, check_in_date);
+CREATE INDEX idx_reservations_status_check_in ON reservations (status, check_in_date);
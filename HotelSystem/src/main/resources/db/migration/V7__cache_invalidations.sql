@@ -0,0 +1,10 @@
+-- 集群内本地缓存的失效消息，各节点按 id 顺序轮询，过期记录由应用定时清理
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    entity_type  VARCHAR(20)  NOT NULL,
+    entity_id    BIGINT,
+    origin_node  VARCHAR(64),
+    created_at   DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_cache_invalidations_created_at (created_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,4 @@
+-- 幂等键在执行前先占位，已有记录都是完成的响应
+ALTER TABLE idempotency_keys
+    ADD COLUMN state       VARCHAR(20) NOT NULL DEFAULT 'COMPLETED' AFTER request_hash,
+    ADD COLUMN owner_token VARCHAR(36) AFTER state;
@@ -0,0 +1,3 @@
+-- 记录每个事件已投递成功的 sink，重试时只投递失败的 sink
+ALTER TABLE outbox_events
+    ADD COLUMN delivered_sinks VARCHAR(200) AFTER status;
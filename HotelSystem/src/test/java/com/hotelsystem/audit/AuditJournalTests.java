@@ -0,0 +1,180 @@
+package com.hotelsystem.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelsystem.config.PropertyContext;
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditJournalTests {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final int INDEX_INTERVAL = 8;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long base = System.currentTimeMillis() - Duration.ofHours(1).toMillis();
+    private PropertyRegistry propertyRegistry = new PropertyRegistry(new ShardingProperties());
+    private AuditJournal journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) {
+            journal.stop();
+        }
+        propertyRegistry.shutdown();
+    }
+
+    @Test
+    void recordsAreReadBackByIdAndTimeRangeAcrossSegments() throws IOException {
+        // 记录 i 的时间戳为 base + i 秒，实体ID 依次为 1..4，分在两个段中
+        segment(0, 200);
+        segment(200, 300);
+        journal = start(0, Duration.ZERO);
+
+        List<AuditRecord> records = journal.query(AuditEntityType.ROOM, 3L,
+                Instant.ofEpochMilli(at(50)), Instant.ofEpochMilli(at(250)), 100);
+
+        List<Integer> expected = IntStream.rangeClosed(50, 250).filter(i -> i % 4 == 2).boxed().toList();
+        assertThat(records).extracting(record -> record.getChanges().at("/i/1").asInt())
+                .containsExactlyElementsOf(expected);
+        assertThat(records).extracting(AuditJournalTests::epochMillis)
+                .containsExactlyElementsOf(expected.stream().map(this::at).toList());
+        assertThat(journal.query(AuditEntityType.ROOM, 3L,
+                Instant.ofEpochMilli(at(50)), Instant.ofEpochMilli(at(250)), 5)).hasSize(5);
+        assertThat(journal.query(AuditEntityType.GUEST, 3L,
+                Instant.ofEpochMilli(at(0)), Instant.ofEpochMilli(at(300)), 100)).isEmpty();
+    }
+
+    @Test
+    void appendedRecordIsReadBack() throws Exception {
+        journal = start(0, Duration.ZERO);
+        Instant from = Instant.now();
+
+        journal.append(AuditEntityType.RESERVATION, 9L, AuditAction.UPDATE, Map.of("status", new Object[]{"CONFIRMED", "CHECKED_IN"}));
+
+        assertThat(awaitRecords(AuditEntityType.RESERVATION, 9L, from)).singleElement().satisfies(record -> {
+            assertThat(record.getAction()).isEqualTo(AuditAction.UPDATE);
+            assertThat(record.getChanges().at("/status/1").asText()).isEqualTo("CHECKED_IN");
+        });
+    }
+
+    @Test
+    void eachPropertyReadsOnlyItsOwnRecords() throws Exception {
+        ShardingProperties sharding = new ShardingProperties();
+        sharding.setEnabled(true);
+        sharding.getShards().put("default", new ShardingProperties.Shard());
+        sharding.getShards().put("hz", new ShardingProperties.Shard());
+        propertyRegistry.shutdown();
+        propertyRegistry = new PropertyRegistry(sharding);
+        journal = start(0, Duration.ZERO);
+        Instant from = Instant.now();
+
+        // 两个门店数据库中ID相同的房间
+        journal.append(AuditEntityType.ROOM, 5L, AuditAction.UPDATE, Map.of("price", new Object[]{100, 200}));
+        PropertyContext.runWith("hz", () ->
+                journal.append(AuditEntityType.ROOM, 5L, AuditAction.UPDATE, Map.of("price", new Object[]{300, 400})));
+
+        assertThat(awaitRecords(AuditEntityType.ROOM, 5L, from))
+                .extracting(record -> record.getChanges().at("/price/1").asInt()).containsExactly(200);
+        assertThat(PropertyContext.callWith("hz", () -> journal.query(AuditEntityType.ROOM, 5L, from, Instant.now(), 10)))
+                .extracting(record -> record.getChanges().at("/price/1").asInt()).containsExactly(400);
+        try (Stream<Path> files = Files.list(directory.resolve("hz"))) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void oldestSegmentsBeyondTheLimitAreDeleted() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            segment(i * 10, i * 10 + 10);
+        }
+        journal = start(2, Duration.ZERO);
+
+        assertThat(segmentFiles()).containsExactly(fileName(20), fileName(30));
+        assertThat(journal.query(AuditEntityType.ROOM, 1L,
+                Instant.ofEpochMilli(at(0)), Instant.ofEpochMilli(at(40)), 100))
+                .extracting(record -> record.getChanges().at("/i/1").asInt())
+                .containsExactly(20, 24, 28, 32, 36);
+    }
+
+    @Test
+    void segmentsPastRetentionAreDeleted() throws IOException {
+        long expired = base - Duration.ofDays(10).toMillis();
+        write(expired, 0, 10);
+        segment(0, 10);
+        journal = start(0, Duration.ofDays(7));
+
+        assertThat(segmentFiles()).containsExactly(fileName(0));
+        assertThat(journal.query(AuditEntityType.ROOM, 1L,
+                Instant.ofEpochMilli(expired), Instant.ofEpochMilli(at(10)), 100)).hasSize(3);
+    }
+
+    private AuditJournal start(int maxSegments, Duration retention) throws IOException {
+        AuditJournal started = new AuditJournal(objectMapper, propertyRegistry, directory.toString(),
+                DataSize.ofBytes(SEGMENT_SIZE), INDEX_INTERVAL, Duration.ofMillis(50), 1024, maxSegments, retention);
+        started.start();
+        return started;
+    }
+
+    // 等待写线程落盘，默认门店下查询
+    private List<AuditRecord> awaitRecords(AuditEntityType type, long id, Instant from) throws InterruptedException {
+        List<AuditRecord> records = List.of();
+        for (int i = 0; i < 100 && records.isEmpty(); i++) {
+            Thread.sleep(20);
+            records = journal.query(type, id, from, Instant.now(), 10);
+        }
+        return records;
+    }
+
+    private void segment(int from, int to) throws IOException {
+        write(base, from, to);
+    }
+
+    // 写入记录 from..to-1，记录 i 的时间戳为 start + i 秒
+    private void write(long start, int from, int to) throws IOException {
+        AuditSegment segment = AuditSegment.open(directory.resolve(String.format("audit-%020d.seg", start + from * 1000L)),
+                SEGMENT_SIZE, INDEX_INTERVAL);
+        for (int i = from; i < to; i++) {
+            segment.append(start + i * 1000L, AuditEntityType.ROOM, i % 4 + 1, AuditAction.UPDATE,
+                    objectMapper.writeValueAsBytes(Map.of("i", new Object[]{i - 1, i})));
+        }
+        segment.force();
+    }
+
+    private long at(int i) {
+        return base + i * 1000L;
+    }
+
+    private String fileName(int i) {
+        return String.format("audit-%020d.seg", at(i));
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static long epochMillis(AuditRecord record) {
+        return record.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,57 @@
+package com.hotelsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTests {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void saturatedReportingBulkheadShedsWithRetryAfter() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setReporting(new AdmissionProperties.Limits(1, 0, Duration.ofMillis(100), Duration.ofMillis(100), true));
+        properties.getReporting().setRetryAfter(Duration.ofSeconds(3));
+        AdmissionControl admissionControl = new AdmissionControl(properties);
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionControl, new ObjectMapper());
+
+        // 占满报表类的唯一名额
+        AdmissionControl.Bulkhead reporting = admissionControl.bulkhead(RequestClass.REPORTING);
+        assertThat(reporting.acquire()).isTrue();
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "manager", null, AuthorityUtils.createAuthorityList("ROLE_MANAGER")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/reservations/export"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(response.getContentAsString()).contains("\"success\":false");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(admissionControl.snapshot().get(RequestClass.REPORTING).getShed()).isEqualTo(1);
+
+        // 其他类别不受影响
+        MockFilterChain receptionChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/rooms/available"), new MockHttpServletResponse(), receptionChain);
+        assertThat(receptionChain.getRequest()).isNotNull();
+        assertThat(admissionControl.snapshot().get(RequestClass.GENERAL).getShed()).isZero();
+
+        reporting.release();
+    }
+}
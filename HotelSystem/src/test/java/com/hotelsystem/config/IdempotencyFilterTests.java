@@ -0,0 +1,240 @@
+package com.hotelsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelsystem.entity.IdempotencyKey;
+import com.hotelsystem.repository.IdempotencyKeyRepository;
+import com.hotelsystem.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 两个节点各自持有 IdempotencyStore（本地等待表互不可见），共享同一张 idempotency_keys 表
+class IdempotencyFilterTests {
+
+    private final Map<String, IdempotencyKey> table = new ConcurrentHashMap<>();
+    private final IdempotencyKeyRepository repository = sharedTable();
+    private final PropertyRegistry propertyRegistry = new PropertyRegistry(new ShardingProperties());
+    private final ExecutorService clients = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+    }
+
+    @Test
+    void concurrentRetriesOnDifferentNodesExecuteOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            sleep(200);
+            ((HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+        IdempotencyFilter nodeA = node(Duration.ofSeconds(5));
+        IdempotencyFilter nodeB = node(Duration.ofSeconds(5));
+
+        List<MockHttpServletResponse> responses = sendTogether(nodeA, nodeB, chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getStatus()).isEqualTo(201);
+            assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        });
+        assertThat(responses).filteredOn(response -> response.getHeader("Idempotent-Replayed") != null).hasSize(1);
+        assertThat(table.values()).singleElement()
+                .satisfies(key -> assertThat(key.getState()).isEqualTo(IdempotencyKey.State.COMPLETED));
+    }
+
+    @Test
+    void failedFirstAttemptReleasesKeyForRetryOnOtherNode() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            boolean first = executions.incrementAndGet() == 1;
+            sleep(200);
+            ((HttpServletResponse) response).setStatus(first ? 503 : 201);
+        };
+        IdempotencyFilter nodeA = node(Duration.ofSeconds(5));
+        IdempotencyFilter nodeB = node(Duration.ofSeconds(5));
+
+        List<MockHttpServletResponse> responses = sendTogether(nodeA, nodeB, chain);
+
+        assertThat(executions).hasValue(2);
+        assertThat(responses).extracting(MockHttpServletResponse::getStatus).containsExactlyInAnyOrder(503, 201);
+        assertThat(table.values()).singleElement()
+                .satisfies(key -> assertThat(key.getStatusCode()).isEqualTo(201));
+    }
+
+    @Test
+    void pendingKeyHeldByAnotherNodeReturnsConflictAfterWaitTimeout() throws Exception {
+        IdempotencyFilter nodeA = node(Duration.ofSeconds(5));
+        IdempotencyFilter nodeB = node(Duration.ofMillis(100));
+        AtomicInteger executions = new AtomicInteger();
+        FilterChain hangs = (request, response) -> {
+            executions.incrementAndGet();
+            sleep(1000);
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        Future<MockHttpServletResponse> first = clients.submit(() -> send(nodeA, hangs));
+        while (table.isEmpty()) {
+            sleep(5);
+        }
+        MockHttpServletResponse retry = send(nodeB, hangs);
+
+        assertThat(retry.getStatus()).isEqualTo(409);
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+    }
+
+    private List<MockHttpServletResponse> sendTogether(IdempotencyFilter nodeA, IdempotencyFilter nodeB,
+                                                       FilterChain chain) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+        for (IdempotencyFilter node : List.of(nodeA, nodeB)) {
+            Callable<MockHttpServletResponse> client = () -> {
+                start.await();
+                return send(node, chain);
+            };
+            futures.add(clients.submit(client));
+        }
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        for (Future<MockHttpServletResponse> future : futures) {
+            responses.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    private MockHttpServletResponse send(IdempotencyFilter node, FilterChain chain) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reception", null, List.of()));
+        try {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/reservations");
+            request.addHeader(IdempotencyFilter.HEADER, "booking-42");
+            request.setContent("{\"roomId\":7}".getBytes(StandardCharsets.UTF_8));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            node.doFilter(request, response, chain);
+            return response;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private IdempotencyFilter node(Duration waitTimeout) {
+        IdempotencyStore store = new IdempotencyStore(repository, propertyRegistry, Duration.ofHours(24), 100,
+                Duration.ofMinutes(5), Duration.ofMillis(10));
+        return new IdempotencyFilter(store, propertyRegistry, new ObjectMapper(), waitTimeout);
+    }
+
+    // 按主键互斥的内存表，语义与 IdempotencyKeyRepository 上的 SQL 一致
+    private IdempotencyKeyRepository sharedTable() {
+        IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+        when(repository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<String>getArgument(0))).map(IdempotencyFilterTests::copy));
+        when(repository.insertPending(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            IdempotencyKey key = new IdempotencyKey();
+            key.setKeyHash(invocation.getArgument(0));
+            key.setRequestHash(invocation.getArgument(1));
+            key.setState(IdempotencyKey.State.PENDING);
+            key.setOwnerToken(invocation.getArgument(2));
+            key.setCreatedAt(invocation.getArgument(3));
+            if (table.putIfAbsent(key.getKeyHash(), key) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'");
+            }
+            return 1;
+        });
+        when(repository.takeOver(anyString(), anyString(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime abandonedBefore = invocation.getArgument(4);
+            LocalDateTime expiredBefore = invocation.getArgument(5);
+            IdempotencyKey taken = table.computeIfPresent(invocation.getArgument(0), (hash, key) -> {
+                boolean pending = key.getState() == IdempotencyKey.State.PENDING;
+                if (!key.getCreatedAt().isBefore(pending ? abandonedBefore : expiredBefore)) {
+                    return key;
+                }
+                IdempotencyKey replaced = copy(key);
+                replaced.setState(IdempotencyKey.State.PENDING);
+                replaced.setRequestHash(invocation.getArgument(1));
+                replaced.setOwnerToken(invocation.getArgument(2));
+                replaced.setCreatedAt(invocation.getArgument(3));
+                return replaced;
+            });
+            return taken != null && invocation.getArgument(2).equals(taken.getOwnerToken()) ? 1 : 0;
+        });
+        when(repository.complete(anyString(), anyString(), anyInt(), nullable(String.class), any(), any()))
+                .thenAnswer(invocation -> {
+                    AtomicInteger updated = new AtomicInteger();
+                    table.computeIfPresent(invocation.getArgument(0), (hash, key) -> {
+                        if (key.getState() != IdempotencyKey.State.PENDING
+                                || !key.getOwnerToken().equals(invocation.getArgument(1))) {
+                            return key;
+                        }
+                        IdempotencyKey completed = copy(key);
+                        completed.setState(IdempotencyKey.State.COMPLETED);
+                        completed.setStatusCode(invocation.getArgument(2));
+                        completed.setContentType(invocation.getArgument(3));
+                        completed.setBody(invocation.getArgument(4));
+                        completed.setCreatedAt(invocation.getArgument(5));
+                        updated.incrementAndGet();
+                        return completed;
+                    });
+                    return updated.get();
+                });
+        when(repository.deletePending(anyString(), anyString())).thenAnswer(invocation -> {
+            IdempotencyKey key = table.get(invocation.<String>getArgument(0));
+            boolean mine = key != null && key.getState() == IdempotencyKey.State.PENDING
+                    && key.getOwnerToken().equals(invocation.getArgument(1));
+            return mine && table.remove(key.getKeyHash(), key) ? 1 : 0;
+        });
+        return repository;
+    }
+
+    private static IdempotencyKey copy(IdempotencyKey key) {
+        IdempotencyKey copy = new IdempotencyKey();
+        copy.setKeyHash(key.getKeyHash());
+        copy.setRequestHash(key.getRequestHash());
+        copy.setState(key.getState());
+        copy.setOwnerToken(key.getOwnerToken());
+        copy.setStatusCode(key.getStatusCode());
+        copy.setContentType(key.getContentType());
+        copy.setBody(key.getBody());
+        copy.setCreatedAt(key.getCreatedAt());
+        return copy;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hotelsystem.config;
+
+import com.hotelsystem.metrics.EndpointLatencyRecorder;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LatencyFilterTests {
+
+    private final EndpointLatencyRecorder recorder = new EndpointLatencyRecorder();
+    private final LatencyFilter filter = new LatencyFilter(recorder, true);
+
+    @Test
+    void recordsByMatchedPatternAndRethrowsFailures() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rooms/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/rooms/{id}");
+
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            throw new ServletException("处理失败");
+        })).isInstanceOf(ServletException.class).hasMessage("处理失败");
+
+        assertThat(recorder.snapshot()).containsOnlyKeys("GET /rooms/{id}");
+    }
+
+    @Test
+    void skipsAsyncRequestsWithoutSwallowingFailures() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events");
+        request.setAsyncSupported(true);
+
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.startAsync();
+            throw new IllegalStateException("异步处理失败");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(recorder.snapshot()).isEmpty();
+    }
+}
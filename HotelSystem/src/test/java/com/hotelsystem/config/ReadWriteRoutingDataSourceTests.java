@@ -0,0 +1,160 @@
+package com.hotelsystem.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 用两个内嵌 H2 库分别模拟主库和副本
+class ReadWriteRoutingDataSourceTests {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = embeddedDatabase("primary");
+        replica = embeddedDatabase("replica");
+
+        routingDataSource = new ReadWriteRoutingDataSource(Duration.ofMinutes(1));
+        routingDataSource.setTargetDataSources(Map.of(
+                DataSourceRole.PRIMARY, primary,
+                DataSourceRole.REPLICA, replica));
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+        wire();
+    }
+
+    private void wire() {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        String readOnlyDatabase = readOnly.execute(status -> currentDatabase());
+        String readWriteDatabase = readWrite.execute(status -> currentDatabase());
+
+        assertThat(readOnlyDatabase).isEqualTo("replica");
+        assertThat(readWriteDatabase).isEqualTo("primary");
+        assertThat(currentDatabase()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStayOnPrimaryAfterOwnWrite() {
+        authenticate("reception");
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE db_info SET name = name"));
+
+        String database = readOnly.execute(status -> currentDatabase());
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void readYourWritesWindowStartsAtCommit() {
+        useReadYourWritesWindow(Duration.ofMillis(200));
+        authenticate("reception");
+
+        // 写事务本身比窗口长，提交后读仍应走主库
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE db_info SET name = name");
+            sleep(300);
+        });
+
+        String database = readOnly.execute(status -> currentDatabase());
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinReadsToPrimary() {
+        authenticate("reception");
+
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE db_info SET name = name");
+            status.setRollbackOnly();
+        });
+
+        String database = readOnly.execute(status -> currentDatabase());
+        assertThat(database).isEqualTo("replica");
+        assertThat(routingDataSource.isWithinReadYourWritesWindow()).isFalse();
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        routingDataSource.setReplicaUsable(false);
+        String whileLagging = readOnly.execute(status -> currentDatabase());
+        assertThat(whileLagging).isEqualTo("primary");
+
+        routingDataSource.setReplicaUsable(true);
+        String afterCatchUp = readOnly.execute(status -> currentDatabase());
+        assertThat(afterCatchUp).isEqualTo("replica");
+    }
+
+    private void useReadYourWritesWindow(Duration window) {
+        routingDataSource = new ReadWriteRoutingDataSource(window);
+        routingDataSource.setTargetDataSources(Map.of(
+                DataSourceRole.PRIMARY, primary,
+                DataSourceRole.REPLICA, replica));
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+        wire();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM db_info", String.class);
+    }
+
+    private static EmbeddedDatabase embeddedDatabase(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("CREATE TABLE db_info (name VARCHAR(20))");
+        jdbc.update("INSERT INTO db_info (name) VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hotelsystem.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardingConfigTests {
+
+    private final ApplicationContextRunner context = new ApplicationContextRunner()
+            .withUserConfiguration(ShardingConfig.class, ReplicaDataSourceConfig.class)
+            .withPropertyValues(
+                    "hotel.sharding.shards.default.url=jdbc:h2:mem:shard_default",
+                    "hotel.datasource.replica.url=jdbc:h2:mem:replica");
+
+    @Test
+    void shardingWithReplicaFailsFastWithTheReason() {
+        context.withPropertyValues("hotel.sharding.enabled=true", "hotel.datasource.replica.enabled=true")
+                .run(started -> assertThat(started).getFailure()
+                        .rootCause()
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessageContaining("不能同时开启"));
+    }
+
+    @Test
+    void shardingAloneStarts() {
+        context.withPropertyValues("hotel.sharding.enabled=true")
+                .run(started -> assertThat(started).hasNotFailed().hasSingleBean(PropertyRoutingDataSource.class));
+    }
+}
@@ -0,0 +1,84 @@
+package com.hotelsystem.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.hotelsystem.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 转换器列表按 Boot 的方式组装（含 Spring 默认注册的 CBOR / Smile 转换器），再交给 WebConfig 调整
+class WebConfigTests {
+
+    private final ApplicationContextRunner jackson = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class));
+
+    @Test
+    void binaryFormatsEncodeDatesLikeJson() {
+        jackson.run(context -> {
+            MockMvc mockMvc = mockMvc(context.getBean(ObjectMapper.class),
+                    context.getBeanProvider(Jackson2ObjectMapperBuilderCustomizer.class).orderedStream().toList());
+
+            byte[] json = mockMvc.perform(get("/stay").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+            byte[] cbor = mockMvc.perform(get("/stay").accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn().getResponse().getContentAsByteArray();
+            byte[] smile = mockMvc.perform(get("/stay").accept(MediaType.valueOf("application/x-jackson-smile")))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode expected = new ObjectMapper().readTree(json);
+            assertThat(expected.at("/data/checkIn").asText()).isEqualTo("2026-10-19");
+            assertThat(new CBORMapper().readTree(cbor)).isEqualTo(expected);
+            assertThat(new SmileMapper().readTree(smile)).isEqualTo(expected);
+        });
+    }
+
+    private static MockMvc mockMvc(ObjectMapper objectMapper, List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(
+                new HttpMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper)).getConverters());
+        new WebConfig(customizers).extendMessageConverters(converters);
+        return MockMvcBuilders.standaloneSetup(new StayController())
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+    }
+
+    @RestController
+    static class StayController {
+
+        @GetMapping("/stay")
+        ResponseEntity<ApiResponse<Stay>> stay() {
+            return ResponseEntity.ok(ApiResponse.success(
+                    new Stay(LocalDate.of(2026, 10, 19), LocalDateTime.of(2026, 10, 19, 14, 30, 5))));
+        }
+    }
+
+    record Stay(LocalDate checkIn, LocalDateTime createdAt) {
+    }
+}
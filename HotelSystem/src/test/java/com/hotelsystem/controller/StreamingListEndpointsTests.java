@@ -0,0 +1,67 @@
+package com.hotelsystem.controller;
+
+import com.hotelsystem.service.availability.AvailabilityIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 列表接口的流式查询在 H2（loadtest / bench profile 使用的数据库）上也要能执行
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+@WithMockUser(roles = "ADMIN")
+class StreamingListEndpointsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Test
+    void listEndpointsStreamEveryRow() throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        jdbcTemplate.update("INSERT INTO rooms (id, room_number, room_type, description, price, capacity, amenities, " +
+                "status, is_active, created_at, updated_at) VALUES (9001, 'S9001', '标准间', '流式测试', ?, 2, 'WiFi', " +
+                "'AVAILABLE', TRUE, ?, ?)", new BigDecimal("299.00"), now, now);
+        jdbcTemplate.update("INSERT INTO guests (id, full_name, id_card_number, phone, email, gender, created_at, " +
+                "updated_at) VALUES (9001, '流式测试', '110101199001019001', '13800009001', 's9001@example.com', " +
+                "'MALE', ?, ?)", now, now);
+        jdbcTemplate.update("INSERT INTO reservations (id, reservation_number, guest_id, room_id, check_in_date, " +
+                "check_out_date, number_of_guests, total_amount, paid_amount, status, created_by, created_at, " +
+                "updated_at) VALUES (9001, 'RSV-S9001', 9001, 9001, ?, ?, 2, ?, ?, 'CONFIRMED', 'test', ?, ?)",
+                Date.valueOf(checkIn), Date.valueOf(checkIn.plusDays(2)), new BigDecimal("598.00"),
+                new BigDecimal("0.00"), now, now);
+
+        for (String path : new String[]{"/rooms", "/guests", "/reservations"}) {
+            mockMvc.perform(get(path))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data", hasSize(1)))
+                    .andExpect(jsonPath("$.data[0].id").value(9001));
+        }
+        // 启动时的可用性索引重建同样走流式查询
+        assertThat(availabilityIndex.snapshot().get("default").isReady()).isTrue();
+    }
+}
@@ -0,0 +1,100 @@
+package com.hotelsystem.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 带 JWT 的 HTTP 客户端，按接口名记录延迟；业务错误（success=false）和 4xx/5xx 都算失败
+class HotelApiClient {
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    private volatile String token;
+
+    HotelApiClient(URI baseUri) {
+        this.baseUri = baseUri;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    void login(String username, String password) {
+        JsonNode response = call("POST /auth/login", "POST", "/auth/login",
+                Map.of("username", username, "password", password), System.nanoTime());
+        if (response == null) {
+            throw new IllegalStateException("登录失败: " + username);
+        }
+        token = response.path("data").path("token").asText();
+    }
+
+    // startNanos 为该请求计划开始的时间；开环模式下包含排队等待，避免协调遗漏
+    JsonNode call(String endpoint, String method, String path, Object body, long startNanos) {
+        boolean failed = true;
+        try {
+            HttpResponse<String> response = send(method, path, body == null ? null : objectMapper.writeValueAsString(body));
+            JsonNode json = response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+            failed = response.statusCode() >= 400 || json == null || !json.path("success").asBoolean();
+            return failed ? null : json;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            stats.computeIfAbsent(endpoint, key -> new EndpointStats()).record(System.nanoTime() - startNanos, failed);
+        }
+    }
+
+    // 原样回放请求，不计入统计；与 call 相同，4xx/5xx 或 success=false 都算失败，失败时返回 null
+    JsonNode replay(HttpScenario.Request request) throws Exception {
+        HttpResponse<String> response = send(request.method(), request.path(), request.body());
+        JsonNode json = response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+        boolean failed = response.statusCode() >= 400 || json == null || !json.path("success").asBoolean();
+        return failed ? null : json;
+    }
+
+    Map<String, EndpointStats> stats() {
+        return new TreeMap<>(stats);
+    }
+
+    void resetStats() {
+        stats.clear();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // 场景文件里有中文路径和查询参数，需要转成 ASCII 形式
+    private URI resolve(String path) throws URISyntaxException {
+        int question = path.indexOf('?');
+        URI uri = new URI(baseUri.getScheme(), null, baseUri.getHost(), baseUri.getPort(),
+                question < 0 ? path : path.substring(0, question),
+                question < 0 ? null : path.substring(question + 1), null);
+        return URI.create(uri.toASCIIString());
+    }
+}
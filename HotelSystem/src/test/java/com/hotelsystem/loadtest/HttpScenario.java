@@ -0,0 +1,72 @@
+package com.hotelsystem.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// 解析 IDE HTTP Client 格式的 .http 文件：请求之间以 ### 分隔，请求行后依次是请求头、空行和请求体；
+// 请求前最近一个 ### 行作为请求名，名称中注明“应该返回错误/冲突”的是预期失败的校验用例
+record HttpScenario(List<Request> requests) {
+
+    private static final Pattern EXPECTED_FAILURE = Pattern.compile("应该返回(错误|冲突)");
+
+    record Request(String name, String method, String path, Map<String, String> headers, String body) {
+
+        boolean expectsFailure() {
+            return name != null && EXPECTED_FAILURE.matcher(name).find();
+        }
+    }
+
+    static HttpScenario parse(Path file) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        List<String> block = new ArrayList<>();
+        String name = null;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.startsWith("###")) {
+                addRequest(name, block, requests);
+                block.clear();
+                name = line.substring(3).trim();
+            } else {
+                block.add(line);
+            }
+        }
+        addRequest(name, block, requests);
+        return new HttpScenario(requests);
+    }
+
+    private static void addRequest(String name, List<String> block, List<Request> requests) {
+        int i = 0;
+        while (i < block.size() && isSkippable(block.get(i))) {
+            i++;
+        }
+        if (i == block.size()) {
+            return;
+        }
+
+        String[] requestLine = block.get(i++).trim().split("\\s+");
+        String method = requestLine[0];
+        // 只保留路径部分，主机和端口由压测时启动的应用决定
+        String path = requestLine[1].replaceFirst("^https?://[^/]+", "");
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (; i < block.size() && !block.get(i).isBlank(); i++) {
+            String header = block.get(i);
+            int colon = header.indexOf(':');
+            headers.put(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+        }
+
+        String body = String.join("\n", block.subList(Math.min(i, block.size()), block.size())).trim();
+        requests.add(new Request(name, method, path, headers, body.isEmpty() ? null : body));
+    }
+
+    private static boolean isSkippable(String line) {
+        String trimmed = line.trim();
+        return trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("//");
+    }
+}
@@ -0,0 +1,43 @@
+package com.hotelsystem.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// 命令行参数，形如 --concurrency=200 --rate=100 --duration=60s --virtual-threads
+// rate 为每秒发起的预订流程数，0 表示闭环模式（每个并发连接跑完一个流程立即开始下一个）
+// target 为已启动实例的地址，如 --target=http://localhost:18080；此时 virtual-threads 只用于报告中标注服务端的线程模式
+record LoadTestOptions(int concurrency, double rate, Duration duration, Path scenario, boolean warmup,
+                       boolean virtualThreads, URI target) {
+
+    static LoadTestOptions parse(String[] args) {
+        int concurrency = 50;
+        double rate = 0;
+        Duration duration = Duration.ofSeconds(60);
+        Path scenario = Path.of("src/test/hotel-api-test.http");
+        boolean warmup = true;
+        boolean virtualThreads = false;
+        URI target = null;
+
+        for (String arg : args) {
+            String name = arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg;
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "true";
+            switch (name) {
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--duration" -> duration = DurationStyle.detectAndParse(value);
+                case "--scenario" -> scenario = Path.of(value);
+                case "--warmup" -> warmup = Boolean.parseBoolean(value);
+                case "--virtual-threads" -> virtualThreads = Boolean.parseBoolean(value);
+                case "--target" -> target = URI.create(value);
+                default -> throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+        if (concurrency <= 0 || rate < 0) {
+            throw new IllegalArgumentException("concurrency 必须大于0，rate 不能小于0");
+        }
+        return new LoadTestOptions(concurrency, rate, duration, scenario, warmup, virtualThreads, target);
+    }
+}
@@ -0,0 +1,207 @@
+package com.hotelsystem.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hotelsystem.HotelSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// 以 loadtest profile 启动应用（内嵌 H2，随机端口），回放 hotel-api-test.http 预热后，
+// 反复执行 客房 → 宾客 → 预订 流程，最后按接口输出吞吐量、延迟百分位和错误率。
+// 指定 --target 时不在本进程启动应用，而是压测另一个 JVM 中已启动的实例，压测线程不与服务端共用同一个进程
+public class LoadTestRunner {
+
+    private final LoadTestOptions options;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private HotelApiClient client;
+
+    private LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(LoadTestOptions.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        if (options.target() != null) {
+            drive(options.target());
+            return;
+        }
+        String[] profiles = options.virtualThreads()
+                ? new String[]{"loadtest", "virtual-threads"}
+                : new String[]{"loadtest"};
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HotelSystemApplication.class)
+                .profiles(profiles)
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            drive(URI.create("http://localhost:" + port));
+        }
+    }
+
+    private void drive(URI baseUri) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency());
+        try {
+            client = new HotelApiClient(baseUri);
+            client.login("admin", "admin123");
+
+            if (options.warmup()) {
+                replayScenario();
+            }
+            client.resetStats();
+
+            long startNanos = System.nanoTime();
+            if (options.rate() > 0) {
+                runOpenModel(workers, startNanos);
+            } else {
+                runClosedModel(workers, startNanos);
+            }
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+            report((System.nanoTime() - startNanos) / 1_000_000_000.0);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // 回放结果与预期不符时中止压测：预热失败说明数据或配置有问题，此时的压测结果没有意义
+    private void replayScenario() throws Exception {
+        HttpScenario scenario = HttpScenario.parse(options.scenario());
+        List<String> unexpected = new ArrayList<>();
+        for (HttpScenario.Request request : scenario.requests()) {
+            boolean failed = client.replay(request) == null;
+            if (failed != request.expectsFailure()) {
+                unexpected.add(request.method() + " " + request.path() + "（" + request.name() + "）"
+                        + (failed ? "失败" : "预期失败但成功"));
+            }
+        }
+        if (!unexpected.isEmpty()) {
+            throw new IllegalStateException("预热回放结果与预期不符，中止压测（场景需要空数据库，"
+                    + "对已有数据的实例压测请加 --warmup=false）:\n  " + String.join("\n  ", unexpected));
+        }
+        System.out.printf("预热: 回放 %d 个请求，结果均符合预期%n", scenario.requests().size());
+    }
+
+    // 闭环：每个并发连接跑完一个流程立即开始下一个
+    private void runClosedModel(ExecutorService workers, long startNanos) {
+        long deadline = startNanos + options.duration().toNanos();
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    reservationFlow(System.nanoTime());
+                }
+            });
+        }
+    }
+
+    // 开环：按固定到达率发起流程，与服务端快慢无关；排队时间计入第一个请求的延迟
+    private void runOpenModel(ExecutorService workers, long startNanos) {
+        long interval = (long) (1_000_000_000L / options.rate());
+        long deadline = startNanos + options.duration().toNanos();
+        for (long intended = startNanos; intended < deadline; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = intended;
+            workers.execute(() -> reservationFlow(scheduled));
+        }
+    }
+
+    private void reservationFlow(long scheduledNanos) {
+        long n = sequence.incrementAndGet();
+
+        JsonNode room = client.call("POST /rooms", "POST", "/rooms", room(n), scheduledNanos);
+        if (room == null) {
+            return;
+        }
+        long roomId = room.path("data").path("id").asLong();
+        client.call("GET /rooms/{id}", "GET", "/rooms/" + roomId, null, System.nanoTime());
+
+        JsonNode guest = client.call("POST /guests", "POST", "/guests", guest(n), System.nanoTime());
+        if (guest == null) {
+            return;
+        }
+        long guestId = guest.path("data").path("id").asLong();
+
+        JsonNode reservation = client.call("POST /reservations", "POST", "/reservations",
+                reservation(guestId, roomId, n), System.nanoTime());
+        if (reservation == null) {
+            return;
+        }
+        long reservationId = reservation.path("data").path("id").asLong();
+        client.call("GET /reservations/{id}", "GET", "/reservations/" + reservationId, null, System.nanoTime());
+        client.call("GET /reservations/guest/{guestId}", "GET", "/reservations/guest/" + guestId, null,
+                System.nanoTime());
+    }
+
+    private static Map<String, Object> room(long n) {
+        Map<String, Object> room = new HashMap<>();
+        room.put("roomNumber", "LT" + n);
+        room.put("roomType", "标准大床房");
+        room.put("description", "负载测试房间");
+        room.put("price", new BigDecimal("299.00"));
+        room.put("capacity", 2);
+        room.put("amenities", "WiFi,空调,电视");
+        room.put("status", "AVAILABLE");
+        return room;
+    }
+
+    private static Map<String, Object> guest(long n) {
+        Map<String, Object> guest = new HashMap<>();
+        guest.put("fullName", "压测宾客" + n);
+        guest.put("idCardNumber", String.format("LT%016d", n));
+        guest.put("phone", String.format("139%08d", n));
+        guest.put("email", "loadtest" + n + "@example.com");
+        guest.put("gender", n % 2 == 0 ? "MALE" : "FEMALE");
+        guest.put("dateOfBirth", LocalDate.of(1990, 1, 1));
+        return guest;
+    }
+
+    private static Map<String, Object> reservation(long guestId, long roomId, long n) {
+        LocalDate checkIn = LocalDate.now().plusDays(1 + n % 180);
+        Map<String, Object> reservation = new HashMap<>();
+        reservation.put("guestId", guestId);
+        reservation.put("roomId", roomId);
+        reservation.put("checkInDate", checkIn);
+        reservation.put("checkOutDate", checkIn.plusDays(2));
+        reservation.put("numberOfGuests", 2);
+        reservation.put("createdBy", "admin");
+        return reservation;
+    }
+
+    private void report(double elapsedSeconds) {
+        System.out.printf("%n模式: %s, 服务端线程: %s, 并发: %d, 到达率: %s, 实际时长: %.1fs%n",
+                options.rate() > 0 ? "开环" : "闭环",
+                options.virtualThreads() ? "虚拟线程" : "平台线程",
+                options.concurrency(),
+                options.rate() > 0 ? options.rate() + " 流程/s" : "-",
+                elapsedSeconds);
+        System.out.printf("%-34s %8s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "req/s", "err%", "p50(ms)", "p95(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        client.stats().forEach((endpoint, stats) -> System.out.printf(
+                "%-34s %8d %9.1f %7.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint,
+                stats.count(),
+                stats.count() / elapsedSeconds,
+                stats.count() == 0 ? 0 : stats.errors() * 100.0 / stats.count(),
+                stats.percentileMs(50),
+                stats.percentileMs(95),
+                stats.percentileMs(99),
+                stats.percentileMs(99.9),
+                stats.maxMs()));
+    }
+}
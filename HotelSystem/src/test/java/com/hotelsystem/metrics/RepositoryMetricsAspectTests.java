@@ -0,0 +1,65 @@
+package com.hotelsystem.metrics;
+
+import com.hotelsystem.entity.Guest;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.repository.Repository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryMetricsAspectTests {
+
+    @Test
+    void slowQueryParamsDoNotContainPersonalData() {
+        Guest guest = new Guest();
+        guest.setId(5L);
+        guest.setFullName("张三");
+        guest.setIdCardNumber("110101199003071234");
+
+        String params = RepositoryMetricsAspect.describeArgs(new Object[]{
+                42L, LocalDate.of(2026, 10, 19), "110101199003071234", guest, List.of("a", "b"),
+                "secret".getBytes(), PageRequest.of(0, 20), null});
+
+        assertThat(params).doesNotContain("110101199003071234", "张三", "secret");
+        assertThat(params).isEqualTo("[42, 2026-10-19, String(18), Guest#5, List(2), byte[6], "
+                + PageRequest.of(0, 20) + ", null]");
+    }
+
+    @Test
+    void streamIsMeasuredUntilClosed() throws InterruptedException {
+        RepositoryMetricsAspect aspect = new RepositoryMetricsAspect();
+        ReflectionTestUtils.setField(aspect, "slowQueryThresholdMs", Long.MAX_VALUE);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new StreamingGuests());
+        factory.addInterface(GuestStream.class);
+        factory.addAspect(aspect);
+        GuestStream guests = factory.getProxy();
+
+        try (Stream<Long> rows = guests.streamIds()) {
+            assertThat(aspect.snapshot()).isEmpty();
+            Thread.sleep(20);
+            assertThat(rows.toList()).containsExactly(1L, 2L, 3L);
+        }
+
+        QueryStats.Snapshot stats = aspect.snapshot().get("GuestStream.streamIds");
+        assertThat(stats.getCount()).isEqualTo(1);
+        assertThat(stats.getRows()).isEqualTo(3);
+        assertThat(stats.getMaxMs()).isGreaterThanOrEqualTo(20);
+    }
+
+    interface GuestStream extends Repository<Guest, Long> {
+        Stream<Long> streamIds();
+    }
+
+    static class StreamingGuests implements GuestStream {
+        @Override
+        public Stream<Long> streamIds() {
+            return Stream.of(1L, 2L, 3L);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hotelsystem.repository;
+
+import com.hotelsystem.dto.GuestDto;
+import com.hotelsystem.entity.Guest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class GuestRepositoryTests {
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Test
+    void nameSearchMatchesWildcardsLiterally() {
+        guestRepository.save(guest("张三", "110101199003071234"));
+        guestRepository.save(guest("100%_VIP", "110101199003071235"));
+
+        assertThat(guestRepository.findDtosByFullNameContaining("%")).extracting(GuestDto::getFullName)
+                .containsExactly("100%_VIP");
+        assertThat(guestRepository.findDtosByFullNameContaining("_")).extracting(GuestDto::getFullName)
+                .containsExactly("100%_VIP");
+        assertThat(guestRepository.findDtosByFullNameContaining("vip")).hasSize(1);
+        assertThat(guestRepository.findDtosByFullNameContaining("张")).extracting(GuestDto::getFullName)
+                .containsExactly("张三");
+    }
+
+    private static Guest guest(String fullName, String idCardNumber) {
+        Guest guest = new Guest();
+        guest.setFullName(fullName);
+        guest.setIdCardNumber(idCardNumber);
+        guest.setPhone("13800000000");
+        return guest;
+    }
+}
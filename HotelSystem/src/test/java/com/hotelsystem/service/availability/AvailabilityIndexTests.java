@@ -0,0 +1,129 @@
+package com.hotelsystem.service.availability;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ShardingProperties;
+import com.hotelsystem.dto.ReservationDto;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.Reservation;
+import com.hotelsystem.repository.CacheInvalidationRepository;
+import com.hotelsystem.repository.ReservationRepository;
+import com.hotelsystem.service.invalidation.InvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTests {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 19);
+
+    @TempDir
+    Path directory;
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final CacheInvalidationRepository cacheInvalidationRepository = mock(CacheInvalidationRepository.class);
+    private final InvalidationBus invalidationBus = mock(InvalidationBus.class);
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex(reservationRepository, cacheInvalidationRepository, invalidationBus,
+                new PropertyRegistry(new ShardingProperties()), mock(PlatformTransactionManager.class),
+                true, directory.toString());
+    }
+
+    @Test
+    void snapshotIsRestoredAndChangesAfterItsMarkAreReplayed() throws IOException {
+        // 快照高水位 10：预订 1 占 101 房，预订 2 占 102 房
+        AvailabilitySnapshot.write(directory.resolve("default.snap"), 10L, List.of(
+                stay(1L, 101L), stay(2L, 102L)));
+        // 之后预订 2 被取消，新增预订 3 占 103 房，另有一条无关的房间消息
+        when(invalidationBus.position("default")).thenReturn(OptionalLong.of(13L));
+        when(cacheInvalidationRepository.findMinId()).thenReturn(5L);
+        when(cacheInvalidationRepository.findAfter(eq(10L), any())).thenReturn(List.of(
+                message(11L, CacheInvalidation.EntityType.RESERVATION, 2L),
+                message(12L, CacheInvalidation.EntityType.ROOM, 7L),
+                message(13L, CacheInvalidation.EntityType.RESERVATION, 3L)));
+        when(reservationRepository.findDtosByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.contains(3L) ? List.of(reservation(3L, 103L)) : List.of();
+        });
+
+        index.load();
+
+        assertThat(index.hasConflict(101L, DAY, DAY.plusDays(2), null)).isTrue();
+        assertThat(index.hasConflict(102L, DAY, DAY.plusDays(2), null)).isFalse();
+        assertThat(index.hasConflict(103L, DAY, DAY.plusDays(2), null)).isTrue();
+        AvailabilityIndex.Stats stats = index.snapshot().get("default");
+        assertThat(stats.getSource()).isEqualTo("SNAPSHOT");
+        assertThat(stats.getReplayed()).isEqualTo(2);
+        assertThat(stats.getReservations()).isEqualTo(2);
+    }
+
+    @Test
+    void purgedMessagesAfterTheMarkForceARebuild() throws IOException {
+        AvailabilitySnapshot.write(directory.resolve("default.snap"), 10L, List.of(stay(1L, 101L)));
+        when(invalidationBus.position("default")).thenReturn(OptionalLong.of(30L));
+        when(cacheInvalidationRepository.findMinId()).thenReturn(20L);
+        when(reservationRepository.streamActiveDtos()).thenReturn(Stream.of(reservation(4L, 104L)));
+
+        index.load();
+
+        assertThat(index.snapshot().get("default").getSource()).isEqualTo("REBUILD");
+        assertThat(index.hasConflict(101L, DAY, DAY.plusDays(2), null)).isFalse();
+        assertThat(index.hasConflict(104L, DAY, DAY.plusDays(2), null)).isTrue();
+    }
+
+    @Test
+    void indexIsNotUsedWhileTheInvalidationBusIsStale() {
+        when(invalidationBus.position("default")).thenReturn(OptionalLong.of(0L));
+        when(cacheInvalidationRepository.findAfter(anyLong(), any())).thenReturn(List.of());
+        when(reservationRepository.streamActiveDtos()).thenReturn(Stream.of(reservation(1L, 101L)));
+        index.load();
+        assertThat(index.hasConflict(101L, DAY, DAY.plusDays(2), null)).isTrue();
+
+        when(invalidationBus.position("default")).thenReturn(OptionalLong.empty());
+
+        assertThat(index.hasConflict(101L, DAY, DAY.plusDays(2), null)).isFalse();
+        Map<String, AvailabilityIndex.Stats> stats = index.snapshot();
+        assertThat(stats.get("default").getStaleSkips()).isEqualTo(1);
+    }
+
+    private static AvailabilityIndex.Stay stay(Long reservationId, Long roomId) {
+        return AvailabilityIndex.Stay.of(reservation(reservationId, roomId));
+    }
+
+    private static ReservationDto reservation(Long id, Long roomId) {
+        ReservationDto reservation = new ReservationDto();
+        reservation.setId(id);
+        reservation.setRoomId(roomId);
+        reservation.setCheckInDate(DAY);
+        reservation.setCheckOutDate(DAY.plusDays(3));
+        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        return reservation;
+    }
+
+    private static CacheInvalidation message(Long id, CacheInvalidation.EntityType type, Long entityId) {
+        CacheInvalidation message = new CacheInvalidation();
+        message.setId(id);
+        message.setEntityType(type);
+        message.setEntityId(entityId);
+        return message;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hotelsystem.service.availability;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilitySnapshotTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenSnapshotReadsBackTheSameStays() throws IOException {
+        Path file = directory.resolve("default.snap");
+        List<AvailabilityIndex.Stay> stays = List.of(
+                new AvailabilityIndex.Stay(1L, 101L, 20_000, 20_003),
+                new AvailabilityIndex.Stay(Long.MAX_VALUE, 102L, -1, Integer.MAX_VALUE));
+
+        AvailabilitySnapshot.write(file, 42L, stays);
+        AvailabilitySnapshot snapshot = AvailabilitySnapshot.read(file);
+
+        assertThat(snapshot.getMark()).isEqualTo(42L);
+        assertThat(snapshot.getStays()).containsExactlyElementsOf(stays);
+        assertThat(Files.size(file)).isEqualTo(AvailabilitySnapshot.HEADER_SIZE + 2L * AvailabilitySnapshot.RECORD_SIZE);
+        assertThat(directory.resolve("default.snap.tmp")).doesNotExist();
+    }
+
+    @Test
+    void emptySnapshotIsValid() throws IOException {
+        Path file = directory.resolve("default.snap");
+
+        AvailabilitySnapshot.write(file, 7L, List.of());
+
+        assertThat(AvailabilitySnapshot.read(file).getStays()).isEmpty();
+    }
+
+    @Test
+    void missingTruncatedOrForeignFilesAreRejected() throws IOException {
+        Path file = directory.resolve("default.snap");
+        assertThat(AvailabilitySnapshot.read(file)).isNull();
+
+        AvailabilitySnapshot.write(file, 42L, List.of(new AvailabilityIndex.Stay(1L, 101L, 20_000, 20_003)));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(AvailabilitySnapshot.HEADER_SIZE + 8);
+        }
+        assertThat(AvailabilitySnapshot.read(file)).isNull();
+
+        Files.write(file, new byte[AvailabilitySnapshot.HEADER_SIZE]);
+        assertThat(AvailabilitySnapshot.read(file)).isNull();
+    }
+}
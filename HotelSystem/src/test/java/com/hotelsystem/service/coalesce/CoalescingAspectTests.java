@@ -0,0 +1,114 @@
+package com.hotelsystem.service.coalesce;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ReadWriteRoutingDataSource;
+import com.hotelsystem.config.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CoalescingAspectTests {
+
+    private final ExecutorService leaders = Executors.newSingleThreadExecutor();
+    private final ExecutorService followers = Executors.newSingleThreadExecutor();
+    private final ReadWriteRoutingDataSource routing = mock(ReadWriteRoutingDataSource.class);
+    private final RoomQueries target = new RoomQueries();
+    private CoalescingAspect aspect;
+
+    @AfterEach
+    void tearDown() {
+        target.release.countDown();
+        leaders.shutdownNow();
+        followers.shutdownNow();
+    }
+
+    @Test
+    void followerQueriesItselfWhenLeaderExceedsMaxWait() throws Exception {
+        RoomQueries queries = proxy(Duration.ofMillis(100));
+        Future<Integer> leader = leaders.submit(() -> queries.countAvailable(1L));
+        target.entered.await(2, TimeUnit.SECONDS);
+
+        assertThat(queries.countAvailable(1L)).isEqualTo(2);
+
+        target.release.countDown();
+        assertThat(leader.get(2, TimeUnit.SECONDS)).isEqualTo(1);
+        CoalescingAspect.Stats stats = stats();
+        assertThat(stats.getExecutions()).isEqualTo(1);
+        assertThat(stats.getCoalesced()).isEqualTo(1);
+        assertThat(stats.getFallbacks()).isEqualTo(1);
+    }
+
+    @Test
+    void followerQueriesItselfWhenLeaderIsCancelled() throws Exception {
+        RoomQueries queries = proxy(Duration.ofSeconds(5));
+        Future<Integer> leader = leaders.submit(() -> queries.countAvailable(1L));
+        target.entered.await(2, TimeUnit.SECONDS);
+
+        Future<Integer> follower = followers.submit(() -> queries.countAvailable(1L));
+        while (stats().getCoalesced() == 0) {
+            Thread.sleep(5);
+        }
+        leader.cancel(true);
+
+        assertThat(follower.get(2, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(stats().getFallbacks()).isEqualTo(1);
+    }
+
+    @Test
+    void callerWithinReadYourWritesWindowIsNotCoalesced() throws Exception {
+        RoomQueries queries = proxy(Duration.ofSeconds(5));
+        leaders.submit(() -> queries.countAvailable(1L));
+        target.entered.await(2, TimeUnit.SECONDS);
+
+        when(routing.isWithinReadYourWritesWindow()).thenReturn(true);
+
+        assertThat(queries.countAvailable(1L)).isEqualTo(2);
+        assertThat(stats().getBypassed()).isEqualTo(1);
+        assertThat(stats().getCoalesced()).isZero();
+    }
+
+    private RoomQueries proxy(Duration maxWait) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ReadWriteRoutingDataSource> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(routing);
+        aspect = new CoalescingAspect(new PropertyRegistry(new ShardingProperties()), provider, maxWait);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private CoalescingAspect.Stats stats() {
+        return aspect.snapshot().get("RoomQueries.countAvailable");
+    }
+
+    // 第一次调用阻塞到 release，之后的调用立即返回各自的序号
+    static class RoomQueries {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesced
+        public int countAvailable(Long roomTypeId) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                entered.countDown();
+                release.await();
+            }
+            return call;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.hotelsystem.service.housekeeping;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ShardingProperties;
+import com.hotelsystem.dto.HousekeepingTaskDto;
+import com.hotelsystem.entity.HousekeepingTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 两个 HousekeepingQueue 实例模拟集群中的两个节点，共享同一张 housekeeping_tasks 表
+class HousekeepingQueueTests {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final List<HousekeepingQueue> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE housekeeping_tasks (id BIGINT PRIMARY KEY, room_id BIGINT NOT NULL, " +
+                "room_number VARCHAR(20), reason VARCHAR(20), status VARCHAR(20), next_arrival_date DATE, " +
+                "assignee VARCHAR(50), created_at TIMESTAMP(6), assigned_at TIMESTAMP(6), completed_at TIMESTAMP(6))");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (HousekeepingQueue node : nodes) {
+            node.stop();
+        }
+        database.shutdown();
+    }
+
+    @Test
+    void pendingTasksAreOfferedByEarliestNextArrival() throws Exception {
+        LocalDate today = LocalDate.now();
+        HousekeepingQueue node = node();
+        node.start(List.of(
+                insert(1L, 101L, null),
+                insert(2L, 102L, today.plusDays(3)),
+                insert(3L, 103L, today.plusDays(1))));
+
+        List<Long> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestWaiter waiter = new TestWaiter("li");
+            node.addWaiter(waiter);
+            order.add(waiter.task(2).getId());
+        }
+
+        assertThat(order).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void twoNodesNeverAssignTheSameTask() throws Exception {
+        HousekeepingTask task = insert(1L, 101L, LocalDate.now());
+        HousekeepingQueue nodeA = node();
+        HousekeepingQueue nodeB = node();
+        nodeA.start(List.of(task));
+        nodeB.start(List.of(task));
+
+        TestWaiter onA = new TestWaiter("li");
+        TestWaiter onB = new TestWaiter("wang");
+        nodeA.addWaiter(onA);
+        nodeB.addWaiter(onB);
+
+        TestWaiter winner = CompletableFuture.anyOf(onA.delivered, onB.delivered)
+                .thenApply(delivered -> onA.delivered.isDone() ? onA : onB)
+                .get(2, TimeUnit.SECONDS);
+        TestWaiter loser = winner == onA ? onB : onA;
+
+        assertThatThrownBy(() -> loser.task(1)).isInstanceOf(TimeoutException.class);
+        assertThat(jdbcTemplate.queryForMap("SELECT status, assignee FROM housekeeping_tasks WHERE id = 1"))
+                .containsEntry("STATUS", "ASSIGNED")
+                .containsEntry("ASSIGNEE", winner.username());
+    }
+
+    @Test
+    void taskCreatedOnAnotherNodeIsOfferedAfterSync() throws Exception {
+        HousekeepingQueue nodeA = node();
+        HousekeepingQueue nodeB = node();
+        nodeA.start(List.of());
+        nodeB.start(List.of());
+        TestWaiter onB = new TestWaiter("wang");
+        nodeB.addWaiter(onB);
+
+        nodeA.enqueue(insert(1L, 101L, LocalDate.now()));
+        nodeB.sync();
+
+        assertThat(onB.task(2).getId()).isEqualTo(1L);
+        nodeA.sync();
+        assertThat(nodeA.openTasks()).singleElement().satisfies(open -> {
+            assertThat(open.getStatus()).isEqualTo(HousekeepingTask.TaskStatus.ASSIGNED);
+            assertThat(open.getAssignee()).isEqualTo("wang");
+        });
+
+        // 在 B 上完成并写回后，A 同步时移除该任务
+        nodeB.complete(1L);
+        nodeB.flush();
+        nodeA.sync();
+        assertThat(nodeA.openTasks()).isEmpty();
+    }
+
+    private HousekeepingQueue node() {
+        HousekeepingQueue node = new HousekeepingQueue(jdbcTemplate, new PropertyRegistry(new ShardingProperties()));
+        nodes.add(node);
+        return node;
+    }
+
+    private HousekeepingTask insert(Long id, Long roomId, LocalDate nextArrivalDate) {
+        HousekeepingTask task = new HousekeepingTask();
+        task.setId(id);
+        task.setRoomId(roomId);
+        task.setRoomNumber(String.valueOf(roomId));
+        task.setReason(HousekeepingTask.TaskReason.CHECKOUT);
+        task.setStatus(HousekeepingTask.TaskStatus.PENDING);
+        task.setNextArrivalDate(nextArrivalDate);
+        task.setCreatedAt(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO housekeeping_tasks (id, room_id, room_number, reason, status, " +
+                        "next_arrival_date, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, roomId, task.getRoomNumber(), task.getReason().name(), task.getStatus().name(),
+                nextArrivalDate, Timestamp.valueOf(task.getCreatedAt()));
+        return task;
+    }
+
+    private static final class TestWaiter implements HousekeepingWaiter {
+        private final String username;
+        private final CompletableFuture<HousekeepingTaskDto> delivered = new CompletableFuture<>();
+
+        private TestWaiter(String username) {
+            this.username = username;
+        }
+
+        HousekeepingTaskDto task(int seconds) throws Exception {
+            return delivered.get(seconds, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public String username() {
+            return username;
+        }
+
+        @Override
+        public boolean isActive() {
+            return !delivered.isDone();
+        }
+
+        @Override
+        public boolean isStream() {
+            return false;
+        }
+
+        @Override
+        public boolean deliver(HousekeepingTaskDto task) {
+            return delivered.complete(task);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotelsystem.service.invalidation;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ShardingProperties;
+import com.hotelsystem.entity.CacheInvalidation;
+import com.hotelsystem.entity.Guest;
+import com.hotelsystem.entity.Room;
+import com.hotelsystem.repository.CacheInvalidationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MappingMetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class InvalidationBusTests {
+
+    private final CacheInvalidationRepository repository = mock(CacheInvalidationRepository.class);
+    private final CacheImplementor cache = mock(CacheImplementor.class);
+    private final PropertyRegistry propertyRegistry = new PropertyRegistry(new ShardingProperties());
+    private final ExecutorService pollThread = Executors.newSingleThreadExecutor();
+    // 接口上的部分注解在测试类路径上不存在，mock 时不复制注解
+    private final SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class,
+            withSettings().withoutAnnotations());
+    private final EntityPersister roomPersister = mock(EntityPersister.class);
+    private final EntityDataAccess roomAccess = mock(EntityDataAccess.class);
+    private InvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(sessionFactory.getSessionFactoryOptions()).thenReturn(mock(SessionFactoryOptions.class));
+        MappingMetamodelImplementor metamodel = mock(MappingMetamodelImplementor.class);
+        when(sessionFactory.getMappingMetamodel()).thenReturn(metamodel);
+        when(metamodel.getEntityDescriptor(Room.class)).thenReturn(roomPersister);
+        when(metamodel.getEntityDescriptor(Guest.class)).thenReturn(mock(EntityPersister.class));
+        when(roomPersister.getCacheAccessStrategy()).thenReturn(roomAccess);
+        when(roomAccess.generateCacheKey(any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.getArgument(3) + ":" + invocation.getArgument(0));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<InvalidationListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.empty());
+
+        bus = new InvalidationBus(repository, propertyRegistry, entityManagerFactory, listeners, "node-a",
+                500, 100, Duration.ofSeconds(60), Duration.ofMillis(100), Duration.ofHours(1), Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pollThread.shutdownNow();
+        propertyRegistry.shutdown();
+    }
+
+    @Test
+    void hungPollMarksPropertyStaleWithoutAnException() throws Exception {
+        when(repository.findMaxId()).thenReturn(10L);
+        bus.poll();
+        assertThat(bus.position("default")).hasValue(10);
+
+        // 读取一直没有返回，也没有抛出异常
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        pollThread.submit(bus::poll);
+
+        Thread.sleep(150);
+        assertThat(bus.position("default")).isEmpty();
+        bus.checkStaleness();
+
+        assertThat(bus.snapshot().get("default").isStale()).isTrue();
+        verify(cache).evictAllRegions();
+        release.countDown();
+    }
+
+    @Test
+    void remoteChangesEvictOnlyTheChangedIds() {
+        when(repository.findMaxId()).thenReturn(10L);
+        bus.poll();
+        when(repository.findAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                row(11, CacheInvalidation.EntityType.ROOM, 7L, "node-b"),
+                row(12, CacheInvalidation.EntityType.ROOM, 8L, "node-a"),
+                row(13, CacheInvalidation.EntityType.GUEST, 3L, "node-b")));
+
+        bus.poll();
+
+        verify(roomAccess).evict("null:7");
+        verify(roomAccess, never()).evict("null:8");
+        verify(cache, never()).evict(any(Class.class));
+        verify(cache).evictQueryRegions();
+    }
+
+    @Test
+    void shardedCacheKeysCarryThePolledProperty() {
+        when(sessionFactory.getSessionFactoryOptions().getCurrentTenantIdentifierResolver())
+                .thenAnswer(invocation -> mock(CurrentTenantIdentifierResolver.class));
+        when(repository.findMaxId()).thenReturn(10L);
+        bus.poll();
+        when(repository.findAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                row(11, CacheInvalidation.EntityType.ROOM, 7L, "node-b")));
+
+        bus.poll();
+
+        verify(roomAccess).evict("default:7");
+    }
+
+    @Test
+    void messagesWithoutIdEvictTheWholeRegion() {
+        when(repository.findMaxId()).thenReturn(10L);
+        bus.poll();
+        when(repository.findAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                row(11, CacheInvalidation.EntityType.ROOM, 7L, "node-b"),
+                row(12, CacheInvalidation.EntityType.ROOM, null, "node-b")));
+
+        bus.poll();
+
+        verify(cache).evict(Room.class);
+        verify(roomAccess, never()).evict(any());
+    }
+
+    private static CacheInvalidation row(long id, CacheInvalidation.EntityType type, Long entityId, String origin) {
+        CacheInvalidation row = new CacheInvalidation();
+        row.setId(id);
+        row.setEntityType(type);
+        row.setEntityId(entityId);
+        row.setOriginNode(origin);
+        return row;
+    }
+}
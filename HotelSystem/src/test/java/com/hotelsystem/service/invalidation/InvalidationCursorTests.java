@@ -0,0 +1,98 @@
+package com.hotelsystem.service.invalidation;
+
+import com.hotelsystem.entity.CacheInvalidation;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationCursorTests {
+
+    private static final long GAP_TIMEOUT = 1_000;
+
+    @Test
+    void contiguousIdsAdvanceImmediately() {
+        InvalidationCursor cursor = new InvalidationCursor(10, 0);
+
+        assertThat(cursor.accept(row(11))).isTrue();
+        assertThat(cursor.accept(row(12))).isTrue();
+        cursor.advance(100, GAP_TIMEOUT);
+
+        assertThat(cursor.appliedId).isEqualTo(12);
+        assertThat(cursor.pending).isEmpty();
+    }
+
+    @Test
+    void gapHoldsCursorUntilLateCommitArrives() {
+        InvalidationCursor cursor = new InvalidationCursor(10, 0);
+
+        // 11 所在事务尚未提交，12 已可见
+        cursor.accept(row(12));
+        cursor.advance(100, GAP_TIMEOUT);
+        assertThat(cursor.appliedId).isEqualTo(10);
+        assertThat(cursor.highestSeen()).isEqualTo(12);
+
+        cursor.accept(row(11));
+        cursor.advance(200, GAP_TIMEOUT);
+        assertThat(cursor.appliedId).isEqualTo(12);
+        assertThat(cursor.pending).isEmpty();
+    }
+
+    @Test
+    void gapIsSkippedAfterTimeout() {
+        InvalidationCursor cursor = new InvalidationCursor(10, 0);
+
+        cursor.accept(row(12));
+        cursor.accept(row(15));
+        cursor.advance(100, GAP_TIMEOUT);
+        cursor.advance(100 + GAP_TIMEOUT, GAP_TIMEOUT);
+        assertThat(cursor.appliedId).isEqualTo(10);
+
+        // 空洞 11 超时后跳过；12 之后的空洞 13、14 重新计时
+        cursor.advance(101 + GAP_TIMEOUT, GAP_TIMEOUT);
+        assertThat(cursor.appliedId).isEqualTo(12);
+        assertThat(cursor.pending).containsExactly(15L);
+
+        cursor.advance(102 + 2 * GAP_TIMEOUT, GAP_TIMEOUT);
+        assertThat(cursor.appliedId).isEqualTo(15);
+    }
+
+    @Test
+    void gapTimerStartsAtZeroNanoTime() {
+        InvalidationCursor cursor = new InvalidationCursor(10, 0);
+
+        cursor.accept(row(12));
+        cursor.advance(0, GAP_TIMEOUT);
+        cursor.advance(GAP_TIMEOUT + 1, GAP_TIMEOUT);
+
+        assertThat(cursor.appliedId).isEqualTo(12);
+    }
+
+    @Test
+    void messagesAreAcceptedOnce() {
+        InvalidationCursor cursor = new InvalidationCursor(10, 0);
+
+        assertThat(cursor.accept(row(9))).isFalse();
+        assertThat(cursor.accept(row(12))).isTrue();
+        assertThat(cursor.accept(row(12))).isFalse();
+        assertThat(cursor.received).isEqualTo(1);
+    }
+
+    @Test
+    void lateMessageInsideSkippedGapIsDropped() {
+        InvalidationCursor cursor = new InvalidationCursor(10, 0);
+
+        cursor.accept(row(12));
+        cursor.advance(0, GAP_TIMEOUT);
+        cursor.advance(GAP_TIMEOUT + 1, GAP_TIMEOUT);
+
+        assertThat(cursor.accept(row(11))).isFalse();
+    }
+
+    private static CacheInvalidation row(long id) {
+        CacheInvalidation row = new CacheInvalidation();
+        row.setId(id);
+        row.setEntityType(CacheInvalidation.EntityType.ROOM);
+        row.setEntityId(id);
+        return row;
+    }
+}
@@ -0,0 +1,125 @@
+package com.hotelsystem.service.outbox;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ShardingProperties;
+import com.hotelsystem.entity.OutboxEvent;
+import com.hotelsystem.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTests {
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final RecordingSink channel = new RecordingSink("channel", 0);
+    private final RecordingSink billing = new RecordingSink("billing", 1);
+    private OutboxEvent event;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        event = new OutboxEvent();
+        event.setId(1L);
+        event.setAggregateType("Reservation");
+        event.setEventType("RESERVATION_CREATED");
+        event.setCreatedAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getCreatedAt());
+
+        // 领取查询只返回已到期的待投递事件，与仓库上的 JPQL 一致
+        when(repository.findDispatchable(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            boolean due = event.getStatus() == OutboxEvent.OutboxStatus.PENDING && !event.getNextAttemptAt().isAfter(now);
+            return due ? List.of(event) : List.of();
+        });
+        when(repository.findAllById(any())).thenAnswer(invocation -> List.of(event));
+
+        // 事务管理器只记录当前是否处于事务中，用来确认投递发生在事务之外
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            return null;
+        });
+        doAnswer(invocation -> {
+            inTransaction.set(false);
+            return null;
+        }).when(transactionManager).commit(any());
+
+        dispatcher = new OutboxDispatcher(repository, List.of(channel, billing), transactionManager,
+                new PropertyRegistry(new ShardingProperties()));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 10);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ZERO);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ZERO);
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void failingSinkIsRetriedAloneOutsideTheTransaction() {
+        dispatcher.dispatch();
+
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.OutboxStatus.PENDING);
+        assertThat(event.getDeliveredSinks()).isEqualTo("channel");
+        assertThat(event.getLastError()).startsWith("billing ");
+        assertThat(event.getAttempts()).isEqualTo(1);
+
+        dispatcher.dispatch();
+
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.OutboxStatus.DISPATCHED);
+        assertThat(event.getDeliveredSinks()).isEqualTo("channel,billing");
+        assertThat(event.getAttempts()).isEqualTo(2);
+        assertThat(channel.deliveredInTransaction).containsExactly(false);
+        assertThat(billing.deliveredInTransaction).containsExactly(false, false);
+    }
+
+    @Test
+    void claimedEventIsLeasedUntilTheResultIsRecorded() {
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            // 记录结果之前，领取时写入的租约让该事件不会被再次领取
+            assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(4));
+            return List.of(event);
+        });
+
+        dispatcher.dispatch();
+
+        assertThat(billing.deliveredInTransaction).hasSize(1);
+    }
+
+    // 前 failures 次投递抛出异常
+    private final class RecordingSink implements OutboxSink {
+        private final String name;
+        private int failures;
+        private final List<Boolean> deliveredInTransaction = new ArrayList<>();
+
+        private RecordingSink(String name, int failures) {
+            this.name = name;
+            this.failures = failures;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void deliver(OutboxEvent event) throws Exception {
+            deliveredInTransaction.add(inTransaction.get());
+            if (failures-- > 0) {
+                throw new IllegalStateException("下游不可用");
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.hotelsystem.service.search;
+
+import com.hotelsystem.config.PropertyRegistry;
+import com.hotelsystem.config.ShardingProperties;
+import com.hotelsystem.dto.RoomDto;
+import com.hotelsystem.dto.RoomSearchRequest;
+import com.hotelsystem.dto.RoomSearchResult;
+import com.hotelsystem.entity.Room;
+import com.hotelsystem.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomSearchIndexTests {
+
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+
+    @Test
+    void facetsCountEveryMatchNotJustThePage() {
+        RoomSearchIndex index = index();
+        index.apply(List.of(
+                room(1L, "101", "标准间", "299.00", 2, "WiFi,空调", Room.RoomStatus.AVAILABLE),
+                room(2L, "102", "标准间", "329.00", 2, "WiFi", Room.RoomStatus.OCCUPIED),
+                room(3L, "201", "大床房", "459.00", 2, "WiFi,空调,浴缸", Room.RoomStatus.AVAILABLE),
+                room(4L, "301", "套房", "899.00", 4, "空调，浴缸", Room.RoomStatus.MAINTENANCE)), List.of());
+
+        RoomSearchRequest request = new RoomSearchRequest();
+        request.setMinPrice(new BigDecimal("300"));
+        request.setAmenities(List.of("空调"));
+        request.setSort("-price");
+        request.setSize(1);
+        RoomSearchResult result = index.search(request);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getRooms()).extracting(RoomDto::getId).containsExactly(4L);
+        assertThat(result.getFacets().get("amenities")).containsExactly(
+                Map.entry("WiFi", 1), Map.entry("浴缸", 2), Map.entry("空调", 2));
+        assertThat(result.getFacets().get("roomType")).containsOnly(Map.entry("大床房", 1), Map.entry("套房", 1));
+        assertThat(result.getFacets().get("status")).containsOnly(
+                Map.entry("AVAILABLE", 1), Map.entry("MAINTENANCE", 1));
+        assertThat(result.getFacets().get("capacity")).containsExactly(Map.entry("2", 1), Map.entry("4", 1));
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRebuild() {
+        RoomSearchIndex patched = index();
+        Map<Long, RoomDto> current = new HashMap<>();
+        String[] amenities = {"WiFi", "空调", "浴缸", "早餐", "阳台", "WiFi,空调", "浴缸,阳台", ""};
+        Random random = new Random(42);
+        for (int step = 0; step < 300; step++) {
+            long id = 1 + random.nextInt(40);
+            if (random.nextInt(4) == 0) {
+                current.remove(id);
+                patched.apply(List.of(), List.of(id));
+            } else {
+                RoomDto room = room(id, String.valueOf(100 + id), random.nextBoolean() ? "标准间" : "套房",
+                        (200 + random.nextInt(10) * 50) + ".00", 1 + random.nextInt(4),
+                        amenities[random.nextInt(amenities.length)], Room.RoomStatus.values()[random.nextInt(3)]);
+                current.put(id, room);
+                patched.apply(List.of(room), List.of());
+            }
+        }
+        when(roomRepository.findAllDtos()).thenReturn(new ArrayList<>(current.values()));
+        RoomSearchIndex rebuilt = index();
+        rebuilt.rebuild();
+
+        for (String sort : List.of("roomNumber", "-price", "capacity")) {
+            RoomSearchRequest request = new RoomSearchRequest();
+            request.setSort(sort);
+            request.setSize(200);
+            request.setMaxPrice(new BigDecimal("500"));
+            request.setMinCapacity(2);
+            assertThat(patched.search(request)).isEqualTo(rebuilt.search(request));
+            request.setAmenities(List.of("WiFi"));
+            assertThat(patched.search(request)).isEqualTo(rebuilt.search(request));
+        }
+    }
+
+    @Test
+    void amenityNoLongerUsedByAnyRoomIsPruned() {
+        RoomSearchIndex index = index();
+        index.apply(List.of(room(1L, "101", "标准间", "299.00", 2, "WiFi,桑拿", Room.RoomStatus.AVAILABLE)), List.of());
+        index.apply(List.of(room(1L, "101", "标准间", "299.00", 2, "WiFi", Room.RoomStatus.AVAILABLE)), List.of());
+        assertThat(amenityNames(index)).containsExactly("WiFi", null);
+
+        // 空出的位号由下一个新设施复用
+        index.apply(List.of(room(2L, "102", "标准间", "299.00", 2, "投影", Room.RoomStatus.AVAILABLE)), List.of());
+        assertThat(amenityNames(index)).containsExactly("WiFi", "投影");
+
+        RoomSearchRequest request = new RoomSearchRequest();
+        request.setAmenities(List.of("投影"));
+        assertThat(index.search(request).getRooms()).extracting(RoomDto::getId).containsExactly(2L);
+        request.setAmenities(List.of("桑拿"));
+        assertThat(index.search(request).getTotal()).isZero();
+    }
+
+    private RoomSearchIndex index() {
+        return new RoomSearchIndex(roomRepository, new PropertyRegistry(new ShardingProperties()));
+    }
+
+    private static String[] amenityNames(RoomSearchIndex index) {
+        Map<?, ?> partitions = (Map<?, ?>) ReflectionTestUtils.getField(index, "partitions");
+        Object snapshot = ReflectionTestUtils.getField(partitions.get("default"), "snapshot");
+        return (String[]) ReflectionTestUtils.getField(snapshot, "amenityNames");
+    }
+
+    private static RoomDto room(Long id, String roomNumber, String roomType, String price, int capacity,
+                                String amenities, Room.RoomStatus status) {
+        RoomDto room = new RoomDto();
+        room.setId(id);
+        room.setRoomNumber(roomNumber);
+        room.setRoomType(roomType);
+        room.setPrice(new BigDecimal(price));
+        room.setCapacity(capacity);
+        room.setAmenities(amenities);
+        room.setStatus(status);
+        room.setIsActive(true);
+        return room;
+    }
+}